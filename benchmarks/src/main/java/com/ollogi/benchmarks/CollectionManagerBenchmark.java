@@ -0,0 +1,231 @@
+package com.ollogi.benchmarks;
+
+import com.general.models.Flat;
+import com.ollogi.server.data.InMemoryFlatDAO;
+import com.ollogi.server.data.UserDAO;
+import com.ollogi.server.managers.FlatCollectionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки операций {@link FlatCollectionManager} на коллекциях разного размера.
+ * База данных заменена хранилищем в памяти ({@link InMemoryFlatDAO}), поэтому измеряется только работа
+ * коллекции и ее индексов.
+ * <p>
+ * Изменяющие операции измеряются пачками: состояния уровня итерации готовят данные на пачку вызовов
+ * и после нее возвращают коллекцию к исходному виду, так что подготовка и восстановление не входят в замер
+ * и не добавляют к нему накладные расходы JMH на каждый вызов. Результат делится на размер пачки,
+ * то есть остается временем одной операции.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class CollectionManagerBenchmark {
+    /**
+     * Вызовов изменяющей операции в одной итерации; не больше 10% наименьшей коллекции.
+     */
+    static final int BATCH = 100;
+    /**
+     * Очищаемых владельцев в одной итерации, каждый владеет около 1% коллекции.
+     */
+    static final int CLEAR_BATCH = 10;
+
+    /**
+     * Коллекция из {@code size} квартир с ID от 1 до size.
+     */
+    @State(Scope.Benchmark)
+    public static class CollectionState {
+        @Param({"1000", "10000", "100000", "1000000"})
+        int size;
+
+        FlatCollectionManager collectionManager;
+        final Random random = new Random(42);
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            collectionManager = new FlatCollectionManager(new InMemoryFlatDAO(FlatFixtures.flats(size, random)), new UserDAO());
+        }
+
+        long randomId() {
+            return 1 + random.nextInt(size);
+        }
+    }
+
+    /**
+     * Новые квартиры на пачку вызовов; после итерации удаляются из коллекции.
+     */
+    @State(Scope.Thread)
+    public static class NewElements {
+        private final Flat[] flats = new Flat[BATCH];
+        private int next;
+        private CollectionState collection;
+
+        @Setup(Level.Iteration)
+        public void setUp(CollectionState collection) {
+            this.collection = collection;
+            for (int i = 0; i < BATCH; i++) flats[i] = FlatFixtures.flat(collection.random);
+            next = 0;
+        }
+
+        Flat next() {
+            return flats[next++];
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            for (int i = 0; i < next; i++) {
+                collection.collectionManager.removeFromCollection(flats[i], flats[i].getUsername());
+            }
+        }
+    }
+
+    /**
+     * Разные случайные квартиры коллекции и их замены с теми же ID на пачку вызовов; после итерации
+     * удаленные операцией квартиры возвращаются в коллекцию.
+     */
+    @State(Scope.Thread)
+    public static class ExistingElements {
+        private final Flat[] flats = new Flat[BATCH];
+        private final Flat[] replacements = new Flat[BATCH];
+        private int next;
+        private CollectionState collection;
+
+        @Setup(Level.Iteration)
+        public void setUp(CollectionState collection) {
+            this.collection = collection;
+            Set<Long> ids = new HashSet<>();
+            while (ids.size() < BATCH) ids.add(collection.randomId());
+            int i = 0;
+            for (long id : ids) {
+                flats[i] = collection.collectionManager.getById(id);
+                replacements[i] = FlatFixtures.flat(collection.random);
+                replacements[i].setId(id);
+                replacements[i].setUsername(flats[i].getUsername());
+                i++;
+            }
+            next = 0;
+        }
+
+        Flat next() {
+            return flats[next++];
+        }
+
+        Flat nextReplacement() {
+            return replacements[next++];
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            for (Flat flat : flats) {
+                if (!collection.collectionManager.checkExist(flat.getId())) {
+                    collection.collectionManager.addToCollection(flat.getUsername(), flat);
+                }
+            }
+        }
+    }
+
+    /**
+     * Разные случайные владельцы на пачку вызовов; после итерации их квартиры возвращаются в коллекцию.
+     */
+    @State(Scope.Thread)
+    public static class OwnerElements {
+        private final String[] owners = new String[CLEAR_BATCH];
+        private final List<Flat> owned = new ArrayList<>();
+        private int next;
+        private CollectionState collection;
+
+        @Setup(Level.Iteration)
+        public void setUp(CollectionState collection) {
+            this.collection = collection;
+            Set<String> chosen = new HashSet<>();
+            while (chosen.size() < CLEAR_BATCH) {
+                chosen.add(FlatFixtures.owner(collection.random.nextInt(FlatFixtures.OWNERS)));
+            }
+            chosen.toArray(owners);
+            owned.clear();
+            for (Flat flat : collection.collectionManager.getCollection()) {
+                if (chosen.contains(flat.getUsername())) owned.add(flat);
+            }
+            next = 0;
+        }
+
+        String next() {
+            return owners[next++];
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            for (Flat flat : owned) {
+                collection.collectionManager.addToCollection(flat.getUsername(), flat);
+            }
+        }
+    }
+
+    @Benchmark
+    public Flat getById(CollectionState collection) {
+        return collection.collectionManager.getById(collection.randomId());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 10, batchSize = BATCH)
+    @Measurement(iterations = 20, batchSize = BATCH)
+    @OperationsPerInvocation(BATCH)
+    public Long addToCollection(CollectionState collection, NewElements elements) {
+        return collection.collectionManager.addToCollection("benchmark", elements.next());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 10, batchSize = BATCH)
+    @Measurement(iterations = 20, batchSize = BATCH)
+    @OperationsPerInvocation(BATCH)
+    public boolean removeFromCollection(CollectionState collection, ExistingElements elements) {
+        Flat flat = elements.next();
+        return collection.collectionManager.removeFromCollection(flat, flat.getUsername());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 10, batchSize = BATCH)
+    @Measurement(iterations = 20, batchSize = BATCH)
+    @OperationsPerInvocation(BATCH)
+    public void updateInCollection(CollectionState collection, ExistingElements elements) {
+        collection.collectionManager.updateInCollection(elements.nextReplacement());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 10, batchSize = CLEAR_BATCH)
+    @Measurement(iterations = 20, batchSize = CLEAR_BATCH)
+    @OperationsPerInvocation(CLEAR_BATCH)
+    public void clearCollection(CollectionState collection, OwnerElements elements) {
+        collection.collectionManager.clearCollection(elements.next());
+    }
+
+    @Benchmark
+    public void sortCollection(CollectionState collection) {
+        collection.collectionManager.sortCollection();
+    }
+}
@@ -0,0 +1,59 @@
+package com.ollogi.benchmarks;
+
+import com.general.models.Coordinates;
+import com.general.models.Flat;
+import com.general.models.House;
+import com.general.models.View;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Генерация случайных, но воспроизводимых квартир для бенчмарков.
+ */
+public final class FlatFixtures {
+    /**
+     * Количество владельцев, между которыми распределяются квартиры.
+     */
+    public static final int OWNERS = 100;
+
+    private FlatFixtures() {
+    }
+
+    /**
+     * @param count  количество квартир
+     * @param random генератор случайных чисел
+     * @return квартиры с ID от 1 до count
+     */
+    public static List<Flat> flats(int count, Random random) {
+        List<Flat> flats = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Flat flat = flat(random);
+            flat.setId((long) i);
+            flat.setUsername(owner(random.nextInt(OWNERS)));
+            flats.add(flat);
+        }
+        return flats;
+    }
+
+    /**
+     * @param random генератор случайных чисел
+     * @return квартира без ID и владельца
+     */
+    public static Flat flat(Random random) {
+        return new Flat(0, "flat-" + Integer.toHexString(random.nextInt()),
+                new Coordinates((long) random.nextInt(1000), random.nextFloat() * 100),
+                1 + random.nextInt(200), 1 + random.nextInt(5), 1 + random.nextInt(30),
+                1 + random.nextFloat() * 20, View.values()[random.nextInt(View.values().length)],
+                new House("house-" + random.nextInt(1000), 1900 + random.nextInt(125), 1L + random.nextInt(8), 1 + random.nextInt(4)));
+    }
+
+    /**
+     * @param index номер владельца
+     * @return имя владельца
+     */
+    public static String owner(int index) {
+        return "user" + index;
+    }
+}
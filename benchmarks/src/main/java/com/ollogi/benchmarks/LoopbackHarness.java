@@ -0,0 +1,246 @@
+package com.ollogi.benchmarks;
+
+import com.client.network.TCPClient;
+import com.general.io.Console;
+import com.general.managers.CommandManager;
+import com.general.managers.stats.StatsRegistry;
+import com.general.models.Flat;
+import com.general.network.Request;
+import com.general.network.Response;
+import com.ollogi.server.data.InMemoryFlatDAO;
+import com.ollogi.server.data.InMemoryUserDAO;
+import com.ollogi.server.main.Main;
+import com.ollogi.server.managers.DatabaseAuthenticator;
+import com.ollogi.server.managers.DatabaseManager;
+import com.ollogi.server.managers.FlatCollectionManager;
+import com.ollogi.server.network.Handler;
+import com.ollogi.server.network.TCPServer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+/**
+ * Сквозной прогон в одном процессе: сервер с настоящими {@code TCPServer}, {@code Handler} и {@code CommandManager},
+ * коллекция и пользователи которого хранятся в памяти, и N клиентов {@link TCPClient}, подключенных через loopback.
+ * Каждый клиент по очереди отправляет команды из списка и ждет ответа, а задержка полного цикла запрос-ответ
+ * записывается по командам. База данных не нужна, поэтому прогон подходит для сравнения изменений сетевого слоя.
+ * <p>
+ * Запуск: {@code mvn -pl benchmarks -am verify -Ploopback -DskipTests [-Dloopback.args="--clients 16 --json report.json"]}.
+ */
+public class LoopbackHarness {
+    private static final String USAGE = String.join("\n",
+            "Использование: LoopbackHarness [параметры]",
+            "  --clients <N>      количество клиентов (8)",
+            "  --requests <N>     измеряемых запросов на клиента (2000)",
+            "  --warmup <N>       запросов прогрева на клиента (500)",
+            "  --elements <N>     размер коллекции сервера (1000)",
+            "  --commands <список> команды через запятую (" + LoopbackHarness.DEFAULT_COMMANDS + ")",
+            "  --json <файл>      записать отчет в JSON");
+    private static final String DEFAULT_COMMANDS = "show,filter_starts_with_name,info,sum_of_height,group_counting_by_house,add,update";
+    private static final String PASSWORD = "harness-password";
+
+    private int clients = 8;
+    private int requests = 2000;
+    private int warmup = 500;
+    private int elements = 1000;
+    private String[] commands = DEFAULT_COMMANDS.split(",");
+    private Path jsonReport;
+
+    public static void main(String[] args) throws Exception {
+        LoopbackHarness harness = new LoopbackHarness();
+        try {
+            harness.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        RoundTripReport report = harness.run();
+        System.out.println(report.format());
+        if (harness.jsonReport != null) {
+            Files.writeString(harness.jsonReport, report.toJson());
+            System.out.println("Отчет записан в " + harness.jsonReport);
+        }
+        System.exit(0);
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Не указано значение параметра " + args[i]);
+            String value = args[i + 1];
+            try {
+                switch (args[i++]) {
+                    case "--clients" -> clients = Integer.parseInt(value);
+                    case "--requests" -> requests = Integer.parseInt(value);
+                    case "--warmup" -> warmup = Integer.parseInt(value);
+                    case "--elements" -> elements = Integer.parseInt(value);
+                    case "--commands" -> commands = value.split(",");
+                    case "--json" -> jsonReport = Path.of(value);
+                    default -> throw new IllegalArgumentException("Неизвестный параметр " + args[i - 1]);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Некорректное значение параметра " + args[i - 1] + ": " + value);
+            }
+        }
+        if (clients <= 0 || requests <= 0 || warmup < 0 || elements < 0) {
+            throw new IllegalArgumentException("Количество клиентов и запросов должно быть положительным");
+        }
+    }
+
+    /**
+     * Запускает сервер, выполняет прогрев и измерение и останавливает сервер.
+     *
+     * @return отчет прогона
+     * @throws Exception если сервер или клиенты не смогли запуститься
+     */
+    public RoundTripReport run() throws Exception {
+        Random random = new Random(42);
+        InMemoryUserDAO userDAO = new InMemoryUserDAO();
+        FlatCollectionManager collectionManager = new FlatCollectionManager(
+                new InMemoryFlatDAO(FlatFixtures.flats(elements, random)), userDAO);
+        CommandManager commandManager = new CommandManager();
+        DatabaseAuthenticator authenticator = new DatabaseAuthenticator(userDAO, DatabaseManager.getExecutor());
+        Main.initCommands(collectionManager, commandManager, userDAO, authenticator);
+        commandManager.setCollectionManager(collectionManager);
+        Handler.setAuthenticator(authenticator);
+        Handler.setCommandManager(commandManager);
+
+        TCPServer server = new TCPServer(0);
+        int port = server.bind();
+        Thread serverThread = new Thread(server::start, "loopback-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        StatsRegistry roundTrips = new StatsRegistry();
+        long[] measuredFrom = new long[1];
+        CyclicBarrier measurementStart = new CyclicBarrier(clients, () -> {
+            commandManager.getStatistics().reset();
+            measuredFrom[0] = System.nanoTime();
+        });
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        try {
+            for (int i = 0; i < clients; i++) {
+                TCPClient client = new TCPClient("localhost", port, new ErrorConsole());
+                if (!client.connect()) throw new IllegalStateException("Клиент не подключился к серверу");
+                String login = "harness" + i;
+                Request register = new Request("register", null);
+                register.setLogin(login);
+                register.setPassword(PASSWORD);
+                Response registered = client.sendCommand(register);
+                if (!registered.isSuccess()) throw new IllegalStateException("Клиент не зарегистрирован: " + registered.getMessage());
+
+                int offset = i;
+                long seed = random.nextLong();
+                Thread thread = new Thread(() -> {
+                    try {
+                        runClient(client, login, offset, seed, roundTrips, measurementStart);
+                    } catch (Throwable e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                        measurementStart.reset();
+                    } finally {
+                        client.disconnect();
+                    }
+                }, "loopback-client-" + i);
+                threads.add(thread);
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) thread.join();
+            if (!failures.isEmpty()) throw new IllegalStateException("Клиент завершился с ошибкой", failures.get(0));
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - measuredFrom[0]);
+
+            Map<String, Object> parameters = new LinkedHashMap<>();
+            parameters.put("clients", clients);
+            parameters.put("requestsPerClient", requests);
+            parameters.put("warmupPerClient", warmup);
+            parameters.put("elements", elements);
+            parameters.put("commands", String.join(",", commands));
+            return new RoundTripReport(parameters, roundTrips, commandManager.getStatistics().sinceReset(), elapsed);
+        } finally {
+            server.stop();
+            serverThread.join(5000);
+        }
+    }
+
+    private void runClient(TCPClient client, String login, int offset, long seed, StatsRegistry roundTrips,
+                           CyclicBarrier measurementStart)
+            throws InterruptedException, BrokenBarrierException {
+        Random random = new Random(seed);
+        Long ownId = null;
+        for (int i = 0; i < warmup + requests; i++) {
+            if (i == warmup) measurementStart.await();
+            String command = commands[(i + offset) % commands.length];
+            if (command.equals("update") && ownId == null) command = "add";
+            Request request = buildRequest(command, login, ownId, random);
+            long start = System.nanoTime();
+            Response response = client.sendCommand(request);
+            long latency = System.nanoTime() - start;
+            if (i >= warmup) roundTrips.recordCommand(command, latency, response.isSuccess());
+            if (command.equals("add") && response.isSuccess() && response.getData() instanceof Long id) ownId = id;
+        }
+    }
+
+    private static Request buildRequest(String command, String login, Long ownId, Random random) {
+        return switch (command) {
+            case "add" -> new Request(command, FlatFixtures.flat(random));
+            case "update" -> {
+                Flat flat = FlatFixtures.flat(random);
+                flat.setId(ownId);
+                flat.setUsername(login);
+                yield new Request(command, flat);
+            }
+            case "filter_starts_with_name" -> new Request(command, new String[]{command, "flat-" + Integer.toHexString(random.nextInt(16))});
+            default -> new Request(command, null);
+        };
+    }
+
+    /**
+     * Консоль, выводящая только ошибки: сообщения клиента о подключении в отчет не попадают.
+     */
+    private static class ErrorConsole implements Console {
+        @Override
+        public void print(Object obj) {
+        }
+
+        @Override
+        public void println(Object obj) {
+        }
+
+        @Override
+        public void printError(Object obj) {
+            System.err.println(obj);
+        }
+
+        @Override
+        public void printTable(Object obj1, Object obj2) {
+        }
+
+        @Override
+        public void ps1() {
+        }
+
+        @Override
+        public void ps2() {
+        }
+
+        @Override
+        public String getPS1() {
+            return "";
+        }
+
+        @Override
+        public String getPS2() {
+            return "";
+        }
+    }
+}
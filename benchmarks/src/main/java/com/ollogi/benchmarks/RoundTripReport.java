@@ -0,0 +1,105 @@
+package com.ollogi.benchmarks;
+
+import com.general.managers.stats.LatencyHistogram;
+import com.general.managers.stats.StatsRegistry;
+import com.google.gson.GsonBuilder;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Отчет сквозного прогона: задержки полного цикла запрос-ответ по командам, измеренные клиентами,
+ * и статистика сервера по командам и этапам обработки за тот же период.
+ */
+public class RoundTripReport {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, Object> parameters;
+    private final StatsRegistry roundTrips;
+    private final StatsRegistry server;
+    private final Duration elapsed;
+
+    /**
+     * @param parameters параметры прогона
+     * @param roundTrips задержки, измеренные клиентами
+     * @param server     статистика сервера
+     * @param elapsed    длительность измеряемого периода
+     */
+    public RoundTripReport(Map<String, Object> parameters, StatsRegistry roundTrips, StatsRegistry server, Duration elapsed) {
+        this.parameters = parameters;
+        this.roundTrips = roundTrips;
+        this.server = server;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * @return количество запросов в секунду по всем клиентам
+     */
+    public double getThroughput() {
+        long total = 0;
+        for (String command : roundTrips.getCommandNames()) total += roundTrips.getCommandLatency(command).count();
+        return total / (elapsed.toNanos() / 1e9);
+    }
+
+    /**
+     * Формирует текстовый отчет. Задержки выводятся в миллисекундах.
+     *
+     * @return отчет
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Параметры: ").append(parameters).append('\n');
+        sb.append(String.format("Длительность: %.3f с, пропускная способность: %.1f запросов/с%n",
+                elapsed.toNanos() / 1e9, getThroughput()));
+        sb.append("Полный цикл запрос-ответ на клиенте (мс):\n");
+        sb.append(String.format("%-26s%10s%8s%10s%10s%10s%10s%10s%n", "", "запросы", "ошибки", "p50", "p90", "p99", "p999", "max"));
+        for (String command : roundTrips.getCommandNames()) {
+            LatencyHistogram histogram = roundTrips.getCommandLatency(command);
+            sb.append(String.format("%-26s%10d%8d%10.3f%10.3f%10.3f%10.3f%10.3f%n", command, histogram.count(),
+                    roundTrips.getCommandErrors(command), millis(histogram.percentile(50)), millis(histogram.percentile(90)),
+                    millis(histogram.percentile(99)), millis(histogram.percentile(99.9)), millis(histogram.max())));
+        }
+        sb.append("Сервер:\n").append(server.format());
+        return sb.toString();
+    }
+
+    /**
+     * Формирует отчет в формате JSON. Задержки указываются в миллисекундах.
+     *
+     * @return отчет в JSON
+     */
+    public String toJson() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("parameters", parameters);
+        report.put("durationSeconds", elapsed.toNanos() / 1e9);
+        report.put("throughput", getThroughput());
+        Map<String, Object> commands = new LinkedHashMap<>();
+        for (String command : roundTrips.getCommandNames()) {
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("roundTrip", latency(roundTrips.getCommandLatency(command), roundTrips.getCommandErrors(command)));
+            LatencyHistogram serverLatency = server.getCommandLatency(command);
+            if (serverLatency != null) latency.put("server", latency(serverLatency, server.getCommandErrors(command)));
+            commands.put(command, latency);
+        }
+        report.put("commands", commands);
+        return new GsonBuilder().setPrettyPrinting().create().toJson(report);
+    }
+
+    private static Map<String, Object> latency(LatencyHistogram histogram, long errors) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("count", histogram.count());
+        latency.put("errors", errors);
+        latency.put("mean", millis(Math.round(histogram.mean())));
+        for (double percentile : PERCENTILES) {
+            latency.put("p" + (percentile == Math.floor(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                    millis(histogram.percentile(percentile)));
+        }
+        latency.put("max", millis(histogram.max()));
+        return latency;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,110 @@
+package com.ollogi.benchmarks;
+
+import com.general.io.TableRenderer;
+import com.general.managers.CollectionDelta;
+import com.general.models.Flat;
+import com.general.models.meta.ModelMetadata;
+import com.general.network.FrameDecoder;
+import com.general.network.FrameEncoder;
+import com.general.network.Request;
+import com.general.network.Response;
+import com.general.network.Sendable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки сериализации запросов и ответов так, как их передают клиент и сервер: кадр собирает тот же
+ * {@link FrameEncoder}, которым пользуются {@code TCPWriter} сервера и {@link com.general.network.AsyncTCPClient}.
+ * <p>
+ * Размер кадра каждого варианта выводится при подготовке. Выделение памяти на операцию измеряется профилировщиком:
+ * {@code java -jar benchmarks/target/benchmarks.jar SerializationBenchmark -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    private static final int SHOW_ROWS = 10_000;
+    private static final int HOUSES = 1_000;
+
+    /**
+     * Вариант сообщения:
+     * add_request - запрос с одной квартирой;
+     * show_response - ответ show с таблицей из 10^4 строк;
+     * snapshot_response - ответ sync с {@link CollectionDelta} из 10^4 квартир (полный снимок для локальной копии коллекции);
+     * group_counting_by_house_response - ответ group_counting_by_house с 10^3 домами.
+     */
+    @Param({"add_request", "show_response", "snapshot_response", "group_counting_by_house_response"})
+    private String payload;
+
+    private Sendable message;
+    private byte[] frame;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        message = switch (payload) {
+            case "add_request" -> {
+                Request request = new Request("add", FlatFixtures.flat(random));
+                request.setLogin("user0");
+                request.setPassword("password");
+                yield request;
+            }
+            case "show_response" -> {
+                List<Flat> flats = FlatFixtures.flats(SHOW_ROWS, random);
+                yield new Response(true, null, TableRenderer.get().render(ModelMetadata.of(Flat.class), flats));
+            }
+            case "snapshot_response" -> {
+                CollectionDelta<Flat> snapshot = CollectionDelta.snapshot(1L, 1L, FlatFixtures.flats(SHOW_ROWS, random));
+                yield new Response(true, "Версия коллекции: " + snapshot.getVersion(), snapshot);
+            }
+            case "group_counting_by_house_response" -> {
+                Map<String, Long> houses = new HashMap<>();
+                for (int i = 0; i < HOUSES; i++) houses.put("house-" + i, (long) random.nextInt(100));
+                yield new Response(true, "Группировка выполнена успешно.", houses);
+            }
+            default -> throw new IllegalArgumentException(payload);
+        };
+        ByteBuffer encoded = FrameEncoder.encode(1L, message);
+        frame = new byte[encoded.remaining() - Integer.BYTES];
+        encoded.position(Integer.BYTES).get(frame);
+        // Вывод форка JMH не всегда сохраняет кириллицу, поэтому строка в том же виде, что и отчет JMH
+        System.out.printf("%nframe size (%s): %d bytes%n", payload, encoded.limit());
+    }
+
+    @Benchmark
+    public ByteBuffer encode() throws IOException {
+        return FrameEncoder.encode(1L, message);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException, ClassNotFoundException {
+        FrameDecoder.requestIdOf(frame);
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(frame,
+                FrameDecoder.REQUEST_ID_LENGTH, frame.length - FrameDecoder.REQUEST_ID_LENGTH))) {
+            return objectInputStream.readObject();
+        }
+    }
+}
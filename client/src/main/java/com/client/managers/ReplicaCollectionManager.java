@@ -0,0 +1,30 @@
+package com.client.managers;
+
+import com.client.network.TCPClient;
+import com.general.managers.ReplicatedCollectionManager;
+import com.general.models.Flat;
+import com.general.network.Request;
+import com.general.network.Response;
+
+/**
+ * Локальная копия коллекции сервера на клиенте.
+ * <p>
+ * Перед каждым чтением копия запрашивает у сервера только изменения со своей версии
+ * ({@link #sync()}), поэтому читающие команды выполняются над локальной копией, а по сети
+ * передаются лишь изменения.
+ */
+public class ReplicaCollectionManager extends ReplicatedCollectionManager<Flat> {
+    private final TCPClient tcpClient;
+
+    /**
+     * @param tcpClient TCP-клиент для запроса изменений у сервера
+     */
+    public ReplicaCollectionManager(TCPClient tcpClient) {
+        this.tcpClient = tcpClient;
+    }
+
+    @Override
+    protected Response requestChanges(Long[] cursor) {
+        return tcpClient.sendCommand(new Request("sync", cursor));
+    }
+}
@@ -1,26 +1,25 @@
 package com.client.network;
 
-import com.general.command.Command;
 import com.general.io.Console;
+import com.general.network.AsyncTCPClient;
 import com.general.network.Request;
 import com.general.network.Response;
 
-import java.io.*;
-import java.net.InetSocketAddress;
-import java.nio.ByteBuffer;
-import java.nio.channels.SelectionKey;
-import java.nio.channels.Selector;
-import java.nio.channels.SocketChannel;
-import java.nio.channels.UnresolvedAddressException;
-import java.util.Iterator;
-import java.util.Set;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
+/**
+ * Блокирующий клиент для консольного приложения поверх {@link AsyncTCPClient}:
+ * выводит сообщения о подключении, переподключается при обрыве и повторяет запросы.
+ */
 public class TCPClient {
+    private static final int MAX_ATTEMPTS = 3;
     private final Console output;
     private final String serverAddress;
     private final int serverPort;
-    private SocketChannel socketChannel;
+    private AsyncTCPClient connection;
     private String login;
     private String password;
     public TCPClient(String serverAddress, int serverPort, Console output) {
@@ -36,50 +35,19 @@ public class TCPClient {
      * @throws TimeoutException если время подключения истекло
      */
     public boolean connect() throws TimeoutException {
-        Selector selector = null;
-        boolean connectFlag = false;
+        AsyncTCPClient client = new AsyncTCPClient(serverAddress, serverPort);
         try {
-            socketChannel = SocketChannel.open();
-            socketChannel.configureBlocking(false);
-            InetSocketAddress address = new InetSocketAddress(serverAddress, serverPort);
-            socketChannel.connect(address);
-
-            selector = Selector.open();
-            socketChannel.register(selector, SelectionKey.OP_CONNECT);
-
-            long startTime = System.currentTimeMillis();
-            while (System.currentTimeMillis() - startTime < 10000) {
-                if (selector.select(1000) == 0) {
-                    continue;
-                }
-
-                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
-                while (keys.hasNext()) {
-                    SelectionKey key = keys.next();
-                    keys.remove();
-                    if (key.isConnectable()) {
-                        try {
-                            connectFlag = socketChannel.finishConnect();
-                        } catch (IOException ignored) {
-                        }
-                        if (connectFlag) {
-                            output.println("Подключено к серверу: " + serverAddress + ":" + serverPort);
-                            return true;
-                        }
-                    }
-                }
-            }
-            throw new TimeoutException("Не удалось подключиться в течение 10 секунд");
+            client.connect();
+            client.setCredentials(login, password);
+            connection = client;
+            output.println("Подключено к серверу: " + serverAddress + ":" + serverPort);
+            return true;
         } catch (IOException e) {
             output.println("Ошибка при подключении к серверу: " + e.getMessage());
             return false;
-        } catch (UnresolvedAddressException badAddress) {
+        } catch (IllegalArgumentException badAddress) {
             output.printError("Ошибка в указании адреса");
             return false;
-        } finally {
-            if (!connectFlag) {
-                closeResources(selector, socketChannel);
-            }
         }
     }
 
@@ -93,7 +61,7 @@ public class TCPClient {
             output.println("Нет подключения к серверу.");
             try {
                 output.println("Попытка повторного подключения к серверу...");
-                connect();
+                return connect();
             } catch (TimeoutException e) {
                 output.printError("Ошибка переподключения: " + e.getMessage());
                 return false;
@@ -104,91 +72,36 @@ public class TCPClient {
 
     /**
      * Отключается от сервера.
-     *
-     * @throws IOException если произошла ошибка ввода-вывода
      */
-    public void disconnect() throws IOException {
-        if (socketChannel != null) {
-            socketChannel.close();
+    public void disconnect() {
+        if (connection != null) {
+            connection.close();
         }
     }
 
     /**
-     * Отправляет запрос на сервер.
+     * Отправляет запрос на сервер, не дожидаясь ответа.
      *
      * @param request запрос для отправки
-     * @throws IOException если произошла ошибка ввода-вывода
+     * @throws IOException если запрос не удалось записать в соединение
      */
     public void sendRequest(Request request) throws IOException {
         if (!ensureConnection()) throw new IOException("Не удалось обеспечить подключение");
-        request.setLogin(login);
-        request.setPassword(password);
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
-        objectOutputStream.writeObject(request);
-        objectOutputStream.flush();
-        byte[] requestBytes = byteArrayOutputStream.toByteArray();
-        ByteBuffer buffer = ByteBuffer.wrap(requestBytes);
-        socketChannel.write(buffer);
-    }
-
-    /**
-     * Получает ответ от сервера.
-     *
-     * @return ответ от сервера
-     * @throws IOException            если произошла ошибка ввода-вывода
-     * @throws ClassNotFoundException если класс ответа не найден
-     */
-    public Response receiveResponse() throws IOException, ClassNotFoundException {
-        ensureConnection();
-        Selector selector = Selector.open();
-        socketChannel.configureBlocking(false);
-        socketChannel.register(selector, SelectionKey.OP_READ);
-        ByteBuffer buffer = ByteBuffer.allocate(16384);
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        long startTime = System.currentTimeMillis();
-
-        while (System.currentTimeMillis() - startTime < 10000) { // Ожидание ответа до 10 секунд
-            int readyChannels = selector.select(10000); // Ожидание событий до 10 секунд
-            if (readyChannels == 0) {
-                continue;
-            }
-
-            Set<SelectionKey> selectedKeys = selector.selectedKeys();
-            Iterator<SelectionKey> keyIterator = selectedKeys.iterator();
-
-            while (keyIterator.hasNext()) {
-                SelectionKey key = keyIterator.next();
-                if (key.isReadable()) {
-                    int bytesRead;
-                    while ((bytesRead = socketChannel.read(buffer)) > 0) {
-                        buffer.flip();
-                        byteArrayOutputStream.write(buffer.array(), 0, bytesRead);
-                        buffer.clear();
-                    }
-                    if (bytesRead == -1) {
-                        // Закрытие канала
-                        socketChannel.close();
-                    }
-                }
-                keyIterator.remove();
-            }
-
-            byte[] responseBytes = byteArrayOutputStream.toByteArray();
-            if (responseBytes.length > 0) {
-                try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(responseBytes))) {
-                    return (Response) objectInputStream.readObject();
-                } catch (Exception ignore) {
-                }
-            }
+        applyCredentials(request);
+        try {
+            connection.sendOneWay(request).get();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Отправка прервана");
         }
-
-        // Если за 10 секунд не получили ответ, генерируем исключение
-        throw new IOException("Нет ответа от сервера в течение указанного времени ожидания");
     }
 
     /**
-     * Отправляет команду на сервер и ждет ответа.
+     * Отправляет команду на сервер и ждет ответа. Если ответ не получен, запрос повторяется
+     * через новое подключение. Запросу присваивается ключ идемпотентности, поэтому повтор уже выполненной
+     * сервером команды не выполнит ее второй раз, а вернет исходный ответ.
      *
      * @param request запрос для отправки
      * @return ответ от сервера
@@ -198,19 +111,31 @@ public class TCPClient {
         if (command.equals("login") || command.equals("register")) {
             login = request.getLogin();
             password = request.getPassword();
+            if (connection != null) connection.setCredentials(login, password);
+        } else if (request.getIdempotencyKey() == null) {
+            request.setIdempotencyKey(UUID.randomUUID().toString());
         }
-        try {
-            sendRequest(request);
-            return receiveResponse();
-        } catch (IOException | ClassNotFoundException e) {
-            output.printError(e.getMessage());
-        }
-        output.printError("Запрос не отправлен. Повторите попытку позже.");
-        try {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                if (!ensureConnection()) throw new IOException("Не удалось обеспечить подключение");
+                applyCredentials(request);
+                return connection.send(request).get();
+            } catch (IOException e) {
+                output.printError(e.getMessage());
+            } catch (ExecutionException e) {
+                output.printError(e.getCause() instanceof TimeoutException
+                        ? "Нет ответа от сервера в течение указанного времени ожидания"
+                        : e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
             disconnect();
-        } catch (IOException e) {
-            output.printError("Не удалось закрыть соединение");
+            if (attempt < MAX_ATTEMPTS) {
+                output.println("Повторная отправка запроса (попытка " + (attempt + 1) + " из " + MAX_ATTEMPTS + ")...");
+            }
         }
+        output.printError("Запрос не отправлен. Повторите попытку позже.");
         return new Response(false, "Команда не выполнена!", null);
     }
 
@@ -220,25 +145,20 @@ public class TCPClient {
      * @return true, если подключен, иначе false
      */
     public boolean isConnected() {
-        return socketChannel != null && socketChannel.isConnected();
+        return connection != null && connection.isConnected();
     }
 
     /**
-     * Закрывает указанные ресурсы.
-     *
-     * @param selector      селектор для закрытия
-     * @param socketChannel канал для закрытия
+     * @return асинхронный клиент текущего подключения или null, если подключения не было
      */
-    private void closeResources(Selector selector, SocketChannel socketChannel) {
-        try {
-            if (socketChannel != null) {
-                socketChannel.close();
-            }
-            if (selector != null) {
-                selector.close();
-            }
-        } catch (IOException e) {
-            output.println("Ошибка при закрытии ресурсов: " + e.getMessage());
+    public AsyncTCPClient getConnection() {
+        return connection;
+    }
+
+    private void applyCredentials(Request request) {
+        if (!"login".equals(request.getCommand()) && !"register".equals(request.getCommand())) {
+            request.setLogin(login);
+            request.setPassword(password);
         }
     }
 }
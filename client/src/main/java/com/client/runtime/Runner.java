@@ -1,12 +1,18 @@
 package com.client.runtime;
 
+import com.client.managers.ReplicaCollectionManager;
 import com.client.network.TCPClient;
 import com.client.models.forms.FlatForm;
 import com.general.exceptions.*;
 import com.general.io.Console;
 import com.general.io.Interrogator;
+import com.general.io.TableRenderer;
+import com.general.managers.index.NamePrefixQuery;
+import com.general.models.Flat;
+import com.general.models.meta.ModelMetadata;
 import com.general.network.Request;
 import com.general.network.Response;
+import com.general.network.ScriptBatch;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -28,6 +34,7 @@ public class Runner {
 
     private final Console console;        // Консоль для взаимодействия с пользователем
     private final TCPClient tcpClient;    // TCP-клиент для обмена данными с сервером
+    private final ReplicaCollectionManager replica; // Локальная копия коллекции для читающих команд
     private final List<String> commandHistory = new ArrayList<>(); // История выполненных команд
     private final List<String> scriptStack = new ArrayList<>();   // Стек скриптов
 
@@ -40,6 +47,7 @@ public class Runner {
     public Runner(TCPClient tcpClient, Console console) {
         this.tcpClient = tcpClient;
         this.console = console;
+        this.replica = new ReplicaCollectionManager(tcpClient);
     }
 
     /**
@@ -76,45 +84,81 @@ public class Runner {
     }
 
     /**
-     * Режим для запуска скрипта.
+     * Режим для запуска скрипта. Скрипт целиком разбирается на клиенте (включая ввод элементов)
+     * и отправляется на сервер одним запросом; сервер выполняет команды по порядку и возвращает
+     * результат для каждой строки.
      *
-     * @param argument Аргумент скрипта
+     * @param argument Аргумент скрипта: имя файла, перед которым может стоять флаг -a (атомарное выполнение)
      * @return Код завершения.
      */
     public ExitCode scriptMode(String argument) {
-        String[] userCommand = {"", ""};
-        ExitCode commandStatus;
+        boolean atomic = false;
+        if (argument.startsWith("-a ")) {
+            atomic = true;
+            argument = argument.substring(3).trim();
+        }
+
+        ScriptBatch batch = new ScriptBatch(atomic);
+        ExitCode compileStatus = compileScript(argument, batch);
+        if (compileStatus == ExitCode.ERROR) {
+            console.println("Проверьте скрипт на корректность введенных данных!");
+            return ExitCode.ERROR;
+        }
+        if (batch.size() == 0) return compileStatus;
+
+        Response response = tcpClient.sendCommand(new Request("execute_script", batch));
+        printScriptResults(batch, response);
+        if (compileStatus == ExitCode.EXIT) return ExitCode.EXIT;
+        return response.isSuccess() ? ExitCode.OK : ExitCode.ERROR;
+    }
+
+    /**
+     * Разбирает скрипт и добавляет его команды в пакет. Вложенные скрипты подставляются на место вызова.
+     *
+     * @param argument Имя файла скрипта
+     * @param batch    Пакет, в который добавляются команды
+     * @return Код завершения: OK, ERROR при ошибке в скрипте или EXIT, если скрипт завершает работу.
+     */
+    private ExitCode compileScript(String argument, ScriptBatch batch) {
+        String[] userCommand;
+        ExitCode commandStatus = ExitCode.OK;
         scriptStack.add(argument);
         if (!new File(argument).exists()) {
             argument = "../" + argument;
         }
+        Scanner tmpScanner = Interrogator.getUserScanner();
+        boolean tmpFileMode = Interrogator.fileMode();
         try (Scanner scriptScanner = new Scanner(new File(argument))) {
             if (!scriptScanner.hasNext()) throw new NoSuchElementException();
-            Scanner tmpScanner = Interrogator.getUserScanner();
             Interrogator.setUserScanner(scriptScanner);
             Interrogator.setFileMode();
 
-            do {
-                do {
-                    userCommand = (scriptScanner.nextLine().trim() + " ").split(" ", 2);
-                    userCommand[1] = userCommand[1].trim();
-                } while (scriptScanner.hasNextLine() && userCommand[0].isEmpty());
-                console.println(console.getPS1() + String.join(" ", userCommand));
-                if (userCommand[0].equals("execute_script")) {
-                    for (String script : scriptStack) {
-                        if (userCommand[1].equals(script)) throw new ScriptRecursionException();
+            while (commandStatus == ExitCode.OK && scriptScanner.hasNextLine()) {
+                userCommand = (scriptScanner.nextLine().trim() + " ").split(" ", 2);
+                userCommand[1] = userCommand[1].trim();
+                if (userCommand[0].isEmpty()) continue;
+
+                switch (userCommand[0]) {
+                    case "exit" -> commandStatus = ExitCode.EXIT;
+                    case "history" -> commandStatus = launchCommand(userCommand);
+                    case "execute_script" -> {
+                        String nested = userCommand[1].startsWith("-a ") ? userCommand[1].substring(3).trim() : userCommand[1];
+                        for (String script : scriptStack) {
+                            if (nested.equals(script)) throw new ScriptRecursionException();
+                        }
+                        commandStatus = compileScript(nested, batch);
+                    }
+                    default -> {
+                        Request request = buildRequest(userCommand);
+                        if (request == null) {
+                            console.printError("Ошибка в строке скрипта: " + String.join(" ", userCommand));
+                            commandStatus = ExitCode.ERROR;
+                        } else {
+                            batch.add(String.join(" ", userCommand).trim(), request);
+                        }
                     }
                 }
-                commandStatus = launchCommand(userCommand);
-            } while (commandStatus == ExitCode.OK && scriptScanner.hasNextLine());
-
-            Interrogator.setUserScanner(tmpScanner);
-            Interrogator.setUserMode();
-
-            if (commandStatus == ExitCode.ERROR && !(userCommand[0].equals("execute_script") && !userCommand[1].isEmpty())) {
-                console.println("Проверьте скрипт на корректность введенных данных!");
             }
-
             return commandStatus;
 
         } catch (FileNotFoundException exception) {
@@ -129,11 +173,34 @@ public class Runner {
 
             System.exit(0);
         } finally {
+            Interrogator.setUserScanner(tmpScanner);
+            if (tmpFileMode) Interrogator.setFileMode();
+            else Interrogator.setUserMode();
             scriptStack.remove(scriptStack.size() - 1);
         }
         return ExitCode.ERROR;
     }
 
+    /**
+     * Выводит результаты выполнения скрипта построчно.
+     *
+     * @param batch    Отправленный пакет команд
+     * @param response Ответ сервера
+     */
+    private void printScriptResults(ScriptBatch batch, Response response) {
+        if (response.getData() instanceof List<?> results) {
+            for (int i = 0; i < results.size(); i++) {
+                console.println(console.getPS1() + batch.getLines().get(i));
+                if (results.get(i) instanceof Response lineResponse) {
+                    if (lineResponse.isSuccess()) console.println(lineResponse);
+                    else console.printError(lineResponse);
+                }
+            }
+        }
+        if (response.isSuccess()) console.println(response.getMessage());
+        else console.printError(response.getMessage());
+    }
+
     /**
      * @param userCommand Команда для запуска
      * @return Код завершения.
@@ -153,49 +220,6 @@ public class Runner {
                 case "execute_script" -> {
                     return scriptMode(userCommand[1]);
                 }
-                case "add", "add_if_min", "remove_greater", "remove_lower" -> {
-                    try {
-                        if (!userCommand[1].isEmpty())
-                            throw new WrongAmountOfElementsException();
-                        console.println("* Создание новой квартиры:");
-                        var flat = (new FlatForm(console)).build();
-                        response = tcpClient.sendCommand(new Request(userCommand[0], flat));
-                    } catch (WrongAmountOfElementsException | MustBeNotEmptyException exception) {
-                        console.printError("Неправильное количество аргументов!");
-                        console.println("Правильное использование, используйте help для получения списка команд и их аргументов");
-                    } catch (InvalidFormException exception) {
-                        console.printError("Поля квартиры не валидны! Квартира не создана!");
-                    } catch (IncorrectInputInScriptException ignored) {
-                    }
-                }
-                case "update" -> {
-                    try {
-                        if (userCommand[1].isEmpty())
-                            throw new WrongAmountOfElementsException();
-                        var id = Long.parseLong(userCommand[1]);
-                        console.println("* Создание новой квартиры:");
-                        var flat = (new FlatForm(console)).build();
-                        flat.setId(id);
-                        response = tcpClient.sendCommand(new Request(userCommand[0], flat));
-                    } catch (WrongAmountOfElementsException | MustBeNotEmptyException | NumberFormatException exception) {
-                        console.printError("Неправильное количество аргументов!");
-                        console.println("Правильное использование, используйте help для получения списка команд и их аргументов");
-                    } catch (InvalidFormException exception) {
-                        console.printError("Поля квартиры не валидны! Квартира не создана!");
-                    } catch (IncorrectInputInScriptException ignored) {
-                    }
-                }
-                case "remove_by_id" -> {
-                    try{
-                        if (userCommand[1].isEmpty())
-                            throw new WrongAmountOfElementsException();
-                        var id = Long.parseLong(userCommand[1]);
-                        response = tcpClient.sendCommand(new Request(userCommand[0], id));
-                    } catch (WrongAmountOfElementsException | NumberFormatException exception) {
-                        console.printError("Неправильное количество аргументов!");
-                        console.println("Правильное использование, используйте help для получения списка команд и их аргументов");
-                    }
-                }
                 case "history" -> {
                     console.println("История команд: ");
                     for (String com : commandHistory) {
@@ -203,23 +227,14 @@ public class Runner {
                         ;
                     }
                 }
-                case "register", "login" -> {
-                    System.out.println(Arrays.toString(userCommand));
-                    if(userCommand.length < 2 || userCommand[1].isEmpty() || (userCommand[1].split(" ", 3).length != 2)) {
-                        console.printError("Неправильное количество аргументов!");
-                        console.println("Правильное использование, используйте help для получения списка команд и их аргументов");
-                    } else {
-                        String login, password;
-                        login = userCommand[1].split(" ")[0];
-                        password = userCommand[1].split(" ")[1];
-                        Request request = new Request(userCommand[0], null);
-                        request.setLogin(login);
-                        request.setPassword(password);
-                        response = tcpClient.sendCommand(request);
-                    }
+                case "show", "filter_starts_with_name" -> {
+                    response = readLocally(userCommand);
+                    if (!response.isSuccess()) return ExitCode.ERROR;
                 }
                 default -> {
-                    response = tcpClient.sendCommand(new Request(userCommand[0], userCommand[1].isEmpty() ? null : userCommand));
+                    Request request = buildRequest(userCommand);
+                    if (request == null) return ExitCode.ERROR;
+                    response = tcpClient.sendCommand(request);
                     if (response == null || !response.isSuccess()) return ExitCode.ERROR;
                 }
             }
@@ -232,4 +247,105 @@ public class Runner {
 
         return ExitCode.OK;
     }
+
+    /**
+     * Выполняет читающую команду над локальной копией коллекции, предварительно получив от сервера
+     * изменения коллекции с версии копии.
+     *
+     * @param userCommand Команда и ее аргументы
+     * @return Ответ команды или ответ сервера, если получить изменения не удалось.
+     */
+    private Response readLocally(String[] userCommand) {
+        Response syncResponse = replica.sync();
+        if (!syncResponse.isSuccess()) return syncResponse;
+        String usage = "Неправильное количество аргументов! Правильное использование: '" + userCommand[0] + "'";
+        replica.readLock().lock();
+        try {
+            if (userCommand[0].equals("show")) {
+                if (!userCommand[1].isEmpty()) return new Response(false, usage);
+                if (replica.getCollection().isEmpty()) return new Response(true, "Коллекция пуста.");
+                return new Response(true, null, TableRenderer.get().render(ModelMetadata.of(Flat.class), replica.getCollection()));
+            }
+            NamePrefixQuery query = NamePrefixQuery.parse(userCommand[1]);
+            return query.toResponse(query.find(replica));
+        } catch (WrongAmountOfElementsException | NumberFormatException exception) {
+            return new Response(false, usage);
+        } finally {
+            replica.readLock().unlock();
+        }
+    }
+
+    /**
+     * Строит запрос к серверу по команде пользователя, запрашивая элемент коллекции, если он нужен команде.
+     *
+     * @param userCommand Команда и ее аргументы
+     * @return Запрос или null, если аргументы или введенный элемент некорректны.
+     */
+    private Request buildRequest(String[] userCommand) {
+        switch (userCommand[0]) {
+            case "add", "add_if_min", "remove_greater", "remove_lower" -> {
+                try {
+                    if (!userCommand[1].isEmpty())
+                        throw new WrongAmountOfElementsException();
+                    console.println("* Создание новой квартиры:");
+                    var flat = (new FlatForm(console)).build();
+                    return new Request(userCommand[0], flat);
+                } catch (WrongAmountOfElementsException | MustBeNotEmptyException exception) {
+                    console.printError("Неправильное количество аргументов!");
+                    console.println("Правильное использование, используйте help для получения списка команд и их аргументов");
+                } catch (InvalidFormException exception) {
+                    console.printError("Поля квартиры не валидны! Квартира не создана!");
+                } catch (IncorrectInputInScriptException ignored) {
+                }
+                return null;
+            }
+            case "update" -> {
+                try {
+                    if (userCommand[1].isEmpty())
+                        throw new WrongAmountOfElementsException();
+                    var id = Long.parseLong(userCommand[1]);
+                    console.println("* Создание новой квартиры:");
+                    var flat = (new FlatForm(console)).build();
+                    flat.setId(id);
+                    return new Request(userCommand[0], flat);
+                } catch (WrongAmountOfElementsException | MustBeNotEmptyException | NumberFormatException exception) {
+                    console.printError("Неправильное количество аргументов!");
+                    console.println("Правильное использование, используйте help для получения списка команд и их аргументов");
+                } catch (InvalidFormException exception) {
+                    console.printError("Поля квартиры не валидны! Квартира не создана!");
+                } catch (IncorrectInputInScriptException ignored) {
+                }
+                return null;
+            }
+            case "remove_by_id" -> {
+                try{
+                    if (userCommand[1].isEmpty())
+                        throw new WrongAmountOfElementsException();
+                    var id = Long.parseLong(userCommand[1]);
+                    return new Request(userCommand[0], id);
+                } catch (WrongAmountOfElementsException | NumberFormatException exception) {
+                    console.printError("Неправильное количество аргументов!");
+                    console.println("Правильное использование, используйте help для получения списка команд и их аргументов");
+                }
+                return null;
+            }
+            case "register", "login" -> {
+                if(userCommand.length < 2 || userCommand[1].isEmpty() || (userCommand[1].split(" ", 3).length != 2)) {
+                    console.printError("Неправильное количество аргументов!");
+                    console.println("Правильное использование, используйте help для получения списка команд и их аргументов");
+                    return null;
+                }
+                String login, password;
+                login = userCommand[1].split(" ")[0];
+                password = userCommand[1].split(" ")[1];
+                Request request = new Request(userCommand[0], null);
+                request.setLogin(login);
+                request.setPassword(password);
+                return request;
+            }
+            default -> {
+                return new Request(userCommand[0], userCommand[1].isEmpty() ? null : userCommand);
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.general.command;
+
+import com.general.network.Request;
+import com.general.network.Response;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Команда, которая выполняется в отдельном пуле потоков (например, в пуле работы с базой данных).
+ * Поток, принявший запрос, не ждет завершения команды и сразу освобождается.
+ */
+public abstract class AsyncCommand extends Command {
+    private final Executor executor;
+
+    /**
+     * @param name        название и использование команды
+     * @param description описание команды
+     * @param executor    пул потоков, в котором выполняется команда
+     */
+    public AsyncCommand(String name, String description, Executor executor) {
+        super(name, description);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Выполняет команду в пуле потоков команды.
+     *
+     * @return будущий ответ с результатом выполнения команды
+     */
+    @Override
+    public CompletableFuture<Response> executeAsync(Request request) {
+        return CompletableFuture.supplyAsync(() -> execute(request), executor);
+    }
+}
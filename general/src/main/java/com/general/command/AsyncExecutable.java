@@ -0,0 +1,13 @@
+package com.general.command;
+
+import com.general.network.Request;
+import com.general.network.Response;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Интерфейс для команд, которые могут выполняться асинхронно.
+ */
+public interface AsyncExecutable {
+    CompletableFuture<Response> executeAsync(Request request);
+}
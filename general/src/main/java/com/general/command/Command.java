@@ -1,10 +1,16 @@
 package com.general.command;
+
+import com.general.network.Request;
+import com.general.network.Response;
+
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Абстрактная команда с именем и описанием
  */
-public abstract class Command implements Describable, Executable {
+public abstract class Command implements Describable, Executable, AsyncExecutable {
 
     private final String name;
     private final String description;
@@ -28,6 +34,52 @@ public abstract class Command implements Describable, Executable {
         return description;
     }
 
+    /**
+     * @return true, если команда не изменяет коллекцию и ее результат зависит только от аргументов,
+     * состояния коллекции и, возможно, пользователя (такие ответы можно кешировать).
+     */
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    /**
+     * @return true, если ответ команды не зависит от пользователя, отправившего запрос. Ответы таких читающих
+     * команд кешируются один раз для всех пользователей, остальных - для каждого пользователя отдельно.
+     */
+    public boolean isUserIndependent() {
+        return false;
+    }
+
+    /**
+     * @return true, если команда изменяет коллекцию. Изменения таких команд применяются к коллекции строго по одному.
+     * По умолчанию изменяющими считаются все команды, кроме читающих.
+     */
+    public boolean isMutating() {
+        return !isReadOnly();
+    }
+
+    /**
+     * @return пул потоков, в котором следует выполнять команду, или null, если команда выполняется в вызывающем потоке
+     */
+    public Executor getExecutor() {
+        return null;
+    }
+
+    /**
+     * Выполняет команду асинхронно. По умолчанию команда выполняется в текущем потоке,
+     * а результат возвращается уже завершенным.
+     *
+     * @return будущий ответ с результатом выполнения команды
+     */
+    @Override
+    public CompletableFuture<Response> executeAsync(Request request) {
+        try {
+            return CompletableFuture.completedFuture(execute(request));
+        } catch (RuntimeException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
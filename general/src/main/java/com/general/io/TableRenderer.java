@@ -0,0 +1,139 @@
+package com.general.io;
+
+import com.general.models.meta.FieldAccessor;
+import com.general.models.meta.ModelMetadata;
+import com.general.network.TextChunks;
+
+import java.util.List;
+
+/**
+ * Отрисовывает элементы в виде текстовой таблицы с выравненными столбцами.
+ * <p>
+ * Элементы обходятся дважды: первый проход вычисляет ширины столбцов, второй записывает строки таблицы
+ * прямо в {@link TextChunks}. Целые числа и строки пишутся без промежуточных объектов, остальные значения
+ * форматируются в переиспользуемый буфер потока размером с одну ячейку, так что память на отрисовку
+ * не растет вместе с таблицей.
+ * Формат совпадает с прежним: ячейки разделены {@code " | "}, строка заканчивается на {@code " |"}.
+ */
+public final class TableRenderer {
+    private static final ThreadLocal<TableRenderer> RENDERERS = ThreadLocal.withInitial(TableRenderer::new);
+    private static final int MAX_RETAINED_CHARS = 1 << 16;
+    private static final String CELL_SEPARATOR = " | ";
+
+    private StringBuilder cell = new StringBuilder();
+
+    private TableRenderer() {
+    }
+
+    /**
+     * @return отрисовщик текущего потока
+     */
+    public static TableRenderer get() {
+        return RENDERERS.get();
+    }
+
+    /**
+     * Отрисовывает таблицу: заголовки, разделитель и по строке на элемент.
+     *
+     * @param metadata метаданные класса элементов (определяют столбцы)
+     * @param elements элементы; обходятся дважды
+     * @return текст таблицы
+     */
+    public TextChunks render(ModelMetadata metadata, Iterable<?> elements) {
+        List<FieldAccessor> accessors = metadata.getAccessors();
+        String[] headers = metadata.getNames();
+        int columns = headers.length;
+        int[] widths = new int[columns];
+        for (int i = 0; i < columns; i++) {
+            widths[i] = headers[i].length();
+        }
+
+        try {
+            for (Object element : elements) {
+                for (int column = 0; column < columns; column++) {
+                    widths[column] = Math.max(widths[column], width(accessors.get(column).get(element)));
+                }
+            }
+
+            TextChunks out = new TextChunks();
+            for (int column = 0; column < columns; column++) {
+                out.append(headers[column]).repeat(' ', widths[column] - headers[column].length()).append(CELL_SEPARATOR);
+            }
+            finishRow(out);
+            for (int column = 0; column < columns; column++) {
+                out.repeat('-', widths[column]).append(CELL_SEPARATOR);
+            }
+            finishRow(out);
+
+            for (Object element : elements) {
+                for (int column = 0; column < columns; column++) {
+                    writeCell(out, accessors.get(column).get(element), widths[column]);
+                }
+                finishRow(out);
+            }
+            out.trimTrailing('\n');
+            return out;
+        } finally {
+            if (cell.capacity() > MAX_RETAINED_CHARS) {
+                cell = new StringBuilder();
+            } else {
+                cell.setLength(0);
+            }
+        }
+    }
+
+    private int width(Object value) {
+        if (isIntegral(value)) return digits(((Number) value).longValue());
+        if (value instanceof CharSequence text) return text.length();
+        return format(value).length();
+    }
+
+    private void writeCell(TextChunks out, Object value, int width) {
+        int length;
+        if (isIntegral(value)) {
+            long number = ((Number) value).longValue();
+            out.append(number);
+            length = digits(number);
+        } else if (value instanceof CharSequence text) {
+            out.append(text, 0, text.length());
+            length = text.length();
+        } else {
+            StringBuilder formatted = format(value);
+            out.append(formatted, 0, formatted.length());
+            length = formatted.length();
+        }
+        out.repeat(' ', width - length).append(CELL_SEPARATOR);
+    }
+
+    private StringBuilder format(Object value) {
+        cell.setLength(0);
+        if (value instanceof Float number) {
+            cell.append(number.floatValue());
+        } else if (value instanceof Double number) {
+            cell.append(number.doubleValue());
+        } else {
+            cell.append(value);
+        }
+        return cell;
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    private static int digits(long value) {
+        if (value == Long.MIN_VALUE) return 20;
+        int length = value < 0 ? 2 : 1;
+        value = Math.abs(value);
+        while (value >= 10) {
+            value /= 10;
+            length++;
+        }
+        return length;
+    }
+
+    private static void finishRow(TextChunks out) {
+        out.trimTrailing(' ');
+        out.append('\n');
+    }
+}
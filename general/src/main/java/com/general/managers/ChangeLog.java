@@ -0,0 +1,85 @@
+package com.general.managers;
+
+import com.general.models.base.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Кольцевой журнал последних изменений коллекции. Каждое изменение помечено версией коллекции,
+ * которую оно породило; при переполнении вытесняются самые старые записи.
+ * Класс не потокобезопасен: запись и чтение выполняются под блокировками {@link CollectionManager}.
+ *
+ * @param <T> тип элементов коллекции
+ */
+public class ChangeLog<T extends Element> {
+    private final long[] versions;
+    private final List<CollectionDelta.Change<T>> changes;
+    private int head;
+    private int size;
+    private long coveredFrom;
+
+    /**
+     * @param capacity максимальное количество хранимых изменений
+     */
+    public ChangeLog(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Емкость журнала должна быть положительной");
+        this.versions = new long[capacity];
+        this.changes = new ArrayList<>(capacity);
+        for (int i = 0; i < capacity; i++) changes.add(null);
+    }
+
+    /**
+     * Записывает изменение.
+     *
+     * @param version версия коллекции после изменения
+     * @param change  изменение
+     */
+    public void record(long version, CollectionDelta.Change<T> change) {
+        int tail = (head + size) % versions.length;
+        if (size == versions.length) {
+            // Вытесняем самое старое изменение: журнал больше не покрывает версии до него
+            coveredFrom = versions[head];
+            head = (head + 1) % versions.length;
+        } else {
+            size++;
+        }
+        versions[tail] = version;
+        changes.set(tail, change);
+    }
+
+    /**
+     * Очищает журнал, например после замены коллекции целиком. Журнал покрывает только версии начиная с указанной.
+     *
+     * @param version текущая версия коллекции
+     */
+    public void reset(long version) {
+        for (int i = 0; i < versions.length; i++) changes.set(i, null);
+        head = 0;
+        size = 0;
+        coveredFrom = version;
+    }
+
+    /**
+     * Возвращает изменения, сделанные после указанной версии.
+     *
+     * @param version версия, известная получателю
+     * @return изменения в порядке их применения или null, если журнал не покрывает эту версию
+     */
+    public List<CollectionDelta.Change<T>> since(long version) {
+        if (version < coveredFrom) return null;
+        List<CollectionDelta.Change<T>> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) % versions.length;
+            if (versions[index] > version) result.add(changes.get(index));
+        }
+        return result;
+    }
+
+    /**
+     * @return количество хранимых изменений
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,94 @@
+package com.general.managers;
+
+import com.general.models.base.Element;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Изменения коллекции с заданной версии до текущей, передаваемые копии коллекции на клиенте.
+ * Если журнал изменений сервера не покрывает запрошенную версию (или коллекция была перестроена целиком),
+ * вместо изменений передается полный снимок коллекции.
+ *
+ * @param <T> тип элементов коллекции
+ */
+@Getter
+public class CollectionDelta<T extends Element> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long epoch;
+    private final long version;
+    private final boolean full;
+    private final List<T> elements;
+    private final List<Change<T>> changes;
+
+    private CollectionDelta(long epoch, long version, boolean full, List<T> elements, List<Change<T>> changes) {
+        this.epoch = epoch;
+        this.version = version;
+        this.full = full;
+        this.elements = elements;
+        this.changes = changes;
+    }
+
+    /**
+     * @param epoch    эпоха коллекции (меняется при каждом запуске сервера)
+     * @param version  версия коллекции, которой соответствует снимок
+     * @param elements все элементы коллекции
+     * @return полный снимок коллекции
+     */
+    public static <T extends Element> CollectionDelta<T> snapshot(long epoch, long version, List<T> elements) {
+        return new CollectionDelta<>(epoch, version, true, elements, List.of());
+    }
+
+    /**
+     * @param epoch   эпоха коллекции
+     * @param version версия коллекции после применения изменений
+     * @param changes изменения в порядке их применения
+     * @return изменения коллекции
+     */
+    public static <T extends Element> CollectionDelta<T> changes(long epoch, long version, List<Change<T>> changes) {
+        return new CollectionDelta<>(epoch, version, false, List.of(), changes);
+    }
+
+    /**
+     * @return количество переданных элементов и изменений
+     */
+    public int size() {
+        return elements.size() + changes.size();
+    }
+
+    /**
+     * Одно изменение коллекции: добавление элемента или удаление элемента с указанным ID.
+     * Обновление элемента передается как удаление и последующее добавление.
+     *
+     * @param <T> тип элементов коллекции
+     */
+    @Getter
+    public static final class Change<T extends Element> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Long id;
+        private final T element;
+
+        private Change(Long id, T element) {
+            this.id = id;
+            this.element = element;
+        }
+
+        public static <T extends Element> Change<T> added(T element) {
+            return new Change<>(element.getId(), element);
+        }
+
+        public static <T extends Element> Change<T> removed(Long id) {
+            return new Change<>(id, null);
+        }
+
+        /**
+         * @return true, если элемент был добавлен, false - если удален
+         */
+        public boolean isAdded() {
+            return element != null;
+        }
+    }
+}
@@ -1,29 +1,64 @@
 package com.general.managers;
 
+import com.general.managers.index.CollectionIndex;
+import com.general.managers.index.FieldAggregate;
+import com.general.managers.index.IdIndex;
+import com.general.managers.index.NameIndex;
+import com.general.managers.index.OrderIndex;
 import com.general.models.base.Element;
 import lombok.Getter;
-import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Абстрактный класс для управления коллекцией обобщенного типа.
  */
 public abstract class CollectionManager<T extends Element & Comparable<T>> {
-    private Collection<T> collection;
+    /**
+     * Количество последних изменений, которые можно передать копиям коллекции без полного снимка.
+     */
+    public static final int CHANGE_LOG_CAPACITY = 1024;
+
+    private volatile Collection<T> collection;
     @Getter
-    @Setter
-    private LocalDateTime lastInitTime;
+    private volatile LocalDateTime lastInitTime;
     @Getter
-    @Setter
     private LocalDateTime lastSaveTime;
+    private final AtomicLong version = new AtomicLong();
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+    private final ChangeLog<T> changeLog = new ChangeLog<>(CHANGE_LOG_CAPACITY);
+    private final List<Supplier<? extends CollectionIndex<T>>> indexFactories = new CopyOnWriteArrayList<>();
+    private final Map<String, Function<? super T, ? extends Number>> aggregateFields = new LinkedHashMap<>();
+    private volatile Indexes indexes = new Indexes();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock writerLock = new ReentrantLock(true);
+    // Рабочая копия коллекции открытой транзакции; ее видит только поток транзакции
+    private volatile Staged staged;
+    private int transactionDepth;
 
     private static final Logger logger = LoggerFactory.getLogger(CollectionManager.class);
 
@@ -33,6 +68,165 @@ public abstract class CollectionManager<T extends Element & Comparable<T>> {
         this.lastSaveTime = null;
     }
 
+    public void setLastInitTime(LocalDateTime lastInitTime) {
+        this.lastInitTime = lastInitTime;
+        version.incrementAndGet();
+    }
+
+    public void setLastSaveTime(LocalDateTime lastSaveTime) {
+        this.lastSaveTime = lastSaveTime;
+        version.incrementAndGet();
+    }
+
+    /**
+     * Возвращает версию коллекции. Версия монотонно возрастает при каждом изменении коллекции
+     * и ее сведений, поэтому совпадение версий означает, что коллекция не менялась.
+     *
+     * @return текущая версия коллекции
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Возвращает эпоху коллекции. Версии сравнимы только в пределах одной эпохи:
+     * после перезапуска сервера версии начинаются заново, а эпоха меняется.
+     *
+     * @return эпоха коллекции
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Возвращает изменения коллекции после указанной версии. Если версия относится к другой эпохе,
+     * опережает текущую или уже вытеснена из журнала изменений, возвращается полный снимок коллекции.
+     *
+     * @param epoch   эпоха, известная получателю
+     * @param version версия, известная получателю
+     * @return изменения или полный снимок коллекции
+     */
+    public CollectionDelta<T> getChangesSince(long epoch, long version) {
+        lock.readLock().lock();
+        try {
+            long current = this.version.get();
+            if (epoch == this.epoch && version <= current) {
+                List<CollectionDelta.Change<T>> changes = changeLog.since(version);
+                if (changes != null) return CollectionDelta.changes(this.epoch, current, changes);
+            }
+            return CollectionDelta.snapshot(this.epoch, current, new ArrayList<>(collection));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Применяет к коллекции изменения, полученные от другой коллекции через {@link #getChangesSince(long, long)}.
+     * Изменения сначала сводятся к итоговому состоянию каждого затронутого ID, затем прежние элементы
+     * удаляются за один проход по коллекции и добавляются итоговые.
+     *
+     * @param delta изменения или полный снимок коллекции
+     */
+    public void applyDelta(CollectionDelta<T> delta) {
+        lockWrite();
+        try {
+            if (delta.isFull()) {
+                setCollection(delta.getElements());
+                return;
+            }
+            Map<Long, CollectionDelta.Change<T>> latest = new LinkedHashMap<>();
+            for (CollectionDelta.Change<T> change : delta.getChanges()) {
+                latest.put(change.getId(), change);
+            }
+            if (latest.isEmpty()) return;
+            removeMatching(element -> latest.containsKey(getId(element)), false);
+            for (CollectionDelta.Change<T> change : latest.values()) {
+                if (change.isAdded()) {
+                    collection().add(change.getElement());
+                    indexAdded(change.getElement());
+                }
+            }
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Возвращает блокировку чтения коллекции. Ее удерживают команды, которые только читают коллекцию:
+     * они выполняются параллельно друг с другом, но не во время применения изменений.
+     *
+     * @return блокировка чтения
+     */
+    public Lock readLock() {
+        return lock.readLock();
+    }
+
+    /**
+     * Возвращает блокировку очереди записи. Ее удерживают изменяющие команды на всё время выполнения,
+     * включая работу с базой данных, поэтому изменения выполняются строго по одному и в порядке поступления,
+     * а проверка и последующее изменение не разделяются чужой записью. Сама коллекция при этом
+     * блокируется для чтения только на время применения изменения в памяти.
+     *
+     * @return блокировка очереди записи
+     */
+    public Lock writerLock() {
+        return writerLock;
+    }
+
+    /**
+     * @return true, если коллекция заблокирована для записи (идет применение изменения в памяти)
+     */
+    public boolean isWriteLocked() {
+        return lock.isWriteLocked();
+    }
+
+    /**
+     * Начинает транзакцию: захватывает очередь записи до ее завершения. Изменения транзакции применяются
+     * к рабочей копии коллекции и индексов, которую видит только поток транзакции, поэтому остальные
+     * читающие команды всё это время работают с зафиксированной коллекцией и не ждут транзакцию.
+     * Транзакции, начатые внутри транзакции того же потока, присоединяются к внешней.
+     */
+    public void beginTransaction() {
+        writerLock.lock();
+        transactionDepth++;
+    }
+
+    /**
+     * Фиксирует изменения транзакции: рабочая копия подменяет коллекцию под блокировкой записи одним
+     * присваиванием, после чего освобождается очередь записи.
+     */
+    public void commitTransaction() {
+        try {
+            if (--transactionDepth == 0) {
+                Staged committed = staged;
+                staged = null;
+                if (committed != null) publish(committed);
+            }
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    /**
+     * Отменяет все изменения внешней транзакции (рабочая копия отбрасывается) и освобождает очередь записи.
+     */
+    public void rollbackTransaction() {
+        try {
+            if (--transactionDepth == 0) {
+                staged = null;
+            }
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    /**
+     * @return true, если текущий поток выполняет транзакцию
+     */
+    public boolean isInTransaction() {
+        return writerLock.isHeldByCurrentThread() && transactionDepth > 0;
+    }
+
     /**
      * Метод для создания коллекции. Должен быть реализован в классах-наследниках.
      *
@@ -45,13 +239,122 @@ public abstract class CollectionManager<T extends Element & Comparable<T>> {
      */
     protected abstract void loadCollection();
 
+    /**
+     * Метод для получения коллекции из источника данных без изменения текущей коллекции.
+     * Используется в {@link #reload()}. Должен быть реализован в классах-наследниках.
+     *
+     * @return элементы коллекции из источника данных
+     * @throws IllegalStateException если источник данных недоступен
+     */
+    protected abstract Collection<T> fetchCollection();
+
+    /**
+     * Регистрирует индекс, который будет получать уведомления об изменениях коллекции.
+     * Индекс сразу создается и заполняется текущими элементами коллекции; при замене коллекции
+     * целиком создается новый экземпляр индекса, поэтому нужна фабрика, а не сам индекс.
+     *
+     * @param factory фабрика пустых индексов
+     */
+    protected void registerIndex(Supplier<? extends CollectionIndex<T>> factory) {
+        lockWrite();
+        try {
+            indexFactories.add(factory);
+            indexes().add(factory.get(), collection());
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Регистрирует инкрементально поддерживаемые агрегаты числового поля элементов.
+     *
+     * @param field     имя поля
+     * @param extractor функция, извлекающая значение поля из элемента
+     */
+    protected void registerAggregate(String field, Function<? super T, ? extends Number> extractor) {
+        lockWrite();
+        try {
+            aggregateFields.put(field, extractor);
+            indexes().addAggregate(field, extractor, collection());
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Возвращает агрегаты поля.
+     *
+     * @param field имя поля
+     * @return агрегаты поля или null, если для поля они не поддерживаются
+     */
+    public FieldAggregate<T> getAggregate(String field) {
+        return indexes().aggregates.get(field);
+    }
+
+    /**
+     * @return имена полей, для которых поддерживаются агрегаты
+     */
+    public Set<String> getAggregateFields() {
+        return aggregateFields.keySet();
+    }
+
+    /**
+     * Возвращает минимальный элемент коллекции в естественном порядке.
+     *
+     * @return минимальный элемент или null, если коллекция пуста
+     */
+    public T getMin() {
+        return indexes().order.first();
+    }
+
+    /**
+     * Возвращает элементы коллекции, строго большие заданного, в порядке возрастания.
+     *
+     * @param bound элемент для сравнения
+     * @return список элементов, больших заданного
+     */
+    public List<T> getGreaterThan(T bound) {
+        return indexes().order.greaterThan(bound);
+    }
+
+    /**
+     * Возвращает элементы коллекции, строго меньшие заданного, в порядке убывания.
+     *
+     * @param bound элемент для сравнения
+     * @return список элементов, меньших заданного
+     */
+    public List<T> getLowerThan(T bound) {
+        return indexes().order.lowerThan(bound);
+    }
+
+    /**
+     * Возвращает элементы коллекции, имя которых начинается с заданного префикса, в порядке возрастания имени.
+     *
+     * @param prefix     префикс имени
+     * @param ignoreCase искать без учета регистра
+     * @param limit      максимальное количество элементов (0 или меньше - без ограничения)
+     * @return список найденных элементов
+     */
+    public List<T> getByNamePrefix(String prefix, boolean ignoreCase, int limit) {
+        return indexes().name.startingWith(prefix, ignoreCase, limit);
+    }
+
     public void validateAll() {
+        lockWrite();
+        try {
+            validateAllLocked();
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    private void validateAllLocked() {
         Collection<T> validCollection = createCollection();
         boolean isValid = true;
         Set<Long> existingIds = new HashSet<>();
         Set<Long> duplicateIds = new HashSet<>();
 
-        for (T element : collection) {
+        for (T element : collection()) {
             if (!element.validate()) {
                 logger.error("Элемент с id={} имеет невалидные поля. Проигнорирован.", getId(element));
                 isValid = false;
@@ -63,8 +366,10 @@ public abstract class CollectionManager<T extends Element & Comparable<T>> {
             }
         }
 
+        Indexes validIndexes = new Indexes();
+        validIndexes.fill(validCollection);
+        swap(validCollection, validIndexes);
         if (!isValid || !duplicateIds.isEmpty()) {
-            collection = validCollection;
             if (!isValid) {
                 logger.info("Имеются невалидные элементы. Коллекция изменена.");
             }
@@ -73,7 +378,6 @@ public abstract class CollectionManager<T extends Element & Comparable<T>> {
             }
         } else {
             logger.info("Все элементы коллекции валидны.");
-            collection = validCollection;
         }
     }
 
@@ -84,7 +388,12 @@ public abstract class CollectionManager<T extends Element & Comparable<T>> {
      * @return true, если элемент существует, иначе false.
      */
     public boolean checkExistInCollection(T element) {
-        return collection.contains(element);
+        lock.readLock().lock();
+        try {
+            return collection().contains(element);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -94,19 +403,18 @@ public abstract class CollectionManager<T extends Element & Comparable<T>> {
      * @return true, если элемент существует, иначе false.
      */
     public boolean checkExist(Long id) {
-        for (T element : collection) {
-            if (getId(element).equals(id)) return true;
-        }
-        return false;
+        return getById(id) != null;
     }
 
     /**
-     * Возвращает коллекцию.
+     * Возвращает коллекцию только для чтения. Изменять коллекцию можно только через методы менеджера,
+     * чтобы индексы и версия оставались согласованными. Обходить коллекцию следует под {@link #readLock()}
+     * или {@link #writerLock()}.
      *
      * @return коллекция.
      */
     public Collection<T> getCollection() {
-        return collection;
+        return Collections.unmodifiableCollection(collection());
     }
 
     /**
@@ -115,7 +423,7 @@ public abstract class CollectionManager<T extends Element & Comparable<T>> {
      * @return имя типа коллекции.
      */
     public String collectionType() {
-        return collection.getClass().getName();
+        return collection().getClass().getName();
     }
 
     /**
@@ -124,7 +432,12 @@ public abstract class CollectionManager<T extends Element & Comparable<T>> {
      * @return размер коллекции.
      */
     public int collectionSize() {
-        return collection.size();
+        lock.readLock().lock();
+        try {
+            return collection().size();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -133,12 +446,16 @@ public abstract class CollectionManager<T extends Element & Comparable<T>> {
      * @return последний элемент коллекции или null.
      */
     public T getLast() {
-        if (collection.isEmpty()) return null;
-        T lastElement = null;
-        for (T element : collection) {
-            lastElement = element;
+        lock.readLock().lock();
+        try {
+            T lastElement = null;
+            for (T element : collection()) {
+                lastElement = element;
+            }
+            return lastElement;
+        } finally {
+            lock.readLock().unlock();
         }
-        return lastElement;
     }
 
     /**
@@ -148,10 +465,7 @@ public abstract class CollectionManager<T extends Element & Comparable<T>> {
      * @return элемент по его ID или null.
      */
     public T getById(Long id) {
-        for (T element : collection) {
-            if (getId(element).equals(id)) return element;
-        }
-        return null;
+        return indexes().id.get(id);
     }
 
     /**
@@ -160,8 +474,13 @@ public abstract class CollectionManager<T extends Element & Comparable<T>> {
      * @param element элемент для добавления.
      */
     public Long addToCollection(String username, T element) {
-        collection.add(element);
-        sortCollection(); // Сортировка после добавления элемента
+        lockWrite();
+        try {
+            collection().add(element);
+            indexAdded(element);
+        } finally {
+            unlockWrite();
+        }
         return element.getId();
     }
 
@@ -172,13 +491,175 @@ public abstract class CollectionManager<T extends Element & Comparable<T>> {
      * @param username
      */
     public boolean removeFromCollection(T element, String username) {
-        return collection.remove(element);
+        return removeMatching(current -> current.equals(element), true) > 0;
+    }
+
+    /**
+     * Удаляет из коллекции элемент с указанным ID, каким бы ни было его текущее содержимое.
+     *
+     * @param id ID элемента
+     * @return true, если элемент был в коллекции
+     */
+    protected boolean removeById(Long id) {
+        return removeMatching(current -> id.equals(getId(current)), true) > 0;
+    }
+
+    /**
+     * Удаляет из коллекции несколько элементов за один проход по ней.
+     *
+     * @param elements элементы для удаления (именно те экземпляры, которые хранятся в коллекции)
+     * @param username пользователь, удаляющий элементы
+     * @return количество удаленных элементов
+     */
+    public int removeAllFromCollection(Collection<? extends T> elements, String username) {
+        if (elements.isEmpty()) return 0;
+        Set<T> targets = Collections.newSetFromMap(new IdentityHashMap<>());
+        targets.addAll(elements);
+        return removeMatching(targets::contains, false);
     }
 
     // Метод, который удаляет только те объекты из коллекции, которые соответствуют указанному username
     public void clearCollection(String username) {
-        // Используем removeIf для удаления объектов, у которых поле username совпадает с переданным значением
-        collection.removeIf(element -> username.equals(element.getUsername()));
+        removeMatching(element -> username.equals(element.getUsername()), false);
+    }
+
+    /**
+     * Удаляет из коллекции элементы, удовлетворяющие условию, и уведомляет индексы об удалении.
+     * Все подходящие элементы удаляются одним {@link Collection#removeIf} - за один проход
+     * и, для очереди с приоритетом, с одним восстановлением кучи вместо перестройки на каждом удалении.
+     *
+     * @param filter    условие удаления
+     * @param firstOnly удалить только первый найденный элемент
+     * @return количество удаленных элементов
+     */
+    private int removeMatching(Predicate<? super T> filter, boolean firstOnly) {
+        lockWrite();
+        try {
+            Collection<T> collection = collection();
+            if (firstOnly) {
+                Iterator<T> iterator = collection.iterator();
+                while (iterator.hasNext()) {
+                    T current = iterator.next();
+                    if (filter.test(current)) {
+                        iterator.remove();
+                        indexRemoved(current);
+                        return 1;
+                    }
+                }
+                return 0;
+            }
+            List<T> removed = new ArrayList<>();
+            collection.removeIf(current -> filter.test(current) && removed.add(current));
+            removed.forEach(this::indexRemoved);
+            return removed.size();
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Захватывает очередь записи и блокировку записи коллекции. Любое изменение коллекции проходит
+     * через очередь записи, поэтому команда, удерживающая {@link #writerLock()}, видит неизменную коллекцию.
+     * В транзакции блокировка записи не нужна: изменение применяется к рабочей копии транзакции.
+     */
+    private void lockWrite() {
+        writerLock.lock();
+        if (isInTransaction()) {
+            stage();
+        } else {
+            lock.writeLock().lock();
+        }
+    }
+
+    private void unlockWrite() {
+        if (!isInTransaction()) lock.writeLock().unlock();
+        writerLock.unlock();
+    }
+
+    /**
+     * @return коллекция, которую видит текущий поток: рабочая копия в потоке транзакции, иначе зафиксированная
+     */
+    private Collection<T> collection() {
+        Staged staged = ownStaged();
+        return staged != null ? staged.collection : collection;
+    }
+
+    private Indexes indexes() {
+        Staged staged = ownStaged();
+        return staged != null ? staged.indexes : indexes;
+    }
+
+    private Staged ownStaged() {
+        Staged staged = this.staged;
+        return staged != null && staged.owner == Thread.currentThread() ? staged : null;
+    }
+
+    /**
+     * Создает рабочую копию транзакции при первом изменении в ней.
+     */
+    private void stage() {
+        if (staged != null) return;
+        Collection<T> copy = createCollection();
+        copy.addAll(collection);
+        Indexes copyIndexes = new Indexes();
+        copyIndexes.fill(copy);
+        staged = new Staged(copy, copyIndexes);
+    }
+
+    /**
+     * Подменяет коллекцию рабочей копией зафиксированной транзакции и передает ее изменения в журнал изменений.
+     */
+    private void publish(Staged committed) {
+        lock.writeLock().lock();
+        try {
+            this.collection = committed.collection;
+            this.indexes = committed.indexes;
+            if (committed.replaced) {
+                changeLog.reset(version.incrementAndGet());
+            } else {
+                for (CollectionDelta.Change<T> change : committed.changes) {
+                    changeLog.record(version.incrementAndGet(), change);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void recordChange(CollectionDelta.Change<T> change) {
+        Staged staged = ownStaged();
+        if (staged != null) {
+            staged.changes.add(change);
+        } else {
+            changeLog.record(version.incrementAndGet(), change);
+        }
+    }
+
+    private void indexAdded(T element) {
+        recordChange(CollectionDelta.Change.added(element));
+        for (CollectionIndex<T> index : indexes().all) index.added(element);
+    }
+
+    private void indexRemoved(T element) {
+        recordChange(CollectionDelta.Change.removed(getId(element)));
+        for (CollectionIndex<T> index : indexes().all) index.removed(element);
+    }
+
+    /**
+     * Перечитывает коллекцию из источника данных ({@link #fetchCollection()}) и заменяет ею текущую.
+     * На время чтения и построения новой коллекции удерживается только очередь записи: читающие команды
+     * продолжают работать со старой коллекцией и видят новую сразу целиком.
+     * Клиенты, синхронизирующие копию коллекции, после этого получат полный снимок.
+     * Если источник данных недоступен, текущая коллекция не меняется.
+     */
+    public void reload() {
+        writerLock.lock();
+        try {
+            setCollection(fetchCollection());
+            setLastInitTime(LocalDateTime.now());
+        } finally {
+            writerLock.unlock();
+        }
     }
 
     /**
@@ -193,38 +674,159 @@ public abstract class CollectionManager<T extends Element & Comparable<T>> {
      * Сортирует коллекцию по имени.
      */
     public void sortCollection() {
-        Collection<T> sortedCollection = collection.stream()
-                .sorted(Comparator.comparing(T::getName))
-                .collect(Collectors.toList());
-        setCollection(sortedCollection);
+        lockWrite();
+        try {
+            Collection<T> sortedCollection = collection().stream()
+                    .sorted(Comparator.comparing(T::getName))
+                    .collect(Collectors.toList());
+            setCollection(sortedCollection);
+        } finally {
+            unlockWrite();
+        }
     }
 
     /**
-     * Устанавливает коллекцию.
+     * Устанавливает коллекцию. Новая коллекция и ее индексы строятся под очередью записи, но без блокировки
+     * записи коллекции, а затем подменяют текущие одним присваиванием, поэтому читающие команды
+     * не ждут построения и никогда не видят пустую или частично заполненную коллекцию.
      *
      * @param collection новая коллекция
      */
-    private void setCollection(Collection<T> collection) {
-        this.collection.clear();
-        this.collection.addAll(collection);
+    protected void setCollection(Collection<T> collection) {
+        writerLock.lock();
+        try {
+            Collection<T> rebuilt = createCollection();
+            rebuilt.addAll(collection);
+            Indexes rebuiltIndexes = new Indexes();
+            rebuiltIndexes.fill(rebuilt);
+            if (isInTransaction()) {
+                swap(rebuilt, rebuiltIndexes);
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                swap(rebuilt, rebuiltIndexes);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    private void swap(Collection<T> collection, Indexes indexes) {
+        if (isInTransaction()) {
+            staged = new Staged(collection, indexes);
+            staged.replaced = true;
+            return;
+        }
+        this.collection = collection;
+        this.indexes = indexes;
+        changeLog.reset(version.incrementAndGet());
     }
 
     @Override
     public String toString() {
-        if (collection.isEmpty()) return "Коллекция пуста!";
-        var last = getLast();
+        lock.readLock().lock();
+        try {
+            Collection<T> collection = collection();
+            if (collection.isEmpty()) return "Коллекция пуста!";
+            var last = getLast();
 
-        StringBuilder info = new StringBuilder();
-        for (T element : collection) {
-            info.append(element);
-            if (element != last) info.append("\n\n");
+            StringBuilder info = new StringBuilder();
+            for (T element : collection) {
+                info.append(element);
+                if (element != last) info.append("\n\n");
+            }
+            return info.toString();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Обновляет элемент пользователя: заменяет элемент с тем же ID, если он есть в коллекции
+     * и принадлежит пользователю. Владелец нового элемента - этот же пользователь.
+     *
+     * @param newElement новое значение элемента
+     * @param username   пользователь, обновляющий элемент
+     * @return true, если элемент обновлен
+     */
+    public boolean updateInCollection(T newElement, String username) {
+        lockWrite();
+        try {
+            T existing = getById(newElement.getId());
+            if (existing == null || !Objects.equals(username, existing.getUsername())) return false;
+            newElement.setUsername(username);
+            updateInCollection(newElement);
+            return true;
+        } finally {
+            unlockWrite();
         }
-        return info.toString();
     }
 
     public void updateInCollection(T newElement) {
-        if (collection.removeIf(element -> element.getId().equals(newElement.getId()))) {
-            collection.add(newElement);
+        lockWrite();
+        try {
+            if (removeMatching(element -> element.getId().equals(newElement.getId()), false) > 0) {
+                collection().add(newElement);
+                indexAdded(newElement);
+            }
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Рабочая копия коллекции и индексов транзакции с изменениями, которые получит журнал изменений при фиксации.
+     */
+    private final class Staged {
+        private final Thread owner = Thread.currentThread();
+        private final Collection<T> collection;
+        private final Indexes indexes;
+        private final List<CollectionDelta.Change<T>> changes = new ArrayList<>();
+        // Коллекция заменялась целиком: копиям коллекции понадобится полный снимок
+        private boolean replaced;
+
+        private Staged(Collection<T> collection, Indexes indexes) {
+            this.collection = collection;
+            this.indexes = indexes;
+        }
+    }
+
+    /**
+     * Набор индексов одной коллекции. При замене коллекции целиком строится новый набор,
+     * а не перестраивается текущий, чтобы читающие команды продолжали пользоваться прежним.
+     */
+    private final class Indexes {
+        private final OrderIndex<T> order = new OrderIndex<>(Comparator.<T>naturalOrder()
+                .thenComparing(Element::getId, Comparator.nullsFirst(Comparator.naturalOrder())));
+        private final NameIndex<T> name = new NameIndex<>();
+        private final IdIndex<T> id = new IdIndex<>();
+        private final Map<String, FieldAggregate<T>> aggregates = new LinkedHashMap<>();
+        private final List<CollectionIndex<T>> all = new CopyOnWriteArrayList<>();
+
+        private Indexes() {
+            all.add(order);
+            all.add(name);
+            all.add(id);
+            aggregateFields.forEach((field, extractor) -> addAggregate(field, extractor, List.of()));
+            indexFactories.forEach(factory -> all.add(factory.get()));
+        }
+
+        private void add(CollectionIndex<T> index, Collection<T> elements) {
+            elements.forEach(index::added);
+            all.add(index);
+        }
+
+        private void addAggregate(String field, Function<? super T, ? extends Number> extractor, Collection<T> elements) {
+            FieldAggregate<T> aggregate = new FieldAggregate<>(field, extractor);
+            add(aggregate, elements);
+            aggregates.put(field, aggregate);
+        }
+
+        private void fill(Collection<T> elements) {
+            for (CollectionIndex<T> index : all) elements.forEach(index::added);
         }
     }
 }
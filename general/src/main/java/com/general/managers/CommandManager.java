@@ -1,6 +1,7 @@
 package com.general.managers;
 
 import com.general.command.Command;
+import com.general.managers.stats.StatsRegistry;
 import com.general.network.Request;
 import com.general.network.Response;
 import lombok.Getter;
@@ -9,6 +10,10 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Управляет командами.инвоке
@@ -17,6 +22,11 @@ import java.util.Map;
 public class CommandManager {
     private final Map<String, Command> commands = new HashMap<>();
     private final List<String> commandHistory = new ArrayList<>();
+    private final ResponseCache responseCache = new ResponseCache(256);
+    private final StatsRegistry statistics = new StatsRegistry();
+    private final IdempotencyTable idempotencyTable = new IdempotencyTable(10_000, 10 * 60 * 1000L);
+    private CollectionManager<?> collectionManager;
+    private volatile String readOnlyReason;
 
     /**
      * Добавляет команду
@@ -24,6 +34,7 @@ public class CommandManager {
 
     public void register(String commandName, Command command) {
         commands.put(commandName, command);
+        responseCache.clear();
     }
 
 
@@ -41,11 +52,159 @@ public class CommandManager {
         commands.get(command);
     }
 
+    /**
+     * Задает менеджер коллекции, с которой работают команды. После этого читающие команды выполняются
+     * параллельно под блокировкой чтения и кешируются по версии коллекции, а изменяющие - строго по одной.
+     * Пока менеджер не задан, команды выполняются без блокировок и кеширования.
+     *
+     * @param collectionManager менеджер коллекции
+     */
+    public void setCollectionManager(CollectionManager<?> collectionManager) {
+        this.collectionManager = collectionManager;
+        responseCache.clear();
+    }
+
+    /**
+     * Переводит менеджер в режим только для чтения: изменяющие команды ({@link Command#isMutating()})
+     * не выполняются и сразу получают ответ с ошибкой. Так работает сервер, коллекция которого
+     * повторяет коллекцию другого сервера и не может меняться сама.
+     *
+     * @param reason сообщение для отклоненных команд или null, чтобы снять ограничение
+     */
+    public void setReadOnly(String reason) {
+        this.readOnlyReason = reason;
+    }
+
+    /**
+     * Обрабатывает запрос синхронно в текущем потоке.
+     *
+     * @param request запрос
+     * @return ответ
+     */
     public Response handle(Request request) {
-        if (commands.get(request.getCommand()) == null) {
+        Command command = commands.get(request.getCommand());
+        if (command == null) {
             return new Response(false, "Команда не найдена, введите help для справки");
+        }
+        if (readOnlyReason != null && command.isMutating()) {
+            return new Response(false, readOnlyReason);
+        }
+        long start = System.nanoTime();
+        Response response = null;
+        try {
+            response = execute(command, request);
+            return response;
+        } finally {
+            statistics.recordCommand(request.getCommand(), System.nanoTime() - start, response != null && response.isSuccess());
+        }
+    }
+
+    /**
+     * Обрабатывает запрос асинхронно. Команды, выполняющиеся в собственном пуле потоков,
+     * не занимают вызывающий поток; остальные выполняются так же, как в {@link #handle(Request)}.
+     *
+     * Запрос с ключом идемпотентности к команде, которая может изменять данные, выполняется не более одного раза:
+     * повтор получает ответ первого запроса.
+     *
+     * @param request запрос
+     * @return будущий ответ; исключения команды превращаются в ответ с ошибкой
+     */
+    public CompletableFuture<Response> handleAsync(Request request) {
+        Command command = commands.get(request.getCommand());
+        if (command == null) {
+            return CompletableFuture.completedFuture(new Response(false, "Команда не найдена, введите help для справки"));
+        }
+        if (readOnlyReason != null && command.isMutating()) {
+            return CompletableFuture.completedFuture(new Response(false, readOnlyReason));
+        }
+        if (request.getIdempotencyKey() == null || command.isReadOnly()) {
+            return dispatch(command, request);
+        }
+
+        CompletableFuture<Response> promise = new CompletableFuture<>();
+        String key = request.getLogin() + '\u0000' + request.getIdempotencyKey();
+        CompletableFuture<Response> original = idempotencyTable.putIfAbsent(key, promise);
+        if (original != null) {
+            return original;
+        }
+        dispatch(command, request).whenComplete((response, throwable) -> promise.complete(response));
+        return promise;
+    }
+
+    private CompletableFuture<Response> dispatch(Command command, Request request) {
+        long start = System.nanoTime();
+        CompletableFuture<Response> future;
+        Executor executor = command.getExecutor();
+        if (collectionManager == null || !command.isReadOnly() && !command.isMutating()) {
+            future = command.executeAsync(request);
+        } else if (command.isMutating() && executor != null) {
+            // Команда в собственном пуле сначала фиксирует изменение в базе данных, а очередь записи
+            // занимает только на изменение коллекции в памяти, поэтому запросы к базе идут параллельно
+            future = command.executeAsync(request);
         } else {
-            return commands.get(request.getCommand()).execute(request);
+            try {
+                future = CompletableFuture.completedFuture(execute(command, request));
+            } catch (RuntimeException exception) {
+                future = CompletableFuture.failedFuture(exception);
+            }
+        }
+        return future.exceptionally(throwable -> {
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause() : throwable;
+            return new Response(false, cause.getMessage());
+        }).whenComplete((response, throwable) -> statistics.recordCommand(request.getCommand(),
+                System.nanoTime() - start, response != null && response.isSuccess()));
+    }
+
+    /**
+     * Выполняет команду в текущем потоке: читающие - под блокировкой чтения коллекции и с кешем ответов,
+     * изменяющие - в очереди записи, остальные - без блокировок. Изменяющие команды с собственным пулом
+     * при асинхронном вызове ({@link #handleAsync(Request)}) очередь записи целиком не удерживают:
+     * коллекция в памяти меняется под ней после фиксации изменения в базе данных.
+     */
+    private Response execute(Command command, Request request) {
+        CollectionManager<?> collectionManager = this.collectionManager;
+        if (collectionManager == null) {
+            return command.execute(request);
+        }
+        if (command.isReadOnly()) {
+            return executeReadOnly(collectionManager, command, request);
+        }
+        if (!command.isMutating()) {
+            return command.execute(request);
+        }
+        Lock writerLock = collectionManager.writerLock();
+        writerLock.lock();
+        try {
+            return command.execute(request);
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    private Response executeReadOnly(CollectionManager<?> collectionManager, Command command, Request request) {
+        if (collectionManager.isInTransaction()) {
+            // Поток транзакции видит ее незафиксированные изменения под прежней версией коллекции
+            return command.execute(request);
+        }
+        long version = collectionManager.getVersion();
+        String user = command.isUserIndependent() ? null : request.getLogin();
+        ResponseCache.Key key = new ResponseCache.Key(request.getCommand(), request.getData(), user, version);
+        Response cached = responseCache.get(key);
+        if (cached != null) return cached;
+
+        Lock readLock = collectionManager.readLock();
+        readLock.lock();
+        try {
+            // Версия читается под блокировкой, поэтому ответ соответствует ровно одному состоянию коллекции
+            version = collectionManager.getVersion();
+            Response response = command.execute(request);
+            if (response != null) {
+                responseCache.put(new ResponseCache.Key(request.getCommand(), request.getData(), user, version), response);
+            }
+            return response;
+        } finally {
+            readLock.unlock();
         }
     }
 
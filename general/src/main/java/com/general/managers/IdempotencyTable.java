@@ -0,0 +1,87 @@
+package com.general.managers;
+
+import com.general.network.Response;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+/**
+ * Таблица ответов на запросы с ключом идемпотентности. Повторный запрос с тем же ключом получает
+ * исходный ответ (или ждет его, если первый запрос еще выполняется) вместо повторного выполнения.
+ * Таблица ограничена по размеру, а записи устаревают через заданное время.
+ */
+public class IdempotencyTable {
+    private final int capacity;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * @param capacity  максимальное количество хранимых ответов
+     * @param ttlMillis время хранения ответа в миллисекундах
+     */
+    public IdempotencyTable(int capacity, long ttlMillis) {
+        this(capacity, ttlMillis, System::nanoTime);
+    }
+
+    IdempotencyTable(int capacity, long ttlMillis, LongSupplier clock) {
+        this.capacity = capacity;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.clock = clock;
+    }
+
+    /**
+     * Регистрирует ключ. Если ключ уже известен, возвращает ответ, связанный с ним;
+     * иначе связывает с ключом переданный будущий ответ.
+     *
+     * @param key     ключ идемпотентности
+     * @param promise будущий ответ нового запроса
+     * @return будущий ответ первого запроса с этим ключом или null, если ключ новый
+     */
+    public synchronized CompletableFuture<Response> putIfAbsent(String key, CompletableFuture<Response> promise) {
+        long now = clock.getAsLong();
+        expire(now);
+        Entry existing = entries.get(key);
+        if (existing != null) return existing.response;
+
+        entries.put(key, new Entry(promise, now));
+        if (entries.size() > capacity) {
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            iterator.next();
+            iterator.remove();
+        }
+        return null;
+    }
+
+    /**
+     * @return количество хранимых ответов
+     */
+    public synchronized int size() {
+        expire(clock.getAsLong());
+        return entries.size();
+    }
+
+    /**
+     * Удаляет устаревшие записи. Записи хранятся в порядке добавления, поэтому достаточно просмотреть начало.
+     */
+    private void expire(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().createdAt < ttlNanos) break;
+            iterator.remove();
+        }
+    }
+
+    private static class Entry {
+        private final CompletableFuture<Response> response;
+        private final long createdAt;
+
+        Entry(CompletableFuture<Response> response, long createdAt) {
+            this.response = response;
+            this.createdAt = createdAt;
+        }
+    }
+}
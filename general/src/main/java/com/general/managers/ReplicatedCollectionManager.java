@@ -0,0 +1,127 @@
+package com.general.managers;
+
+import com.general.models.base.Element;
+import com.general.network.Response;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.PriorityQueue;
+
+/**
+ * Копия коллекции другого процесса (источника), которая заполняется только изменениями от него:
+ * локальная копия клиента и коллекция ведомого сервера.
+ * <p>
+ * Копия помечена эпохой и версией коллекции источника и запрашивает у него только изменения с этой версии
+ * (команда sync, см. {@link CollectionManager#getChangesSince(long, long)}). Если источник перезапущен
+ * или копия отстала больше, чем хранит журнал изменений, источник передает полный снимок.
+ * Коллекция хранится в том же виде, что и у источника, чтобы порядок вывода совпадал.
+ * <p>
+ * Получение и применение изменений выполняются под {@link #writerLock()}, поэтому синхронизация
+ * и перезагрузка копии не пересекаются, а читающие команды ждут только применения изменений в памяти.
+ *
+ * @param <T> тип элементов коллекции
+ */
+public abstract class ReplicatedCollectionManager<T extends Element & Comparable<T>> extends CollectionManager<T> {
+    @Getter
+    private volatile long sourceEpoch;
+    @Getter
+    private volatile long sourceVersion = -1;
+
+    /**
+     * Запрашивает у источника изменения коллекции командой sync.
+     *
+     * @param cursor аргумент команды sync: {эпоха, версия} или null для полного снимка
+     * @return ответ источника; при успехе в данных - {@link CollectionDelta}
+     */
+    protected abstract Response requestChanges(Long[] cursor);
+
+    @Override
+    protected Collection<T> createCollection() {
+        return new PriorityQueue<>();
+    }
+
+    /**
+     * Копия заполняется изменениями от источника при синхронизации.
+     */
+    @Override
+    protected void loadCollection() {
+    }
+
+    @Override
+    protected Long getId(T element) {
+        return element.getId();
+    }
+
+    /**
+     * Запрашивает у источника полный снимок коллекции; копия переходит к его эпохе и версии.
+     *
+     * @throws IllegalStateException если источник не передал снимок
+     */
+    @Override
+    protected Collection<T> fetchCollection() {
+        CollectionDelta<T> delta = receive(requestChanges(null));
+        if (!delta.isFull()) throw new IllegalStateException("Источник не передал снимок коллекции");
+        sourceEpoch = delta.getEpoch();
+        sourceVersion = delta.getVersion();
+        return delta.getElements();
+    }
+
+    /**
+     * @return аргумент команды sync: {эпоха, версия} источника, которым соответствует копия,
+     * или null, если копия еще не получала полный снимок
+     */
+    public Long[] getCursor() {
+        return sourceVersion < 0 ? null : new Long[]{sourceEpoch, sourceVersion};
+    }
+
+    /**
+     * Запрашивает у источника изменения коллекции с версии копии и применяет их.
+     *
+     * @return ответ источника; если он успешен, копия соответствует текущей версии коллекции источника
+     */
+    public Response sync() {
+        writerLock().lock();
+        try {
+            Response response = requestChanges(getCursor());
+            if (!response.isSuccess()) return response;
+            if (!(response.getData() instanceof CollectionDelta<?>)) {
+                return new Response(false, "Источник не передал изменения коллекции");
+            }
+            apply(receive(response));
+            return response;
+        } finally {
+            writerLock().unlock();
+        }
+    }
+
+    /**
+     * Применяет изменения, полученные от источника.
+     *
+     * @param delta изменения или полный снимок коллекции источника
+     * @return количество примененных элементов и изменений
+     */
+    public int apply(CollectionDelta<T> delta) {
+        writerLock().lock();
+        try {
+            applyDelta(delta);
+            sourceEpoch = delta.getEpoch();
+            sourceVersion = delta.getVersion();
+            if (delta.isFull()) setLastInitTime(LocalDateTime.now());
+            return delta.size();
+        } finally {
+            writerLock().unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private CollectionDelta<T> receive(Response response) {
+        if (!response.isSuccess()) {
+            throw new IllegalStateException("Источник отклонил запрос: " + response.getMessage());
+        }
+        if (!(response.getData() instanceof CollectionDelta<?> delta)) {
+            throw new IllegalStateException("Источник не передал изменения коллекции");
+        }
+        return (CollectionDelta<T>) delta;
+    }
+}
@@ -0,0 +1,126 @@
+package com.general.managers;
+
+import com.general.network.Response;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Ограниченный по размеру кеш ответов команд с вытеснением давно не использованных записей (LRU).
+ * Ключ включает имя команды, аргументы, пользователя и версию коллекции, поэтому любое изменение коллекции
+ * делает прежние записи недостижимыми, и они постепенно вытесняются.
+ * <p>
+ * Один ответ отдается многим запросам, поэтому кеш хранит собственную копию ответа без учетных данных,
+ * со списками и отображениями, доступными только для чтения, и каждому запросу возвращает новую копию.
+ */
+public class ResponseCache {
+    private final int capacity;
+    private final Map<Key, Response> entries;
+
+    /**
+     * @param capacity максимальное количество хранимых ответов
+     */
+    public ResponseCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Response> eldest) {
+                return size() > ResponseCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Возвращает сохраненный ответ.
+     *
+     * @param key ключ
+     * @return ответ или null, если его нет в кеше
+     */
+    public Response get(Key key) {
+        Response cached;
+        synchronized (this) {
+            cached = entries.get(key);
+        }
+        return cached == null ? null : new Response(cached.isSuccess(), cached.getMessage(), cached.getData());
+    }
+
+    /**
+     * Сохраняет ответ.
+     *
+     * @param key      ключ
+     * @param response ответ
+     */
+    public void put(Key key, Response response) {
+        Response copy = new Response(response.isSuccess(), response.getMessage(), readOnlyCopy(response.getData()));
+        synchronized (this) {
+            entries.put(key, copy);
+        }
+    }
+
+    /**
+     * Удаляет все сохраненные ответы.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return количество сохраненных ответов
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static Object readOnlyCopy(Object data) {
+        if (data instanceof List<?> list) return Collections.unmodifiableList(new ArrayList<>(list));
+        if (data instanceof Map<?, ?> map) return Collections.unmodifiableMap(new LinkedHashMap<>(map));
+        if (data instanceof Set<?> set) return Collections.unmodifiableSet(new LinkedHashSet<>(set));
+        return data;
+    }
+
+    /**
+     * Ключ кеша: команда, ее аргументы, пользователь и версия коллекции, для которой был получен ответ.
+     */
+    public static final class Key {
+        private final String command;
+        private final Object arguments;
+        private final String user;
+        private final long version;
+
+        /**
+         * @param command   имя команды
+         * @param arguments аргументы команды
+         * @param user      логин пользователя или null, если ответ общий для всех пользователей
+         * @param version   версия коллекции
+         */
+        public Key(String command, Object arguments, String user, long version) {
+            this.command = command;
+            // Массивы сравниваются по содержимому, а не по ссылке; аргумент может быть null
+            this.arguments = arguments instanceof Object[] array
+                    ? Collections.unmodifiableList(new ArrayList<>(Arrays.asList(array))) : arguments;
+            this.user = user;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return version == key.version && Objects.equals(command, key.command)
+                    && Objects.equals(arguments, key.arguments) && Objects.equals(user, key.user);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(command, arguments, user, version);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.general.managers.index;
+
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Перечисление функций, которые можно вычислить по {@link FieldAggregate}.
+ */
+public enum AggregateFunction {
+    SUM("Сумма", FieldAggregate::sum),
+    COUNT("Количество", aggregate -> aggregate.count()),
+    MIN("Минимум", FieldAggregate::min),
+    MAX("Максимум", FieldAggregate::max),
+    AVG("Среднее", FieldAggregate::mean);
+
+    private final String title;
+    private final Function<FieldAggregate<?>, Number> function;
+
+    AggregateFunction(String title, Function<FieldAggregate<?>, Number> function) {
+        this.title = title;
+        this.function = function;
+    }
+
+    /**
+     * @return название функции для вывода пользователю
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Вычисляет значение функции по агрегату.
+     *
+     * @param aggregate агрегат поля
+     * @return значение функции или {@code null}, если значений нет
+     */
+    public Number apply(FieldAggregate<?> aggregate) {
+        return function.apply(aggregate);
+    }
+
+    /**
+     * Находит функцию по имени без учета регистра ({@code mean} - синоним {@code avg}).
+     *
+     * @param name имя функции
+     * @return функция или {@code null}, если такой нет
+     */
+    public static AggregateFunction parse(String name) {
+        if ("mean".equalsIgnoreCase(name)) return AVG;
+        for (AggregateFunction function : values()) {
+            if (function.name().equalsIgnoreCase(name)) return function;
+        }
+        return null;
+    }
+
+    /**
+     * @return имена всех функций через запятую
+     */
+    public static String names() {
+        return Arrays.stream(values()).map(function -> function.name().toLowerCase()).collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,29 @@
+package com.general.managers.index;
+
+/**
+ * Вспомогательная структура, которая поддерживается в актуальном состоянии при каждом изменении коллекции.
+ * {@link com.general.managers.CollectionManager} уведомляет все зарегистрированные индексы о добавлении
+ * и удалении элементов, поэтому индексу не нужно самостоятельно обходить коллекцию.
+ *
+ * @param <T> тип элементов коллекции
+ */
+public interface CollectionIndex<T> {
+    /**
+     * Вызывается после добавления элемента в коллекцию.
+     *
+     * @param element добавленный элемент
+     */
+    void added(T element);
+
+    /**
+     * Вызывается после удаления элемента из коллекции.
+     *
+     * @param element удаленный элемент (именно тот экземпляр, который хранился в коллекции)
+     */
+    void removed(T element);
+
+    /**
+     * Сбрасывает индекс в пустое состояние перед полной перестройкой.
+     */
+    void cleared();
+}
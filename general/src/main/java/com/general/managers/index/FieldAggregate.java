@@ -0,0 +1,139 @@
+package com.general.managers.index;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Инкрементально поддерживаемые агрегаты (количество, сумма, минимум, максимум, среднее) числового поля элементов.
+ * <p>
+ * Запросы выполняются без обхода коллекции. Целочисленные значения хранятся как {@code long}: сумма -
+ * в разделенном счетчике {@link LongAdder}, минимум и максимум - в упорядоченном мультимножестве с ключами
+ * {@code long}, поэтому значения больше 2^53 не теряют точность. Дробные значения суммируются точно
+ * в {@link BigDecimal}, так что сумма не накапливает ошибку округления при многократных добавлениях
+ * и удалениях и округляется до {@code double} только при чтении.
+ * Мультимножества позволяют корректно обрабатывать удаление текущего минимума или максимума.
+ * Элементы, у которых поле равно {@code null}, бесконечно или не является числом (NaN), в агрегатах не учитываются.
+ *
+ * @param <T> тип элементов коллекции
+ */
+public class FieldAggregate<T> implements CollectionIndex<T> {
+    @Getter
+    private final String field;
+    private final Function<? super T, ? extends Number> extractor;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder integralSum = new LongAdder();
+    private final AtomicReference<BigDecimal> fractionalSum = new AtomicReference<>(BigDecimal.ZERO);
+    private final ConcurrentSkipListMap<Long, Long> integralValues = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Double, Long> fractionalValues = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param field     имя поля
+     * @param extractor функция, извлекающая значение поля из элемента
+     */
+    public FieldAggregate(String field, Function<? super T, ? extends Number> extractor) {
+        this.field = field;
+        this.extractor = extractor;
+    }
+
+    @Override
+    public void added(T element) {
+        Number value = extractor.apply(element);
+        if (value == null) return;
+        if (isIntegral(value)) {
+            integralSum.add(value.longValue());
+            integralValues.merge(value.longValue(), 1L, Long::sum);
+        } else {
+            double fraction = value.doubleValue();
+            if (!Double.isFinite(fraction)) return;
+            fractionalSum.accumulateAndGet(new BigDecimal(fraction), BigDecimal::add);
+            fractionalValues.merge(fraction, 1L, Long::sum);
+        }
+        count.increment();
+    }
+
+    @Override
+    public void removed(T element) {
+        Number value = extractor.apply(element);
+        if (value == null) return;
+        if (isIntegral(value)) {
+            integralSum.add(-value.longValue());
+            integralValues.computeIfPresent(value.longValue(), FieldAggregate::decrement);
+        } else {
+            double fraction = value.doubleValue();
+            if (!Double.isFinite(fraction)) return;
+            fractionalSum.accumulateAndGet(new BigDecimal(fraction), BigDecimal::subtract);
+            fractionalValues.computeIfPresent(fraction, FieldAggregate::decrement);
+        }
+        count.decrement();
+    }
+
+    @Override
+    public void cleared() {
+        count.reset();
+        integralSum.reset();
+        fractionalSum.set(BigDecimal.ZERO);
+        integralValues.clear();
+        fractionalValues.clear();
+    }
+
+    /**
+     * @return количество элементов с непустым значением поля
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * @return сумма значений поля ({@link Long} для целочисленных полей, иначе {@link Double})
+     */
+    public Number sum() {
+        if (fractionalValues.isEmpty()) return integralSum.sum();
+        return fractionalSum.get().add(BigDecimal.valueOf(integralSum.sum())).doubleValue();
+    }
+
+    /**
+     * @return минимальное значение поля или {@code null}, если значений нет
+     */
+    public Number min() {
+        return extreme(integralValues.firstEntry(), fractionalValues.firstEntry(), -1);
+    }
+
+    /**
+     * @return максимальное значение поля или {@code null}, если значений нет
+     */
+    public Number max() {
+        return extreme(integralValues.lastEntry(), fractionalValues.lastEntry(), 1);
+    }
+
+    /**
+     * @return среднее значение поля или {@code null}, если значений нет
+     */
+    public Double mean() {
+        long n = count();
+        return n == 0 ? null : sum().doubleValue() / n;
+    }
+
+    // Поле одного типа заполняет только одно из мультимножеств; оба заполнены, только если экстрактор
+    // возвращает значения разных типов
+    private static Number extreme(Map.Entry<Long, Long> integral, Map.Entry<Double, Long> fractional, int sign) {
+        if (fractional == null) return integral == null ? null : integral.getKey();
+        if (integral == null) return fractional.getKey();
+        int comparison = BigDecimal.valueOf(integral.getKey()).compareTo(new BigDecimal(fractional.getKey()));
+        return comparison * sign >= 0 ? integral.getKey() : fractional.getKey();
+    }
+
+    private static Long decrement(Object value, Long occurrences) {
+        return occurrences == 1 ? null : occurrences - 1;
+    }
+
+    private static boolean isIntegral(Number value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+}
@@ -0,0 +1,41 @@
+package com.general.managers.index;
+
+import com.general.models.base.Element;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Индекс элементов по ID: поиск элемента и проверка его наличия за O(1) вместо обхода коллекции.
+ *
+ * @param <T> тип элементов коллекции
+ */
+public class IdIndex<T extends Element> implements CollectionIndex<T> {
+    private final Map<Long, T> byId = new ConcurrentHashMap<>();
+
+    @Override
+    public void added(T element) {
+        if (element.getId() == null) return;
+        byId.put(element.getId(), element);
+    }
+
+    @Override
+    public void removed(T element) {
+        if (element.getId() == null) return;
+        // Удаляется только тот экземпляр, который хранится в индексе (equals элементов сравнивает поля)
+        byId.computeIfPresent(element.getId(), (id, current) -> current == element ? null : current);
+    }
+
+    @Override
+    public void cleared() {
+        byId.clear();
+    }
+
+    /**
+     * @param id ID элемента
+     * @return элемент с этим ID или null, если его нет
+     */
+    public T get(Long id) {
+        return id == null ? null : byId.get(id);
+    }
+}
@@ -0,0 +1,75 @@
+package com.general.managers.index;
+
+import com.general.models.base.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Индекс элементов по имени для поиска по префиксу.
+ * <p>
+ * Элементы хранятся в упорядоченных отображениях с ключом "имя + идентификатор" (с учетом регистра и
+ * в нижнем регистре), поэтому все элементы с заданным префиксом образуют непрерывный диапазон ключей
+ * и находятся за O(log n + k).
+ *
+ * @param <T> тип элементов коллекции
+ */
+public class NameIndex<T extends Element> implements CollectionIndex<T> {
+    private static final char SEPARATOR = '\u0000';
+    private static final char MAX_CHAR = '\uffff';
+
+    private final ConcurrentSkipListMap<String, T> byName = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, T> byFoldedName = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void added(T element) {
+        if (element.getName() == null) return;
+        byName.put(key(element.getName(), element), element);
+        byFoldedName.put(key(fold(element.getName()), element), element);
+    }
+
+    @Override
+    public void removed(T element) {
+        if (element.getName() == null) return;
+        byName.remove(key(element.getName(), element));
+        byFoldedName.remove(key(fold(element.getName()), element));
+    }
+
+    @Override
+    public void cleared() {
+        byName.clear();
+        byFoldedName.clear();
+    }
+
+    /**
+     * Возвращает элементы, имя которых начинается с заданного префикса, в порядке возрастания имени.
+     *
+     * @param prefix     префикс имени
+     * @param ignoreCase искать без учета регистра
+     * @param limit      максимальное количество элементов (0 или меньше - без ограничения)
+     * @return список найденных элементов
+     */
+    public List<T> startingWith(String prefix, boolean ignoreCase, int limit) {
+        String from = ignoreCase ? fold(prefix) : prefix;
+        ConcurrentNavigableMap<String, T> range = (ignoreCase ? byFoldedName : byName)
+                .subMap(from, true, from + MAX_CHAR, true);
+
+        List<T> result = new ArrayList<>();
+        for (T element : range.values()) {
+            if (limit > 0 && result.size() >= limit) break;
+            result.add(element);
+        }
+        return result;
+    }
+
+    private static String key(String name, Element element) {
+        return name + SEPARATOR + element.getId();
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
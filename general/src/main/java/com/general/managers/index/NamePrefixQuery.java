@@ -0,0 +1,93 @@
+package com.general.managers.index;
+
+import com.general.exceptions.WrongAmountOfElementsException;
+import com.general.managers.CollectionManager;
+import com.general.models.base.Element;
+import com.general.network.Response;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Запрос поиска элементов по префиксу имени, как его задает команда filter_starts_with_name:
+ * {@code [-i] [-l limit] [--] name}. Разбор и форматирование ответа общие для сервера и локальной копии коллекции клиента.
+ */
+@Getter
+public class NamePrefixQuery {
+    private final String prefix;
+    private final boolean ignoreCase;
+    private final int limit;
+
+    private NamePrefixQuery(String prefix, boolean ignoreCase, int limit) {
+        this.prefix = prefix;
+        this.ignoreCase = ignoreCase;
+        this.limit = limit;
+    }
+
+    /**
+     * Разбирает аргументы команды. Флаги - отдельные слова перед префиксом; после {@code --} флаги
+     * больше не разбираются, так можно искать имена, которые сами начинаются с {@code -i} или {@code -l}.
+     *
+     * @param arguments аргументы: необязательные флаги и префикс имени
+     * @return запрос поиска
+     * @throws WrongAmountOfElementsException если префикс не задан или ограничение не положительно
+     * @throws NumberFormatException          если ограничение не является числом
+     */
+    public static NamePrefixQuery parse(String arguments) throws WrongAmountOfElementsException {
+        String prefix = arguments.trim();
+        boolean ignoreCase = false;
+        int limit = 0;
+        // Необязательные флаги перед подстрокой
+        while (true) {
+            String[] flagAndRest = prefix.split(" ", 2);
+            String rest = flagAndRest.length > 1 ? flagAndRest[1].trim() : "";
+            if (flagAndRest[0].equals("--")) {
+                prefix = rest;
+                break;
+            } else if (flagAndRest[0].equals("-i")) {
+                ignoreCase = true;
+                prefix = rest;
+            } else if (flagAndRest[0].equals("-l")) {
+                String[] limitAndRest = rest.split(" ", 2);
+                limit = Integer.parseInt(limitAndRest[0]);
+                if (limit <= 0) throw new WrongAmountOfElementsException();
+                prefix = limitAndRest.length > 1 ? limitAndRest[1].trim() : "";
+            } else {
+                break;
+            }
+        }
+        if (prefix.isEmpty()) {
+            throw new WrongAmountOfElementsException();
+        }
+        return new NamePrefixQuery(prefix, ignoreCase, limit);
+    }
+
+    /**
+     * Выполняет поиск в коллекции.
+     *
+     * @param collectionManager менеджер коллекции
+     * @return найденные элементы в порядке возрастания имени
+     */
+    public <T extends Element & Comparable<T>> List<T> find(CollectionManager<T> collectionManager) {
+        return collectionManager.getByNamePrefix(prefix, ignoreCase, limit);
+    }
+
+    /**
+     * Формирует ответ команды по найденным элементам.
+     *
+     * @param found найденные элементы
+     * @return ответ команды
+     */
+    public Response toResponse(List<? extends Element> found) {
+        if (found.isEmpty()) {
+            return new Response(false, "Элементов, чьи имена начинаются с '" + prefix + "' не обнаружено.");
+        }
+        StringBuilder result = new StringBuilder();
+        for (Element element : found) {
+            result.append(element.toString()).append("\n");
+        }
+        return new Response(true,
+                "Элементов, чьи имена начинаются с '" + prefix + "' обнаружено " + found.size() + " шт.",
+                result.toString().trim());
+    }
+}
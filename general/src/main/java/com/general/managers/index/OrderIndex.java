@@ -0,0 +1,79 @@
+package com.general.managers.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Индекс, упорядочивающий элементы коллекции по естественному порядку ({@link Comparable#compareTo})
+ * с идентификатором в качестве дополнительного критерия, чтобы равные по {@code compareTo} элементы не сливались.
+ * <p>
+ * Минимальный элемент доступен за O(1), а выборка элементов больше или меньше заданного
+ * сводится к разрезу упорядоченного множества и занимает O(log n + k), где k - количество найденных элементов.
+ *
+ * @param <T> тип элементов коллекции
+ */
+public class OrderIndex<T extends Comparable<T>> implements CollectionIndex<T> {
+    private final NavigableSet<T> elements;
+
+    /**
+     * @param order полный порядок на элементах: естественный порядок, дополненный уникальным критерием
+     */
+    public OrderIndex(Comparator<? super T> order) {
+        this.elements = new ConcurrentSkipListSet<>(order);
+    }
+
+    @Override
+    public void added(T element) {
+        elements.add(element);
+    }
+
+    @Override
+    public void removed(T element) {
+        elements.remove(element);
+    }
+
+    @Override
+    public void cleared() {
+        elements.clear();
+    }
+
+    /**
+     * @return минимальный элемент или null, если индекс пуст
+     */
+    public T first() {
+        return elements.isEmpty() ? null : elements.first();
+    }
+
+    /**
+     * Возвращает элементы, строго большие заданного по {@code compareTo}, в порядке возрастания.
+     *
+     * @param bound граница
+     * @return список найденных элементов
+     */
+    public List<T> greaterThan(T bound) {
+        List<T> result = new ArrayList<>();
+        for (T element : elements.tailSet(bound, true)) {
+            if (result.isEmpty() && element.compareTo(bound) == 0) continue;
+            result.add(element);
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает элементы, строго меньшие заданного по {@code compareTo}, в порядке убывания.
+     *
+     * @param bound граница
+     * @return список найденных элементов
+     */
+    public List<T> lowerThan(T bound) {
+        List<T> result = new ArrayList<>();
+        for (T element : elements.headSet(bound, true).descendingSet()) {
+            if (result.isEmpty() && element.compareTo(bound) == 0) continue;
+            result.add(element);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,26 @@
+package com.general.managers.stats;
+
+/**
+ * Этапы обработки запроса на сервере. Время запросов к базе данных входит также
+ * в авторизацию и выполнение команды, поэтому длительности этапов не складываются в общее время.
+ */
+public enum RequestStage {
+    READ("чтение из сокета"),
+    QUEUE("ожидание в очереди"),
+    DECODE("десериализация"),
+    AUTH("авторизация"),
+    DATABASE("запросы к базе"),
+    EXECUTE("выполнение"),
+    ENCODE("сериализация"),
+    WRITE("запись в сокет");
+
+    private final String title;
+
+    RequestStage(String title) {
+        this.title = title;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+}
@@ -0,0 +1,166 @@
+package com.general.managers.stats;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Статистика сервера: количество вызовов, ошибок и гистограммы задержек по командам
+ * и по этапам обработки запроса.
+ * <p>
+ * Счетчики только растут с запуска сервера, поэтому их можно отдавать системам мониторинга.
+ * Сброс ({@link #reset()}) лишь запоминает начало отсчета для отчета {@link #format()}
+ * и выборки {@link #sinceReset()}.
+ */
+public class StatsRegistry {
+    private final Map<String, CommandStats> commands = new ConcurrentHashMap<>();
+    private final Map<RequestStage, LatencyHistogram> stages = new EnumMap<>(RequestStage.class);
+    private volatile StatsRegistry baseline;
+
+    public StatsRegistry() {
+        for (RequestStage stage : RequestStage.values()) stages.put(stage, new LatencyHistogram());
+    }
+
+    /**
+     * Записывает выполнение команды.
+     *
+     * @param command имя команды
+     * @param nanos   время выполнения в наносекундах
+     * @param success успешно ли выполнена команда
+     */
+    public void recordCommand(String command, long nanos, boolean success) {
+        CommandStats stats = commands.computeIfAbsent(command, name -> new CommandStats());
+        stats.latency.record(nanos);
+        if (!success) stats.errors.increment();
+    }
+
+    /**
+     * Записывает длительность этапа обработки запроса.
+     *
+     * @param stage этап
+     * @param nanos длительность в наносекундах
+     */
+    public void recordStage(RequestStage stage, long nanos) {
+        stages.get(stage).record(nanos);
+    }
+
+    /**
+     * @param command имя команды
+     * @return гистограмма задержек команды или null, если команда еще не выполнялась
+     */
+    public LatencyHistogram getCommandLatency(String command) {
+        CommandStats stats = commands.get(command);
+        return stats == null ? null : stats.latency;
+    }
+
+    /**
+     * @param command имя команды
+     * @return количество неуспешных выполнений команды
+     */
+    public long getCommandErrors(String command) {
+        CommandStats stats = commands.get(command);
+        return stats == null ? 0 : stats.errors.sum();
+    }
+
+    /**
+     * @return имена выполнявшихся команд в алфавитном порядке
+     */
+    public Iterable<String> getCommandNames() {
+        return new TreeMap<>(commands).keySet();
+    }
+
+    /**
+     * @param stage этап
+     * @return гистограмма длительности этапа
+     */
+    public LatencyHistogram getStageLatency(RequestStage stage) {
+        return stages.get(stage);
+    }
+
+    /**
+     * Начинает отсчет статистики для отчета заново. Сами счетчики не меняются.
+     */
+    public void reset() {
+        baseline = copy();
+    }
+
+    /**
+     * @return статистика, накопленная после последнего {@link #reset()}, или вся статистика, если сброса не было
+     */
+    public StatsRegistry sinceReset() {
+        StatsRegistry baseline = this.baseline;
+        if (baseline == null) return copy();
+        StatsRegistry view = new StatsRegistry();
+        commands.forEach((name, stats) -> {
+            CommandStats before = baseline.commands.get(name);
+            CommandStats since = before == null ? stats.copy() : stats.minus(before);
+            if (since.latency.count() > 0) view.commands.put(name, since);
+        });
+        stages.forEach((stage, histogram) -> view.stages.put(stage, histogram.minus(baseline.stages.get(stage))));
+        return view;
+    }
+
+    private StatsRegistry copy() {
+        StatsRegistry copy = new StatsRegistry();
+        commands.forEach((name, stats) -> copy.commands.put(name, stats.copy()));
+        stages.forEach((stage, histogram) -> copy.stages.put(stage, histogram.copy()));
+        return copy;
+    }
+
+    /**
+     * Формирует текстовый отчет со статистикой команд и этапов после последнего {@link #reset()}.
+     * Задержки выводятся в миллисекундах.
+     *
+     * @return отчет
+     */
+    public String format() {
+        StatsRegistry view = sinceReset();
+        Map<String, CommandStats> commands = view.commands;
+        Map<RequestStage, LatencyHistogram> stages = view.stages;
+        StringBuilder sb = new StringBuilder();
+        String header = String.format("%-26s%10s%8s%10s%10s%10s%10s%n", "", "вызовы", "ошибки", "p50", "p99", "p999", "max");
+        sb.append("Команды (мс):\n").append(header);
+        for (Map.Entry<String, CommandStats> entry : new TreeMap<>(commands).entrySet()) {
+            appendRow(sb, entry.getKey(), entry.getValue().latency, entry.getValue().errors.sum());
+        }
+        sb.append("Этапы обработки запроса (мс):\n").append(header);
+        for (Map.Entry<RequestStage, LatencyHistogram> entry : stages.entrySet()) {
+            appendRow(sb, entry.getKey().getTitle(), entry.getValue(), 0);
+        }
+        return sb.toString().stripTrailing();
+    }
+
+    private static void appendRow(StringBuilder sb, String name, LatencyHistogram histogram, long errors) {
+        sb.append(String.format("%-26s%10d%8d%10.3f%10.3f%10.3f%10.3f%n", name, histogram.count(), errors,
+                millis(histogram.percentile(50)), millis(histogram.percentile(99)),
+                millis(histogram.percentile(99.9)), millis(histogram.max())));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static class CommandStats {
+        private final LatencyHistogram latency;
+        private final LongAdder errors = new LongAdder();
+
+        CommandStats() {
+            this(new LatencyHistogram(), 0);
+        }
+
+        CommandStats(LatencyHistogram latency, long errors) {
+            this.latency = latency;
+            this.errors.add(errors);
+        }
+
+        CommandStats copy() {
+            return new CommandStats(latency.copy(), errors.sum());
+        }
+
+        CommandStats minus(CommandStats baseline) {
+            return new CommandStats(latency.minus(baseline.latency), Math.max(0, errors.sum() - baseline.errors.sum()));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.general.models.meta;
+
+import lombok.Getter;
+
+import java.util.function.Function;
+
+/**
+ * Быстрый доступ к значению одного поля модели.
+ * Функция чтения строится один раз при построении {@link ModelMetadata} и не использует рефлексию при вызове.
+ */
+@Getter
+public final class FieldAccessor {
+    private final String name;
+    private final Class<?> type;
+    private final Function<Object, Object> getter;
+
+    FieldAccessor(String name, Class<?> type, Function<Object, Object> getter) {
+        this.name = name;
+        this.type = type;
+        this.getter = getter;
+    }
+
+    /**
+     * Возвращает значение поля у объекта.
+     *
+     * @param target объект модели
+     * @return значение поля (примитивы возвращаются в упакованном виде)
+     */
+    public Object get(Object target) {
+        return getter.apply(target);
+    }
+}
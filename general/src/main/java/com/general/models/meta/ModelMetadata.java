@@ -0,0 +1,162 @@
+package com.general.models.meta;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Метаданные модели: упорядоченная таблица функций чтения полей класса.
+ * <p>
+ * Таблица строится один раз на класс и кешируется. Для полей с публичным геттером функция чтения
+ * генерируется через {@link LambdaMetafactory}, поэтому вызов не отличается от обычного вызова геттера;
+ * для остальных полей используется {@link MethodHandle}.
+ * Порядок столбцов: поле {@code id} (если есть), собственные поля класса, затем унаследованные поля.
+ */
+public final class ModelMetadata {
+    private static final ClassValue<ModelMetadata> CACHE = new ClassValue<>() {
+        @Override
+        protected ModelMetadata computeValue(Class<?> type) {
+            return new ModelMetadata(type);
+        }
+    };
+    private static final String ID_FIELD = "id";
+
+    private final Class<?> type;
+    private final List<FieldAccessor> accessors;
+    private final String[] names;
+
+    private ModelMetadata(Class<?> type) {
+        this.type = type;
+        List<FieldAccessor> columns = new ArrayList<>();
+        List<Field> inherited = new ArrayList<>();
+        for (Class<?> current = type.getSuperclass(); current != null && current != Object.class; current = current.getSuperclass()) {
+            inherited.addAll(instanceFields(current));
+        }
+
+        for (Field field : inherited) {
+            if (ID_FIELD.equals(field.getName())) columns.add(accessor(field));
+        }
+        for (Field field : instanceFields(type)) {
+            columns.add(accessor(field));
+        }
+        for (Field field : inherited) {
+            if (!ID_FIELD.equals(field.getName())) columns.add(accessor(field));
+        }
+
+        this.accessors = Collections.unmodifiableList(columns);
+        this.names = columns.stream().map(FieldAccessor::getName).toArray(String[]::new);
+    }
+
+    /**
+     * Возвращает метаданные класса, строя их при первом обращении.
+     *
+     * @param type класс модели
+     * @return метаданные класса
+     */
+    public static ModelMetadata of(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    /**
+     * @return класс модели
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return функции чтения полей в порядке столбцов
+     */
+    public List<FieldAccessor> getAccessors() {
+        return accessors;
+    }
+
+    /**
+     * @return количество столбцов
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @return копия массива имен столбцов
+     */
+    public String[] getNames() {
+        return names.clone();
+    }
+
+    /**
+     * Возвращает значение столбца у объекта.
+     *
+     * @param target объект модели
+     * @param column номер столбца
+     * @return значение поля
+     */
+    public Object get(Object target, int column) {
+        return accessors.get(column).get(target);
+    }
+
+    private static List<Field> instanceFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) fields.add(field);
+        }
+        return fields;
+    }
+
+    private static FieldAccessor accessor(Field field) {
+        return new FieldAccessor(field.getName(), field.getType(), getter(field));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(Field field) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Method method = publicGetter(field);
+        try {
+            if (method != null) {
+                MethodHandle handle = lookup.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(handle.type().wrap().returnType(), method.getDeclaringClass()));
+                return (Function<Object, Object>) site.getTarget().invoke();
+            }
+            field.setAccessible(true);
+            MethodHandle handle = lookup.unreflectGetter(field)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            return target -> {
+                try {
+                    return handle.invokeExact(target);
+                } catch (Throwable e) {
+                    throw new IllegalStateException("Ошибка чтения поля " + field.getName(), e);
+                }
+            };
+        } catch (Throwable e) {
+            throw new IllegalStateException("Не удалось построить доступ к полю " + field.getName(), e);
+        }
+    }
+
+    private static Method publicGetter(Field field) {
+        String suffix = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        for (String prefix : new String[]{"get", "is"}) {
+            try {
+                Method method = field.getDeclaringClass().getMethod(prefix + suffix);
+                if (method.getReturnType() == field.getType() && Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                    return method;
+                }
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,354 @@
+package com.general.network;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Асинхронный клиент сервера. Держит одно постоянное соединение и один поток с селектором,
+ * который читает и пишет в сокет. Запросы можно отправлять из любых потоков; по одному соединению
+ * одновременно выполняется любое количество запросов, а ответы сопоставляются запросам по идентификатору.
+ * <p>
+ * Будущие ответы завершаются в пуле {@code callbackExecutor}, а не в потоке селектора,
+ * поэтому обработчики ответов не задерживают ввод-вывод.
+ */
+public class AsyncTCPClient implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger("AsyncTCPClient");
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    private final InetSocketAddress address;
+    private final Duration connectTimeout;
+    private final Duration requestTimeout;
+    private final Executor callbackExecutor;
+
+    private final AtomicLong nextRequestId = new AtomicLong();
+    private final Map<Long, CompletableFuture<Response>> pending = new ConcurrentHashMap<>();
+    private final Queue<Outgoing> outgoing = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean writeRequested = new AtomicBoolean();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private final FrameDecoder frameDecoder = new FrameDecoder();
+
+    private volatile String login;
+    private volatile String password;
+    private volatile boolean closed;
+    private Selector selector;
+    private SocketChannel channel;
+    private Thread selectorThread;
+
+    /**
+     * Создает клиент с таймаутами по умолчанию.
+     *
+     * @param host адрес сервера
+     * @param port порт сервера
+     */
+    public AsyncTCPClient(String host, int port) {
+        this(host, port, DEFAULT_CONNECT_TIMEOUT, DEFAULT_REQUEST_TIMEOUT, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param host             адрес сервера
+     * @param port             порт сервера
+     * @param connectTimeout   время ожидания подключения
+     * @param requestTimeout   время ожидания ответа по умолчанию
+     * @param callbackExecutor пул, в котором завершаются будущие ответы
+     */
+    public AsyncTCPClient(String host, int port, Duration connectTimeout, Duration requestTimeout, Executor callbackExecutor) {
+        this.address = new InetSocketAddress(host, port);
+        this.connectTimeout = connectTimeout;
+        this.requestTimeout = requestTimeout;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Задает логин и пароль, которые подставляются в запросы без собственных учетных данных.
+     *
+     * @param login    логин
+     * @param password пароль
+     */
+    public void setCredentials(String login, String password) {
+        this.login = login;
+        this.password = password;
+    }
+
+    /**
+     * Подключается к серверу и запускает поток селектора.
+     *
+     * @throws IOException      если подключиться не удалось
+     * @throws TimeoutException если время подключения истекло
+     */
+    public synchronized void connect() throws IOException, TimeoutException {
+        if (selectorThread != null) throw new IllegalStateException("Клиент уже подключался");
+        selector = Selector.open();
+        channel = SocketChannel.open();
+        channel.configureBlocking(false);
+
+        CompletableFuture<Void> connected = new CompletableFuture<>();
+        try {
+            if (channel.connect(address)) {
+                channel.register(selector, SelectionKey.OP_READ);
+                connected.complete(null);
+            } else {
+                channel.register(selector, SelectionKey.OP_CONNECT);
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        selectorThread = new Thread(() -> loop(connected), "tcp-client-" + threadCounter.incrementAndGet());
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+
+        try {
+            connected.get(connectTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            close();
+            throw new TimeoutException("Не удалось подключиться в течение " + connectTimeout.toSeconds() + " секунд");
+        } catch (ExecutionException e) {
+            close();
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw new IOException("Подключение прервано");
+        }
+    }
+
+    /**
+     * @return true, если соединение установлено и не закрыто
+     */
+    public boolean isConnected() {
+        SocketChannel channel = this.channel;
+        return !closed && channel != null && channel.isConnected();
+    }
+
+    /**
+     * @return количество запросов, ожидающих ответа
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Отправляет запрос с таймаутом по умолчанию.
+     *
+     * @param request запрос
+     * @return будущий ответ; завершается с {@link TimeoutException}, если ответ не пришел вовремя,
+     * или с {@link IOException}, если соединение разорвано
+     */
+    public CompletableFuture<Response> send(Request request) {
+        return send(request, requestTimeout);
+    }
+
+    /**
+     * Отправляет запрос.
+     *
+     * @param request запрос
+     * @param timeout время ожидания ответа
+     * @return будущий ответ
+     */
+    public CompletableFuture<Response> send(Request request, Duration timeout) {
+        long requestId = nextRequestId.incrementAndGet();
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        ByteBuffer frame;
+        try {
+            frame = encode(requestId, request);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        pending.put(requestId, future);
+        future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((response, throwable) -> pending.remove(requestId));
+        enqueue(new Outgoing(frame, null));
+        if (closed) {
+            future.completeExceptionally(new IOException("Соединение с сервером закрыто"));
+        }
+        return future;
+    }
+
+    /**
+     * Отправляет запрос, на который не ожидается ответа.
+     *
+     * @param request запрос
+     * @return будущее, которое завершается, когда запрос полностью записан в сокет
+     */
+    public CompletableFuture<Void> sendOneWay(Request request) {
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        try {
+            enqueue(new Outgoing(encode(nextRequestId.incrementAndGet(), request), written));
+        } catch (IOException e) {
+            written.completeExceptionally(e);
+        }
+        if (closed) {
+            written.completeExceptionally(new IOException("Соединение с сервером закрыто"));
+        }
+        return written;
+    }
+
+    /**
+     * Закрывает соединение. Все ожидающие запросы завершаются с ошибкой.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Selector selector = this.selector;
+        if (selector != null) selector.wakeup();
+        if (selectorThread == null || !selectorThread.isAlive()) {
+            closeChannel();
+            failAll(new IOException("Соединение с сервером закрыто"));
+        }
+    }
+
+    private ByteBuffer encode(long requestId, Request request) throws IOException {
+        String login = this.login;
+        if (login != null && request.getLogin() == null) {
+            request.setLogin(login);
+            request.setPassword(password);
+        }
+        return FrameEncoder.encode(requestId, request);
+    }
+
+    private void enqueue(Outgoing message) {
+        outgoing.add(message);
+        if (writeRequested.compareAndSet(false, true)) {
+            Selector selector = this.selector;
+            if (selector != null) selector.wakeup();
+        }
+    }
+
+    /**
+     * Цикл потока селектора: подключение, чтение ответов и запись накопленных запросов.
+     */
+    private void loop(CompletableFuture<Void> connected) {
+        IOException failure = new IOException("Соединение с сервером закрыто");
+        try {
+            while (!closed) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isConnectable() && channel.finishConnect()) {
+                        key.interestOps(SelectionKey.OP_READ);
+                        connected.complete(null);
+                        writeRequested.set(true);
+                    }
+                    if (key.isValid() && key.isReadable()) read();
+                    if (key.isValid() && key.isWritable()) flush(key);
+                }
+                if (connected.isDone() && writeRequested.getAndSet(false)) {
+                    flush(channel.keyFor(selector));
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+            connected.completeExceptionally(e);
+            if (!closed) logger.warn("Соединение с сервером разорвано: {}", e.getMessage());
+        } finally {
+            closed = true;
+            closeChannel();
+            failAll(failure);
+        }
+    }
+
+    private void read() throws IOException {
+        int bytesRead;
+        while ((bytesRead = channel.read(readBuffer)) > 0) {
+            readBuffer.flip();
+            for (byte[] frame : frameDecoder.decode(readBuffer)) {
+                complete(frame);
+            }
+            readBuffer.clear();
+        }
+        if (bytesRead == -1) {
+            throw new EOFException("Сервер закрыл соединение");
+        }
+    }
+
+    private void complete(byte[] frame) throws IOException {
+        CompletableFuture<Response> future = pending.remove(FrameDecoder.requestIdOf(frame));
+        if (future == null) return; // Ответ на запрос, время ожидания которого истекло
+        callbackExecutor.execute(() -> {
+            try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(frame,
+                    FrameDecoder.REQUEST_ID_LENGTH, frame.length - FrameDecoder.REQUEST_ID_LENGTH))) {
+                future.complete((Response) objectInputStream.readObject());
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                future.completeExceptionally(e);
+            }
+        });
+    }
+
+    private void flush(SelectionKey key) throws IOException {
+        Outgoing message;
+        while ((message = outgoing.peek()) != null) {
+            channel.write(message.buffer);
+            if (message.buffer.hasRemaining()) {
+                // Сокет заполнен: допишем, когда он снова станет доступен для записи
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+            outgoing.poll();
+            if (message.written != null) message.written.complete(null);
+        }
+        key.interestOps(SelectionKey.OP_READ);
+    }
+
+    private void closeChannel() {
+        try {
+            if (channel != null) channel.close();
+            if (selector != null) selector.close();
+        } catch (IOException e) {
+            logger.warn("Ошибка при закрытии соединения: {}", e.getMessage());
+        }
+    }
+
+    private void failAll(IOException cause) {
+        for (Long requestId : pending.keySet()) {
+            CompletableFuture<Response> future = pending.remove(requestId);
+            if (future != null) future.completeExceptionally(cause);
+        }
+        Outgoing message;
+        while ((message = outgoing.poll()) != null) {
+            if (message.written != null) message.written.completeExceptionally(cause);
+        }
+    }
+
+    private static class Outgoing {
+        private final ByteBuffer buffer;
+        private final CompletableFuture<Void> written;
+
+        Outgoing(ByteBuffer buffer, CompletableFuture<Void> written) {
+            this.buffer = buffer;
+            this.written = written;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.general.network;
+
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Собирает кадры протокола из потока байтов. Каждый кадр - это длина тела (4 байта, big-endian)
+ * и тело указанной длины. Декодер хранит незавершенный кадр между вызовами, поэтому данные
+ * можно подавать порциями любого размера.
+ * <p>
+ * Тело кадра с запросом или ответом начинается с идентификатора запроса (8 байт), за которым следует
+ * сериализованный объект. Сервер возвращает ответ с идентификатором запроса, поэтому по одному соединению
+ * может одновременно выполняться несколько запросов, а ответы могут приходить в любом порядке.
+ * Идентификатор передается в кадре, а не в объекте, поэтому один и тот же объект ответа
+ * (например, из кеша) можно отправлять разным клиентам без копирования.
+ */
+public class FrameDecoder {
+    /**
+     * Размер заголовка кадра в байтах.
+     */
+    public static final int HEADER_LENGTH = Integer.BYTES;
+
+    /**
+     * Размер идентификатора запроса в начале тела кадра.
+     */
+    public static final int REQUEST_ID_LENGTH = Long.BYTES;
+
+    /**
+     * Максимальная допустимая длина тела кадра.
+     */
+    public static final int MAX_FRAME_LENGTH = 64 << 20;
+
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+    private byte[] body;
+    private int filled;
+
+    /**
+     * Читает все доступные байты из буфера и возвращает полностью собранные тела кадров.
+     *
+     * @param input буфер, готовый для чтения
+     * @return тела собранных кадров в порядке получения (возможно, пустой список)
+     * @throws StreamCorruptedException если длина кадра некорректна
+     */
+    public List<byte[]> decode(ByteBuffer input) throws StreamCorruptedException {
+        List<byte[]> frames = new ArrayList<>(1);
+        while (input.hasRemaining()) {
+            if (body == null) {
+                while (header.hasRemaining() && input.hasRemaining()) header.put(input.get());
+                if (header.hasRemaining()) break;
+                int length = header.getInt(0);
+                header.clear();
+                if (length < 0 || length > MAX_FRAME_LENGTH) {
+                    throw new StreamCorruptedException("Некорректная длина кадра: " + length);
+                }
+                body = new byte[length];
+                filled = 0;
+            }
+            int count = Math.min(body.length - filled, input.remaining());
+            input.get(body, filled, count);
+            filled += count;
+            if (filled == body.length) {
+                frames.add(body);
+                body = null;
+            }
+        }
+        return frames;
+    }
+
+    /**
+     * Оборачивает сериализованный объект в кадр с идентификатором запроса.
+     *
+     * @param requestId  идентификатор запроса
+     * @param serialized сериализованный объект
+     * @return буфер с заголовком и телом, готовый для записи
+     */
+    public static ByteBuffer encode(long requestId, byte[] serialized) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_LENGTH + REQUEST_ID_LENGTH + serialized.length);
+        frame.putInt(REQUEST_ID_LENGTH + serialized.length).putLong(requestId).put(serialized);
+        return frame.flip();
+    }
+
+    /**
+     * Возвращает идентификатор запроса из тела кадра.
+     *
+     * @param frame тело кадра
+     * @return идентификатор запроса
+     * @throws StreamCorruptedException если кадр слишком короткий
+     */
+    public static long requestIdOf(byte[] frame) throws StreamCorruptedException {
+        if (frame.length < REQUEST_ID_LENGTH) {
+            throw new StreamCorruptedException("Кадр не содержит идентификатор запроса");
+        }
+        return ByteBuffer.wrap(frame, 0, REQUEST_ID_LENGTH).getLong();
+    }
+
+    /**
+     * Оборачивает тело в кадр.
+     *
+     * @param payload тело кадра
+     * @return буфер с заголовком и телом, готовый для записи
+     */
+    public static ByteBuffer encode(byte[] payload) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_LENGTH + payload.length);
+        frame.putInt(payload.length).put(payload);
+        return frame.flip();
+    }
+}
@@ -0,0 +1,77 @@
+package com.general.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Кодирует запросы и ответы в кадры протокола (см. {@link FrameDecoder}): объект сериализуется стандартной
+ * сериализацией Java, перед ним записываются длина тела и идентификатор запроса.
+ * <p>
+ * Каждый поток сериализует в собственный переиспользуемый буфер, в котором место под заголовок зарезервировано
+ * заранее, поэтому буфер не растет заново на каждое сообщение, а кадр собирается одним копированием в массив
+ * точного размера. Кадр принадлежит вызывающему и может ждать отправки сколько угодно.
+ * Кодировщик общий для клиента, сервера и бенчмарков.
+ */
+public final class FrameEncoder {
+    private static final ThreadLocal<ReusableOutputStream> BUFFERS = ThreadLocal.withInitial(ReusableOutputStream::new);
+
+    private FrameEncoder() {
+    }
+
+    /**
+     * Сериализует объект и упаковывает его в кадр.
+     *
+     * @param requestId идентификатор запроса
+     * @param message   запрос или ответ
+     * @return буфер с заголовком и телом, готовый для записи
+     * @throws IOException если объект не удалось сериализовать
+     */
+    public static ByteBuffer encode(long requestId, Serializable message) throws IOException {
+        ReusableOutputStream buffer = BUFFERS.get();
+        buffer.reset();
+        try {
+            try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(buffer)) {
+                objectOutputStream.writeObject(message);
+            }
+            return buffer.toFrame(requestId);
+        } finally {
+            buffer.trim();
+        }
+    }
+
+    /**
+     * Буфер сериализации, переиспользуемый потоком между сообщениями.
+     * Сразу резервирует место под заголовок кадра.
+     */
+    private static class ReusableOutputStream extends ByteArrayOutputStream {
+        private static final int RESERVED = FrameDecoder.HEADER_LENGTH + FrameDecoder.REQUEST_ID_LENGTH;
+        private static final int INITIAL_SIZE = 4096;
+        private static final int MAX_RETAINED = 1 << 20;
+
+        ReusableOutputStream() {
+            super(INITIAL_SIZE);
+            count = RESERVED;
+        }
+
+        @Override
+        public synchronized void reset() {
+            count = RESERVED;
+        }
+
+        ByteBuffer toFrame(long requestId) {
+            ByteBuffer.wrap(buf, 0, RESERVED).putInt(count - FrameDecoder.HEADER_LENGTH).putLong(requestId);
+            return ByteBuffer.wrap(Arrays.copyOf(buf, count));
+        }
+
+        /**
+         * Не держит в памяти слишком большой буфер после крупного сообщения.
+         */
+        void trim() {
+            if (buf.length > MAX_RETAINED) buf = new byte[INITIAL_SIZE];
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.general.network;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Скрипт, разобранный клиентом в набор готовых запросов и отправляемый на сервер одним запросом.
+ * Для каждого запроса хранится исходная строка скрипта, чтобы результаты можно было сопоставить строкам.
+ */
+public class ScriptBatch implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> lines = new ArrayList<>();
+    private final List<Request> requests = new ArrayList<>();
+    private final boolean atomic;
+
+    /**
+     * @param atomic выполнять скрипт атомарно: без чужих изменений между командами и до первой ошибки
+     */
+    public ScriptBatch(boolean atomic) {
+        this.atomic = atomic;
+    }
+
+    /**
+     * Добавляет команду скрипта.
+     *
+     * @param line    исходная строка скрипта
+     * @param request запрос, построенный по строке
+     */
+    public void add(String line, Request request) {
+        lines.add(line);
+        requests.add(request);
+    }
+
+    public List<String> getLines() {
+        return lines;
+    }
+
+    public List<Request> getRequests() {
+        return requests;
+    }
+
+    public boolean isAtomic() {
+        return atomic;
+    }
+
+    public int size() {
+        return requests.size();
+    }
+}
@@ -49,6 +49,14 @@ public abstract class Sendable implements Serializable {
     @Getter
     protected Integer userId;
 
+    /**
+     * Ключ идемпотентности запроса, если применимо. Повторный запрос с тем же ключом
+     * не выполняется заново, а получает ответ на первый запрос.
+     */
+    @Getter
+    @Setter
+    protected String idempotencyKey;
+
     /**
      * Создает объект, который может быть отправлен с указанным статусом успешности, сообщением и данными.
      *
@@ -0,0 +1,212 @@
+package com.general.network;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Текст, накапливаемый в списке массивов символов фиксированного размера.
+ * <p>
+ * Используется как данные ответа для больших текстовых результатов: текст дописывается без перевыделения
+ * одного большого буфера, а при сериализации куски кодируются в UTF-8 прямо в поток объекта,
+ * минуя построение строк.
+ */
+public class TextChunks implements Serializable {
+    private static final long serialVersionUID = 2L;
+    private static final int CHUNK_SIZE = 8192;
+
+    private transient List<char[]> chunks = new ArrayList<>();
+    private transient char[] current;
+    private transient int position;
+    private transient int length;
+
+    /**
+     * Дописывает символ.
+     *
+     * @param c символ
+     * @return этот же объект
+     */
+    public TextChunks append(char c) {
+        ensureChunk();
+        current[position++] = c;
+        length++;
+        return this;
+    }
+
+    /**
+     * Дописывает фрагмент последовательности символов.
+     *
+     * @param text  последовательность символов
+     * @param start начало фрагмента (включительно)
+     * @param end   конец фрагмента (не включительно)
+     * @return этот же объект
+     */
+    public TextChunks append(CharSequence text, int start, int end) {
+        while (start < end) {
+            ensureChunk();
+            int count = Math.min(end - start, CHUNK_SIZE - position);
+            if (text instanceof String string) {
+                string.getChars(start, start + count, current, position);
+            } else if (text instanceof StringBuilder builder) {
+                builder.getChars(start, start + count, current, position);
+            } else {
+                for (int i = 0; i < count; i++) current[position + i] = text.charAt(start + i);
+            }
+            position += count;
+            length += count;
+            start += count;
+        }
+        return this;
+    }
+
+    /**
+     * Дописывает строку.
+     *
+     * @param text строка
+     * @return этот же объект
+     */
+    public TextChunks append(String text) {
+        return append(text, 0, text.length());
+    }
+
+    /**
+     * Дописывает десятичную запись числа, не создавая строку.
+     *
+     * @param value число
+     * @return этот же объект
+     */
+    public TextChunks append(long value) {
+        if (value == Long.MIN_VALUE) return append(Long.toString(value));
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) divisor *= 10;
+        for (; divisor > 0; divisor /= 10) append((char) ('0' + value / divisor % 10));
+        return this;
+    }
+
+    /**
+     * Дописывает символ указанное количество раз.
+     *
+     * @param c     символ
+     * @param count количество повторений
+     * @return этот же объект
+     */
+    public TextChunks repeat(char c, int count) {
+        for (int i = 0; i < count; i++) append(c);
+        return this;
+    }
+
+    /**
+     * @return количество символов
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Удаляет последний символ, если он совпадает с заданным.
+     *
+     * @param c символ
+     */
+    public void trimTrailing(char c) {
+        if (length == 0) return;
+        if (position == 0) {
+            // Последний кусок пуст: последний символ - в конце предыдущего
+            chunks.remove(chunks.size() - 1);
+            current = chunks.get(chunks.size() - 1);
+            position = current.length;
+        }
+        if (current[position - 1] == c) {
+            position--;
+            length--;
+        }
+    }
+
+    /**
+     * Записывает текст в приемник без построения промежуточной строки.
+     *
+     * @param out приемник текста
+     * @throws IOException если приемник не может принять текст
+     */
+    public void writeTo(Appendable out) throws IOException {
+        for (char[] chunk : chunks) {
+            int size = chunk == current ? position : chunk.length;
+            for (int i = 0; i < size; i++) out.append(chunk[i]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder(length);
+        for (char[] chunk : chunks) {
+            result.append(chunk, 0, chunk == current ? position : chunk.length);
+        }
+        return result.toString();
+    }
+
+    private void ensureChunk() {
+        if (current == null || position == CHUNK_SIZE) {
+            current = new char[CHUNK_SIZE];
+            chunks.add(current);
+            position = 0;
+        }
+    }
+
+    // Каждый кусок записывается как длина в байтах и символы в UTF-8 (по одному символу UTF-16 на 1-3 байта)
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(chunks.size());
+        byte[] bytes = new byte[CHUNK_SIZE * 3];
+        for (char[] chunk : chunks) {
+            int size = chunk == current ? position : chunk.length;
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                char c = chunk[i];
+                if (c < 0x80) {
+                    bytes[count++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[count++] = (byte) (0xC0 | c >> 6);
+                    bytes[count++] = (byte) (0x80 | c & 0x3F);
+                } else {
+                    bytes[count++] = (byte) (0xE0 | c >> 12);
+                    bytes[count++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    bytes[count++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+            out.writeInt(count);
+            out.write(bytes, 0, count);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        chunks = new ArrayList<>();
+        int chunkCount = in.readInt();
+        byte[] bytes = new byte[CHUNK_SIZE * 3];
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int count = in.readInt();
+            if (count < 0 || count > bytes.length) throw new StreamCorruptedException("Неверная длина куска текста: " + count);
+            in.readFully(bytes, 0, count);
+            int i = 0;
+            while (i < count) {
+                int b = bytes[i++] & 0xFF;
+                if (b < 0x80) {
+                    append((char) b);
+                } else if (b < 0xE0) {
+                    if (i >= count) throw new StreamCorruptedException("Обрезанный символ в тексте");
+                    append((char) ((b & 0x1F) << 6 | bytes[i++] & 0x3F));
+                } else {
+                    if (i + 1 >= count) throw new StreamCorruptedException("Обрезанный символ в тексте");
+                    append((char) ((b & 0x0F) << 12 | (bytes[i++] & 0x3F) << 6 | bytes[i++] & 0x3F));
+                }
+            }
+        }
+    }
+}
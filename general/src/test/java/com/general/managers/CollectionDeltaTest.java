@@ -0,0 +1,67 @@
+package com.general.managers;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Проверки передачи изменений коллекции ее копии.
+ */
+public class CollectionDeltaTest extends TestCase {
+
+    private static List<String> names(CollectionManager<Item> manager) {
+        List<String> names = new ArrayList<>();
+        for (Item item : manager.getCollection()) names.add(item.getName());
+        names.sort(null);
+        return names;
+    }
+
+    public void testReplicaReceivesOnlyChangesAfterSnapshot() {
+        ItemManager server = new ItemManager();
+        server.addToCollection("", new Item(1, "alpha"));
+        server.addToCollection("", new Item(2, "beta"));
+
+        ItemManager replica = new ItemManager();
+        CollectionDelta<Item> delta = server.getChangesSince(0, -1);
+        assertTrue(delta.isFull());
+        replica.applyDelta(delta);
+        assertEquals(names(server), names(replica));
+
+        server.updateInCollection(new Item(1, "gamma"));
+        server.removeFromCollection(server.getById(2L), "");
+        server.addToCollection("", new Item(3, "delta"));
+
+        delta = server.getChangesSince(delta.getEpoch(), delta.getVersion());
+        assertFalse(delta.isFull());
+        assertEquals(4, delta.getChanges().size());
+        replica.applyDelta(delta);
+        assertEquals(List.of("delta", "gamma"), names(replica));
+        assertEquals("delta", replica.getByNamePrefix("de", false, 0).get(0).getName());
+
+        delta = server.getChangesSince(delta.getEpoch(), delta.getVersion());
+        assertFalse(delta.isFull());
+        assertEquals(0, delta.size());
+    }
+
+    public void testSnapshotWhenVersionIsNotCovered() {
+        ItemManager server = new ItemManager();
+        server.addToCollection("", new Item(1, "alpha"));
+        long version = server.getVersion();
+
+        assertTrue(server.getChangesSince(server.getEpoch() + 1, version).isFull());
+        assertTrue(server.getChangesSince(server.getEpoch(), version + 1).isFull());
+
+        for (int i = 0; i < CollectionManager.CHANGE_LOG_CAPACITY; i++) {
+            server.addToCollection("", new Item(i + 2, "item" + i));
+        }
+        CollectionDelta<Item> delta = server.getChangesSince(server.getEpoch(), version);
+        assertFalse(delta.isFull());
+        assertEquals(CollectionManager.CHANGE_LOG_CAPACITY, delta.getChanges().size());
+
+        server.addToCollection("", new Item(0, "last"));
+        delta = server.getChangesSince(server.getEpoch(), version);
+        assertTrue(delta.isFull());
+        assertEquals(server.collectionSize(), delta.getElements().size());
+    }
+}
@@ -0,0 +1,105 @@
+package com.general.managers;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверки отката транзакций коллекции.
+ */
+public class CollectionManagerTransactionTest extends TestCase {
+
+    public void testRollbackRestoresCollectionAndIndexes() {
+        ItemManager manager = new ItemManager();
+        Item first = new Item(1, "alpha");
+        Item second = new Item(2, "beta");
+        manager.addToCollection("", first);
+        manager.addToCollection("", second);
+
+        manager.beginTransaction();
+        manager.removeFromCollection(first, "");
+        manager.updateInCollection(new Item(2, "gamma"));
+        manager.addToCollection("", new Item(3, "delta"));
+        manager.sortCollection();
+        assertEquals(2, manager.collectionSize());
+        manager.rollbackTransaction();
+
+        assertFalse(manager.isWriteLocked());
+        assertEquals(2, manager.collectionSize());
+        assertSame(first, manager.getById(1L));
+        assertSame(second, manager.getById(2L));
+        assertNull(manager.getById(3L));
+        assertSame(first, manager.getMin());
+        assertEquals(1, manager.getByNamePrefix("be", false, 0).size());
+        assertTrue(manager.getByNamePrefix("gam", false, 0).isEmpty());
+    }
+
+    public void testBatchRemovalUpdatesIndexesAndRollsBack() {
+        ItemManager manager = new ItemManager();
+        Item first = new Item(1, "alpha");
+        Item second = new Item(2, "beta");
+        Item third = new Item(3, "gamma");
+        manager.addToCollection("", first);
+        manager.addToCollection("", second);
+        manager.addToCollection("", third);
+
+        manager.beginTransaction();
+        assertEquals(2, manager.removeAllFromCollection(manager.getGreaterThan(first), ""));
+        assertEquals(1, manager.collectionSize());
+        assertNull(manager.getById(2L));
+        assertFalse(manager.checkExist(3L));
+        assertSame(first, manager.getMin());
+        manager.rollbackTransaction();
+
+        assertEquals(3, manager.collectionSize());
+        assertSame(second, manager.getById(2L));
+        assertSame(third, manager.getById(3L));
+        assertEquals(List.of(second, third), manager.getGreaterThan(first));
+    }
+
+    public void testCommitKeepsChanges() {
+        ItemManager manager = new ItemManager();
+        manager.beginTransaction();
+        manager.addToCollection("", new Item(1, "alpha"));
+        manager.commitTransaction();
+        manager.beginTransaction();
+        manager.rollbackTransaction();
+
+        assertEquals(1, manager.collectionSize());
+    }
+
+    public void testReadersAreNotBlockedByOpenTransaction() throws Exception {
+        ItemManager manager = new ItemManager();
+        Item first = new Item(1, "alpha");
+        manager.addToCollection("", first);
+        long version = manager.getVersion();
+
+        manager.beginTransaction();
+        manager.addToCollection("", new Item(2, "beta"));
+        manager.removeFromCollection(first, "");
+        assertEquals(1, manager.collectionSize());
+        assertNull(manager.getById(1L));
+
+        // Другой поток читает зафиксированную коллекцию, не дожидаясь конца транзакции
+        CompletableFuture<Boolean> reader = CompletableFuture.supplyAsync(() -> {
+            if (!manager.readLock().tryLock()) return false;
+            try {
+                return manager.collectionSize() == 1 && manager.getById(1L) == first && manager.getById(2L) == null
+                        && manager.getChangesSince(manager.getEpoch(), version).size() == 0;
+            } finally {
+                manager.readLock().unlock();
+            }
+        });
+        assertTrue(reader.get(5, TimeUnit.SECONDS));
+        assertEquals(version, manager.getVersion());
+
+        manager.commitTransaction();
+        assertEquals(version + 2, manager.getVersion());
+        assertEquals(2, manager.getChangesSince(manager.getEpoch(), version).size());
+        CompletableFuture<Boolean> afterCommit = CompletableFuture.supplyAsync(
+                () -> manager.getById(1L) == null && manager.getById(2L) != null && manager.collectionSize() == 1);
+        assertTrue(afterCommit.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,86 @@
+package com.general.managers;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Проверки перезагрузки коллекции из источника данных.
+ */
+public class CollectionReloadTest extends TestCase {
+
+    public void testReadersSeeOldCollectionUntilSwap() throws Exception {
+        ItemManager manager = new ItemManager();
+        Item old = new Item(1, "old", 10);
+        manager.addToCollection("", old);
+        manager.source = List.of(new Item(2, "beta", 3), new Item(3, "alpha", 5));
+        manager.fetching = new CountDownLatch(1);
+        manager.release = new CountDownLatch(1);
+        long version = manager.getVersion();
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reloader = new Thread(() -> {
+            try {
+                manager.reload();
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        reloader.start();
+        assertTrue(manager.fetching.await(5, TimeUnit.SECONDS));
+
+        assertEquals(1, manager.collectionSize());
+        assertSame(old, manager.getById(1L));
+        assertSame(old, manager.getMin());
+        assertEquals(10.0, manager.getAggregate("size").sum().doubleValue(), 0.0);
+
+        manager.release.countDown();
+        reloader.join(5000);
+        assertNull(failure.get());
+
+        assertEquals(2, manager.collectionSize());
+        assertNull(manager.getById(1L));
+        assertEquals("alpha", manager.getMin().getName());
+        assertEquals(8.0, manager.getAggregate("size").sum().doubleValue(), 0.0);
+        assertEquals(1, manager.getByNamePrefix("be", false, 0).size());
+        assertTrue(manager.getVersion() > version);
+        assertTrue(manager.getChangesSince(manager.getEpoch(), version).isFull());
+        assertNotNull(manager.getLastInitTime());
+    }
+
+    public void testFailedFetchKeepsCollection() {
+        ItemManager manager = new ItemManager();
+        manager.addToCollection("", new Item(1, "alpha", 1));
+        manager.source = null;
+        try {
+            manager.reload();
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        assertTrue(manager.writerLock().tryLock());
+        manager.writerLock().unlock();
+        assertEquals(1, manager.collectionSize());
+    }
+
+    public void testRollbackRestoresPreviousCollection() {
+        ItemManager manager = new ItemManager();
+        Item first = new Item(1, "alpha", 4);
+        manager.addToCollection("", first);
+        manager.source = List.of(new Item(2, "beta", 7));
+
+        manager.beginTransaction();
+        manager.reload();
+        manager.addToCollection("", new Item(3, "gamma", 1));
+        assertEquals(2, manager.collectionSize());
+        manager.rollbackTransaction();
+
+        assertEquals(1, manager.collectionSize());
+        assertSame(first, manager.getById(1L));
+        assertSame(first, manager.getMin());
+        assertEquals(4.0, manager.getAggregate("size").sum().doubleValue(), 0.0);
+        assertTrue(manager.getByNamePrefix("gam", false, 0).isEmpty());
+    }
+}
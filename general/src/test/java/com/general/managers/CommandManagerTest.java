@@ -0,0 +1,73 @@
+package com.general.managers;
+
+import com.general.command.AsyncCommand;
+import com.general.command.Command;
+import com.general.network.Request;
+import com.general.network.Response;
+import junit.framework.TestCase;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Проверки асинхронной обработки команд.
+ */
+public class CommandManagerTest extends TestCase {
+
+    public void testAsyncCommandRunsOnExecutorAndErrorsBecomeResponses() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "test-worker"));
+        try {
+            CommandManager commandManager = new CommandManager();
+            commandManager.register("where", new AsyncCommand("where", "", executor) {
+                @Override
+                public Response execute(Request request) {
+                    if (request.getData() != null) throw new IllegalStateException("сбой");
+                    return new Response(true, Thread.currentThread().getName());
+                }
+            });
+
+            Response response = commandManager.handleAsync(new Request("where", null)).get();
+            assertTrue(response.isSuccess());
+            assertEquals("test-worker", response.getMessage());
+
+            Response failure = commandManager.handleAsync(new Request("where", "x")).get();
+            assertFalse(failure.isSuccess());
+            assertEquals("сбой", failure.getMessage());
+
+            assertFalse(commandManager.handleAsync(new Request("missing", null)).get().isSuccess());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testReadOnlyRejectsMutatingCommands() throws Exception {
+        CommandManager commandManager = new CommandManager();
+        commandManager.register("read", new Command("read", "") {
+            @Override
+            public boolean isReadOnly() {
+                return true;
+            }
+
+            @Override
+            public Response execute(Request request) {
+                return new Response(true, "read");
+            }
+        });
+        commandManager.register("write", new Command("write", "") {
+            @Override
+            public Response execute(Request request) {
+                return new Response(true, "write");
+            }
+        });
+        commandManager.setReadOnly("только чтение");
+
+        assertTrue(commandManager.handle(new Request("read", null)).isSuccess());
+        Response rejected = commandManager.handleAsync(new Request("write", null)).get();
+        assertFalse(rejected.isSuccess());
+        assertEquals("только чтение", rejected.getMessage());
+        assertFalse(commandManager.handle(new Request("write", null)).isSuccess());
+
+        commandManager.setReadOnly(null);
+        assertTrue(commandManager.handle(new Request("write", null)).isSuccess());
+    }
+}
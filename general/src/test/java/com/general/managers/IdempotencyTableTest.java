@@ -0,0 +1,37 @@
+package com.general.managers;
+
+import com.general.network.Response;
+import junit.framework.TestCase;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Проверки таблицы ключей идемпотентности.
+ */
+public class IdempotencyTableTest extends TestCase {
+
+    public void testRepeatedKeyGetsOriginalUntilExpired() {
+        AtomicLong now = new AtomicLong();
+        IdempotencyTable table = new IdempotencyTable(10, 1000, now::get);
+        CompletableFuture<Response> first = new CompletableFuture<>();
+
+        assertNull(table.putIfAbsent("user\u0000k", first));
+        assertSame(first, table.putIfAbsent("user\u0000k", new CompletableFuture<>()));
+        assertNull(table.putIfAbsent("other\u0000k", new CompletableFuture<>()));
+
+        now.set(1000 * 1_000_000L);
+        assertNull(table.putIfAbsent("user\u0000k", new CompletableFuture<>()));
+    }
+
+    public void testBoundedByCapacity() {
+        IdempotencyTable table = new IdempotencyTable(2, 60_000);
+        CompletableFuture<Response> first = new CompletableFuture<>();
+        table.putIfAbsent("a", first);
+        table.putIfAbsent("b", new CompletableFuture<>());
+        table.putIfAbsent("c", new CompletableFuture<>());
+
+        assertEquals(2, table.size());
+        assertNull(table.putIfAbsent("a", new CompletableFuture<>()));
+    }
+}
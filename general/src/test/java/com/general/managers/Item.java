@@ -0,0 +1,40 @@
+package com.general.managers;
+
+import com.general.models.base.Element;
+
+/**
+ * Элемент коллекции для тестов менеджеров: упорядочен по имени, имеет числовое поле для агрегатов.
+ */
+class Item extends Element implements Comparable<Item> {
+    private final String name;
+    private final int size;
+
+    Item(long id, String name) {
+        this(id, name, 0);
+    }
+
+    Item(long id, String name, int size) {
+        this.name = name;
+        this.size = size;
+        setId(id);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean validate() {
+        return true;
+    }
+
+    @Override
+    public int compareTo(Item other) {
+        return name.compareTo(other.name);
+    }
+}
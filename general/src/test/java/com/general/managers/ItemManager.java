@@ -0,0 +1,51 @@
+package com.general.managers;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Менеджер коллекции {@link Item} для тестов. Источником данных служит список {@link #source};
+ * если он равен null, источник недоступен. Если заданы {@link #fetching} и {@link #release},
+ * чтение источника сообщает о начале и ждет разрешения продолжить.
+ */
+class ItemManager extends CollectionManager<Item> {
+    volatile Collection<Item> source = List.of();
+    volatile CountDownLatch fetching;
+    volatile CountDownLatch release;
+
+    ItemManager() {
+        registerAggregate("size", Item::getSize);
+    }
+
+    @Override
+    protected Collection<Item> createCollection() {
+        return new PriorityQueue<>();
+    }
+
+    @Override
+    protected void loadCollection() {
+        setCollection(source);
+    }
+
+    @Override
+    protected Collection<Item> fetchCollection() {
+        if (fetching != null) {
+            fetching.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (source == null) throw new IllegalStateException("база данных недоступна");
+        return source;
+    }
+
+    @Override
+    protected Long getId(Item element) {
+        return element.getId();
+    }
+}
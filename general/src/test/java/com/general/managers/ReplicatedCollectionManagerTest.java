@@ -0,0 +1,119 @@
+package com.general.managers;
+
+import com.general.network.Response;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Проверки синхронизации копии коллекции с источником.
+ */
+public class ReplicatedCollectionManagerTest extends TestCase {
+
+    /**
+     * Копия, которая запрашивает изменения у источника в том же процессе.
+     */
+    private static class ItemReplica extends ReplicatedCollectionManager<Item> {
+        ItemManager source;
+        final List<Long[]> cursors = new ArrayList<>();
+
+        ItemReplica(ItemManager source) {
+            this.source = source;
+        }
+
+        @Override
+        protected Response requestChanges(Long[] cursor) {
+            cursors.add(cursor);
+            CollectionDelta<Item> delta = cursor == null
+                    ? source.getChangesSince(source.getEpoch(), -1)
+                    : source.getChangesSince(cursor[0], cursor[1]);
+            return new Response(true, null, delta);
+        }
+    }
+
+    private static List<String> names(CollectionManager<Item> manager) {
+        List<String> names = new ArrayList<>();
+        for (Item item : manager.getCollection()) names.add(item.getName());
+        names.sort(null);
+        return names;
+    }
+
+    public void testSnapshotThenChanges() {
+        ItemManager source = new ItemManager();
+        source.addToCollection("", new Item(1, "alpha"));
+        source.addToCollection("", new Item(2, "beta"));
+        ItemReplica replica = new ItemReplica(source);
+
+        assertTrue(replica.sync().isSuccess());
+        assertNull(replica.cursors.get(0));
+        assertEquals(List.of("alpha", "beta"), names(replica));
+        assertNotNull(replica.getLastInitTime());
+        assertEquals(source.getVersion(), replica.getSourceVersion());
+
+        source.updateInCollection(new Item(1, "gamma"));
+        source.removeFromCollection(source.getById(2L), "");
+        source.addToCollection("", new Item(3, "delta"));
+        source.updateInCollection(new Item(3, "epsilon"));
+        assertTrue(replica.sync().isSuccess());
+
+        assertEquals(List.of("epsilon", "gamma"), names(replica));
+        assertEquals("epsilon", replica.getById(3L).getName());
+        assertNull(replica.getById(2L));
+        assertEquals(1, replica.getByNamePrefix("eps", false, 0).size());
+        assertEquals(source.getVersion(), replica.getSourceVersion());
+    }
+
+    public void testNewEpochForcesSnapshot() {
+        ItemManager source = new ItemManager();
+        source.addToCollection("", new Item(1, "alpha"));
+        ItemReplica replica = new ItemReplica(source);
+        replica.sync();
+
+        // Источник перезапущен: версии начинаются заново в новой эпохе
+        ItemManager restarted = new ItemManager();
+        restarted.addToCollection("", new Item(2, "beta"));
+        replica.source = restarted;
+        assertTrue(replica.sync().isSuccess());
+
+        assertEquals(List.of("beta"), names(replica));
+        assertEquals(restarted.getEpoch(), replica.getSourceEpoch());
+        assertEquals(restarted.getVersion(), replica.getSourceVersion());
+    }
+
+    public void testGapBeyondChangeLogForcesSnapshot() {
+        ItemManager source = new ItemManager();
+        source.addToCollection("", new Item(1, "alpha"));
+        ItemReplica replica = new ItemReplica(source);
+        replica.sync();
+
+        for (int i = 0; i <= CollectionManager.CHANGE_LOG_CAPACITY; i++) {
+            source.addToCollection("", new Item(i + 2, "item" + i));
+        }
+        source.removeFromCollection(source.getById(1L), "");
+        assertTrue(replica.sync().isSuccess());
+        assertNotNull(replica.cursors.get(1));
+
+        assertEquals(source.collectionSize(), replica.collectionSize());
+        assertNull(replica.getById(1L));
+        assertEquals(names(source), names(replica));
+        assertEquals(source.getVersion(), replica.getSourceVersion());
+    }
+
+    public void testReloadRequestsSnapshot() {
+        ItemManager source = new ItemManager();
+        source.addToCollection("", new Item(1, "alpha"));
+        ItemReplica replica = new ItemReplica(source);
+        replica.sync();
+        source.addToCollection("", new Item(2, "beta"));
+
+        replica.reload();
+
+        assertNull(replica.cursors.get(1));
+        assertEquals(List.of("alpha", "beta"), names(replica));
+        assertEquals(source.getVersion(), replica.getSourceVersion());
+        CollectionDelta<?> delta = (CollectionDelta<?>) replica.sync().getData();
+        assertFalse(delta.isFull());
+        assertEquals(0, delta.size());
+    }
+}
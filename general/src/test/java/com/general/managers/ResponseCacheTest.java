@@ -0,0 +1,76 @@
+package com.general.managers;
+
+import com.general.network.Response;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Проверки кеша ответов команд.
+ */
+public class ResponseCacheTest extends TestCase {
+
+    public void testArrayArgumentsComparedByContent() {
+        ResponseCache cache = new ResponseCache(4);
+        cache.put(new ResponseCache.Key("filter", new String[]{"filter", "a"}, null, 1), new Response(true, "ok"));
+
+        assertEquals("ok", cache.get(new ResponseCache.Key("filter", new String[]{"filter", "a"}, null, 1)).getMessage());
+        assertNull(cache.get(new ResponseCache.Key("filter", new String[]{"filter", "b"}, null, 1)));
+        assertNull(cache.get(new ResponseCache.Key("filter", new String[]{"filter", "a"}, null, 2)));
+    }
+
+    public void testNullArgumentsAreCached() {
+        ResponseCache cache = new ResponseCache(4);
+        cache.put(new ResponseCache.Key("show", new String[]{"show", null}, null, 1), new Response(true, "ok"));
+
+        assertEquals("ok", cache.get(new ResponseCache.Key("show", new String[]{"show", null}, null, 1)).getMessage());
+        assertNull(cache.get(new ResponseCache.Key("show", new String[]{"show", "a"}, null, 1)));
+    }
+
+    public void testEntriesAreSeparatedByUser() {
+        ResponseCache cache = new ResponseCache(4);
+        cache.put(new ResponseCache.Key("mine", null, "alice", 1), new Response(true, "alice"));
+
+        assertEquals("alice", cache.get(new ResponseCache.Key("mine", null, "alice", 1)).getMessage());
+        assertNull(cache.get(new ResponseCache.Key("mine", null, "bob", 1)));
+        assertNull(cache.get(new ResponseCache.Key("mine", null, null, 1)));
+    }
+
+    public void testCallersCannotChangeCachedResponse() {
+        ResponseCache cache = new ResponseCache(4);
+        ResponseCache.Key key = new ResponseCache.Key("filter", null, null, 1);
+        List<String> results = new ArrayList<>(List.of("a", "b"));
+        Response original = new Response(true, "ok", results);
+        original.setLogin("alice");
+        cache.put(key, original);
+        results.add("c");
+
+        Response first = cache.get(key);
+        assertNotSame(first, cache.get(key));
+        assertNull(first.getLogin());
+        first.setLogin("bob");
+        assertNull(cache.get(key).getLogin());
+        assertEquals(List.of("a", "b"), first.getData());
+        try {
+            ((List<?>) first.getData()).clear();
+            fail("данные ответа из кеша не должны меняться");
+        } catch (UnsupportedOperationException expected) {
+            assertEquals(2, ((List<?>) cache.get(key).getData()).size());
+        }
+    }
+
+    public void testEvictsLeastRecentlyUsed() {
+        ResponseCache cache = new ResponseCache(2);
+        ResponseCache.Key first = new ResponseCache.Key("info", null, null, 1);
+        ResponseCache.Key second = new ResponseCache.Key("show", null, null, 1);
+        cache.put(first, new Response(true, "1"));
+        cache.put(second, new Response(true, "2"));
+        cache.get(first);
+        cache.put(new ResponseCache.Key("help", null, null, 1), new Response(true, "3"));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+    }
+}
@@ -0,0 +1,80 @@
+package com.general.managers.index;
+
+import junit.framework.TestCase;
+
+/**
+ * Проверки инкрементальных агрегатов поля.
+ */
+public class FieldAggregateTest extends TestCase {
+
+    public void testIntegralFieldKeepsExactLongSum() {
+        FieldAggregate<Integer> aggregate = new FieldAggregate<>("value", value -> value);
+        aggregate.added(Integer.MAX_VALUE);
+        aggregate.added(Integer.MAX_VALUE);
+        aggregate.added(3);
+
+        assertEquals(3, aggregate.count());
+        assertEquals(2L * Integer.MAX_VALUE + 3, aggregate.sum());
+        assertEquals(3L, aggregate.min());
+        assertEquals((long) Integer.MAX_VALUE, aggregate.max());
+    }
+
+    public void testRemovingExtremesUpdatesMinAndMax() {
+        FieldAggregate<Integer> aggregate = new FieldAggregate<>("value", value -> value);
+        aggregate.added(5);
+        aggregate.added(1);
+        aggregate.added(1);
+        aggregate.added(9);
+
+        aggregate.removed(1);
+        assertEquals(1L, aggregate.min());
+        aggregate.removed(1);
+        assertEquals(5L, aggregate.min());
+        aggregate.removed(9);
+        assertEquals(5L, aggregate.max());
+        assertEquals(5.0, aggregate.mean());
+    }
+
+    public void testNullValuesAreIgnored() {
+        FieldAggregate<Float> aggregate = new FieldAggregate<>("value", value -> value);
+        aggregate.added(null);
+        aggregate.added(1.5f);
+        aggregate.added(2.5f);
+
+        assertEquals(2, aggregate.count());
+        assertEquals(4.0, aggregate.sum());
+        assertEquals(2.0, aggregate.mean());
+
+        aggregate.cleared();
+        assertEquals(0, aggregate.count());
+        assertNull(aggregate.min());
+        assertNull(aggregate.mean());
+    }
+
+    public void testLargeLongsKeepExactMinAndMax() {
+        FieldAggregate<Long> aggregate = new FieldAggregate<>("value", value -> value);
+        long big = (1L << 53) + 1;
+        aggregate.added(big);
+        aggregate.added(big + 2);
+        aggregate.added(Long.MAX_VALUE);
+        aggregate.removed(Long.MAX_VALUE);
+
+        assertEquals(big, aggregate.min());
+        assertEquals(big + 2, aggregate.max());
+        assertEquals(2 * big + 2, aggregate.sum());
+    }
+
+    public void testFractionalSumDoesNotDriftAfterRemovals() {
+        FieldAggregate<Double> aggregate = new FieldAggregate<>("value", value -> value);
+        aggregate.added(0.3);
+        for (int i = 0; i < 10_000; i++) {
+            aggregate.added(0.1 * i + 1e10);
+            aggregate.removed(0.1 * i + 1e10);
+        }
+        aggregate.added(Double.NaN);
+
+        assertEquals(1, aggregate.count());
+        assertEquals(0.3, aggregate.sum());
+        assertEquals(0.3, aggregate.max());
+    }
+}
@@ -0,0 +1,48 @@
+package com.general.managers.index;
+
+import com.general.models.base.Element;
+import junit.framework.TestCase;
+
+import java.util.List;
+
+/**
+ * Проверки поиска по префиксу имени.
+ */
+public class NameIndexTest extends TestCase {
+
+    private static Element named(long id, String name) {
+        Element element = new Element() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public boolean validate() {
+                return true;
+            }
+        };
+        element.setId(id);
+        return element;
+    }
+
+    public void testPrefixRangeWithLimitAndCase() {
+        NameIndex<Element> index = new NameIndex<>();
+        Element first = named(1, "Flat");
+        Element second = named(2, "flat 2");
+        Element duplicate = named(3, "Flat");
+        index.added(first);
+        index.added(second);
+        index.added(duplicate);
+        index.added(named(4, "Fla"));
+        index.added(named(5, "House"));
+
+        assertEquals(List.of(first, duplicate), index.startingWith("Flat", false, 0));
+        assertEquals(3, index.startingWith("flat", true, 0).size());
+        assertEquals(2, index.startingWith("FL", true, 2).size());
+
+        index.removed(duplicate);
+        assertEquals(List.of(first), index.startingWith("Flat", false, 0));
+        assertTrue(index.startingWith("Garage", true, 0).isEmpty());
+    }
+}
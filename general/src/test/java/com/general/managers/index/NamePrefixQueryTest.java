@@ -0,0 +1,35 @@
+package com.general.managers.index;
+
+import com.general.exceptions.WrongAmountOfElementsException;
+import junit.framework.TestCase;
+
+/**
+ * Проверки разбора аргументов filter_starts_with_name.
+ */
+public class NamePrefixQueryTest extends TestCase {
+
+    public void testFlagsBeforePrefix() throws Exception {
+        NamePrefixQuery query = NamePrefixQuery.parse("-i -l 5 my flat");
+        assertTrue(query.isIgnoreCase());
+        assertEquals(5, query.getLimit());
+        assertEquals("my flat", query.getPrefix());
+    }
+
+    public void testPrefixLooksLikeFlag() throws Exception {
+        assertEquals("-ivan", NamePrefixQuery.parse("-ivan").getPrefix());
+        NamePrefixQuery escaped = NamePrefixQuery.parse("-i -- -l 5");
+        assertTrue(escaped.isIgnoreCase());
+        assertEquals(0, escaped.getLimit());
+        assertEquals("-l 5", escaped.getPrefix());
+    }
+
+    public void testMissingPrefix() {
+        for (String arguments : new String[]{"-i", "-l 3", "--", "-l 0 flat"}) {
+            try {
+                NamePrefixQuery.parse(arguments);
+                fail(arguments);
+            } catch (WrongAmountOfElementsException expected) {
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.general.managers.stats;
+
+import junit.framework.TestCase;
+
+/**
+ * Проверки гистограммы задержек.
+ */
+public class LatencyHistogramTest extends TestCase {
+
+    public void testBucketsCoverValuesContiguously() {
+        long previousHighest = -1;
+        for (int index = 0; index < 40 * 32; index++) {
+            long lowest = previousHighest + 1;
+            long highest = LatencyHistogram.highestValueOf(index);
+            assertEquals(index, LatencyHistogram.indexOf(lowest));
+            assertEquals(index, LatencyHistogram.indexOf(highest));
+            previousHighest = highest;
+        }
+        assertEquals(LatencyHistogram.indexOf(Long.MAX_VALUE), 59 * 32 - 1);
+    }
+
+    public void testPercentilesWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) histogram.record(value * 1000);
+
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000_000, histogram.max());
+        assertEquals(50_000_000, histogram.percentile(50), 50_000_000 * 0.04);
+        assertEquals(99_000_000, histogram.percentile(99), 99_000_000 * 0.04);
+        assertEquals(99_900_000, histogram.percentile(99.9), 99_900_000 * 0.04);
+        assertEquals(100_000_000, histogram.percentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(99));
+    }
+}
@@ -0,0 +1,47 @@
+package com.general.managers.stats;
+
+import junit.framework.TestCase;
+
+/**
+ * Проверки статистики сервера и начала отсчета для отчета.
+ */
+public class StatsRegistryTest extends TestCase {
+
+    public void testResetKeepsCountersGrowing() {
+        StatsRegistry statistics = new StatsRegistry();
+        statistics.recordCommand("show", 1_000_000, true);
+        statistics.recordCommand("show", 2_000_000, false);
+        statistics.recordStage(RequestStage.EXECUTE, 5_000_000);
+
+        statistics.reset();
+        assertEquals(2, statistics.getCommandLatency("show").count());
+        assertEquals(1, statistics.getCommandErrors("show"));
+        assertEquals(1, statistics.getStageLatency(RequestStage.EXECUTE).count());
+
+        statistics.recordCommand("show", 3_000, false);
+        statistics.recordCommand("info", 4_000, true);
+        assertEquals(3, statistics.getCommandLatency("show").count());
+        assertEquals(2, statistics.getCommandErrors("show"));
+    }
+
+    public void testSinceResetContainsOnlyNewMeasurements() {
+        StatsRegistry statistics = new StatsRegistry();
+        statistics.recordCommand("show", 50_000_000, false);
+        statistics.recordCommand("clear", 1_000, true);
+        statistics.recordStage(RequestStage.EXECUTE, 50_000_000);
+        statistics.reset();
+
+        statistics.recordCommand("show", 3_000, true);
+        statistics.recordStage(RequestStage.EXECUTE, 3_000);
+        StatsRegistry since = statistics.sinceReset();
+
+        assertEquals(1, since.getCommandLatency("show").count());
+        assertEquals(0, since.getCommandErrors("show"));
+        assertNull(since.getCommandLatency("clear"));
+        LatencyHistogram execute = since.getStageLatency(RequestStage.EXECUTE);
+        assertEquals(1, execute.count());
+        assertEquals(3_000, execute.sum());
+        assertTrue(execute.max() >= 3_000 && execute.max() < 3_200);
+        assertFalse(statistics.format().contains("clear"));
+    }
+}
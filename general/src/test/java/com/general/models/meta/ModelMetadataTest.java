@@ -0,0 +1,61 @@
+package com.general.models.meta;
+
+import com.general.models.Coordinates;
+import com.general.models.Flat;
+import com.general.models.House;
+import com.general.models.View;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Проверки метаданных моделей и функций чтения полей.
+ */
+public class ModelMetadataTest extends TestCase {
+
+    /**
+     * Модель без геттеров: поля читаются через {@link java.lang.invoke.MethodHandle}.
+     */
+    private static class Plain {
+        private static final int IGNORED = 1;
+        private final int size;
+        private final String label;
+
+        Plain(int size, String label) {
+            this.size = size;
+            this.label = label;
+        }
+    }
+
+    private static Flat flat(House house) {
+        Flat flat = new Flat(7, "Дом у моря", new Coordinates(1L, 2f), 50, 2, 3, 9.5f, View.STREET, house);
+        flat.setUsername("alice");
+        return flat;
+    }
+
+    public void testColumnsStartWithIdThenOwnThenInheritedFields() {
+        List<String> names = Arrays.asList(ModelMetadata.of(Flat.class).getNames());
+
+        assertEquals("id", names.get(0));
+        assertEquals("name", names.get(1));
+        assertEquals("username", names.get(names.size() - 1));
+        assertEquals(ModelMetadata.of(Flat.class).size(), names.size());
+        assertSame(ModelMetadata.of(Flat.class), ModelMetadata.of(Flat.class));
+    }
+
+    public void testReadsFieldsWithAndWithoutGetters() {
+        Flat flat = flat(null);
+        ModelMetadata metadata = ModelMetadata.of(Flat.class);
+        int height = Arrays.asList(metadata.getNames()).indexOf("height");
+        assertEquals(7L, metadata.get(flat, 0));
+        assertEquals(3, metadata.get(flat, height));
+        assertEquals(int.class, metadata.getAccessors().get(height).getType());
+        assertNull(metadata.get(flat, Arrays.asList(metadata.getNames()).indexOf("house")));
+
+        ModelMetadata plain = ModelMetadata.of(Plain.class);
+        assertEquals(Arrays.asList("size", "label"), Arrays.asList(plain.getNames()));
+        assertEquals(5, plain.get(new Plain(5, "x"), 0));
+        assertEquals("x", plain.get(new Plain(5, "x"), 1));
+    }
+}
@@ -0,0 +1,104 @@
+package com.general.network;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Проверки асинхронного клиента на простом сервере, отвечающем на пачку запросов в обратном порядке.
+ */
+public class AsyncTCPClientTest extends TestCase {
+
+    public void testManyInFlightRequestsMatchedById() throws Exception {
+        int count = 50;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            Thread server = new Thread(() -> serveReversed(serverSocket, count));
+            server.start();
+
+            try (AsyncTCPClient client = new AsyncTCPClient("localhost", serverSocket.getLocalPort(),
+                    Duration.ofSeconds(5), Duration.ofSeconds(5), ForkJoinPool.commonPool())) {
+                client.connect();
+                List<CompletableFuture<Response>> responses = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    responses.add(client.send(new Request("echo", "запрос " + i)));
+                }
+                for (int i = 0; i < count; i++) {
+                    assertEquals("запрос " + i, responses.get(i).get(5, TimeUnit.SECONDS).getMessage());
+                }
+                assertEquals(0, client.getPendingCount());
+            }
+            server.join(5000);
+        }
+    }
+
+    public void testTimeoutAndDisconnectFailPendingRequests() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            AsyncTCPClient client = new AsyncTCPClient("localhost", serverSocket.getLocalPort(),
+                    Duration.ofSeconds(5), Duration.ofMillis(100), ForkJoinPool.commonPool());
+            client.connect();
+            try (Socket ignored = serverSocket.accept()) {
+                try {
+                    client.send(new Request("echo", null)).get(5, TimeUnit.SECONDS);
+                    fail();
+                } catch (ExecutionException expected) {
+                    assertTrue(expected.getCause() instanceof TimeoutException);
+                }
+                CompletableFuture<Response> pending = client.send(new Request("echo", null), Duration.ofSeconds(30));
+                client.close();
+                try {
+                    pending.get(5, TimeUnit.SECONDS);
+                    fail();
+                } catch (ExecutionException expected) {
+                    assertTrue(expected.getCause() instanceof IOException);
+                }
+            }
+        }
+    }
+
+    private static void serveReversed(ServerSocket serverSocket, int count) {
+        try (Socket socket = serverSocket.accept()) {
+            DataInputStream input = new DataInputStream(socket.getInputStream());
+            List<Long> ids = new ArrayList<>();
+            List<String> messages = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                byte[] frame = new byte[input.readInt()];
+                input.readFully(frame);
+                ids.add(FrameDecoder.requestIdOf(frame));
+                try (ObjectInputStream objectInput = new ObjectInputStream(new ByteArrayInputStream(frame,
+                        FrameDecoder.REQUEST_ID_LENGTH, frame.length - FrameDecoder.REQUEST_ID_LENGTH))) {
+                    messages.add((String) ((Request) objectInput.readObject()).getData());
+                }
+            }
+            Collections.reverse(ids);
+            Collections.reverse(messages);
+            OutputStream output = socket.getOutputStream();
+            for (int i = 0; i < count; i++) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream objectOutput = new ObjectOutputStream(bytes)) {
+                    objectOutput.writeObject(new Response(true, messages.get(i)));
+                }
+                output.write(FrameDecoder.encode(ids.get(i), bytes.toByteArray()).array());
+            }
+            output.flush();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.general.network;
+
+import junit.framework.TestCase;
+
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Проверки сборки кадров протокола.
+ */
+public class FrameDecoderTest extends TestCase {
+
+    public void testFramesSplitAcrossReadsAndGluedTogether() throws Exception {
+        byte[] first = "первый".getBytes();
+        byte[] second = new byte[10_000];
+        Arrays.fill(second, (byte) 7);
+        ByteBuffer stream = ByteBuffer.allocate(2 * FrameDecoder.HEADER_LENGTH + first.length + second.length);
+        stream.put(FrameDecoder.encode(first)).put(FrameDecoder.encode(second)).flip();
+
+        FrameDecoder decoder = new FrameDecoder();
+        List<byte[]> frames = new ArrayList<>();
+        // Подаем данные порциями по 3 байта, разрезая и заголовки, и тела
+        while (stream.hasRemaining()) {
+            ByteBuffer chunk = stream.slice(stream.position(), Math.min(3, stream.remaining()));
+            stream.position(stream.position() + chunk.remaining());
+            frames.addAll(decoder.decode(chunk));
+        }
+
+        assertEquals(2, frames.size());
+        assertTrue(Arrays.equals(first, frames.get(0)));
+        assertTrue(Arrays.equals(second, frames.get(1)));
+    }
+
+    public void testRejectsNegativeLength() {
+        try {
+            new FrameDecoder().decode(ByteBuffer.allocate(4).putInt(-1).flip());
+            fail();
+        } catch (StreamCorruptedException expected) {
+        }
+    }
+}
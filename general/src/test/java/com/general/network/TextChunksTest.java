@@ -0,0 +1,52 @@
+package com.general.network;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Проверки текста из кусков фиксированного размера.
+ */
+public class TextChunksTest extends TestCase {
+    private static final int CHUNK_SIZE = 8192;
+
+    public void testTrimTrailingAcrossChunkBoundary() {
+        TextChunks text = new TextChunks();
+        text.repeat('a', CHUNK_SIZE - 1).append('\n');
+        text.trimTrailing('\n');
+        text.trimTrailing('\n');
+        assertEquals(CHUNK_SIZE - 1, text.length());
+
+        text.append('\n').append('b');
+        text.trimTrailing('b');
+        text.trimTrailing('\n');
+        assertEquals(CHUNK_SIZE - 1, text.length());
+        text.append("cd");
+        assertEquals("a".repeat(CHUNK_SIZE - 1) + "cd", text.toString());
+    }
+
+    public void testAppendLong() {
+        TextChunks text = new TextChunks();
+        text.append(0L).append(' ').append(-42L).append(' ').append(Long.MAX_VALUE).append(' ').append(Long.MIN_VALUE);
+        assertEquals("0 -42 " + Long.MAX_VALUE + " " + Long.MIN_VALUE, text.toString());
+    }
+
+    public void testSerializationKeepsText() throws Exception {
+        TextChunks text = new TextChunks();
+        String row = "Квартира | 120.5 | € | 🏠 |\n";
+        for (int i = 0; i < 2000; i++) text.append(row);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(text);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            TextChunks copy = (TextChunks) in.readObject();
+            assertEquals(text.length(), copy.length());
+            assertEquals(text.toString(), copy.toString());
+        }
+    }
+}
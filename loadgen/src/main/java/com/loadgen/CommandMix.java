@@ -0,0 +1,88 @@
+package com.loadgen;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Набор команд нагрузки с весами. Задается строкой вида {@code show=40,filter_starts_with_name=30,add=20,update=10}.
+ */
+public class CommandMix {
+    private final Map<String, Integer> weights;
+    private final List<String> commands = new ArrayList<>();
+    private final int[] cumulative;
+    private final int total;
+
+    private CommandMix(Map<String, Integer> weights) {
+        this.weights = Collections.unmodifiableMap(weights);
+        this.cumulative = new int[weights.size()];
+        int sum = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            sum += entry.getValue();
+            cumulative[commands.size()] = sum;
+            commands.add(entry.getKey());
+        }
+        this.total = sum;
+    }
+
+    /**
+     * Разбирает набор команд.
+     *
+     * @param spec строка вида {@code команда=вес,команда=вес}
+     * @return набор команд
+     * @throws IllegalArgumentException если строка некорректна, команда не поддерживается или вес не положителен
+     */
+    public static CommandMix parse(String spec) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] commandAndWeight = part.trim().split("=", 2);
+            String command = commandAndWeight[0].trim();
+            if (!SimulatedUser.SUPPORTED_COMMANDS.contains(command)) {
+                throw new IllegalArgumentException("Команда не поддерживается генератором нагрузки: " + command);
+            }
+            int weight;
+            try {
+                weight = commandAndWeight.length > 1 ? Integer.parseInt(commandAndWeight[1].trim()) : 1;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Некорректный вес команды " + command);
+            }
+            if (weight <= 0) throw new IllegalArgumentException("Вес команды " + command + " должен быть положительным");
+            weights.merge(command, weight, Integer::sum);
+        }
+        return new CommandMix(weights);
+    }
+
+    /**
+     * Выбирает следующую команду с вероятностью, пропорциональной ее весу.
+     *
+     * @param random генератор случайных чисел
+     * @return имя команды
+     */
+    public String next(Random random) {
+        int point = random.nextInt(total);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (point < cumulative[i]) return commands.get(i);
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * @return веса команд в порядке их задания
+     */
+    public Map<String, Integer> getWeights() {
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        return sb.toString();
+    }
+}
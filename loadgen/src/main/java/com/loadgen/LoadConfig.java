@@ -0,0 +1,81 @@
+package com.loadgen;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Параметры запуска генератора нагрузки.
+ */
+@Getter
+public class LoadConfig {
+    public static final String USAGE = String.join("\n",
+            "Использование: loadgen [параметры]",
+            "  --host <адрес>        адрес сервера (localhost)",
+            "  --port <порт>         порт сервера (28374)",
+            "  --users <N>           количество одновременных пользователей, у каждого свое соединение (10)",
+            "  --rate <N>            суммарная частота запросов в секунду, не зависящая от ответов сервера (100)",
+            "  --duration <сек>      длительность измерения (30)",
+            "  --warmup <сек>        длительность прогрева, результаты которого не учитываются (5)",
+            "  --timeout <сек>       время ожидания ответа (10)",
+            "  --mix <команды>       набор команд с весами (" + LoadConfig.DEFAULT_MIX + ")",
+            "  --poisson             случайные (пуассоновские) интервалы между запросами вместо равных",
+            "  --seed <N>            начальное значение генератора случайных чисел для повторяемости (1)",
+            "  --json <файл>         записать отчет в JSON");
+    public static final String DEFAULT_MIX = "show=40,filter_starts_with_name=30,add=20,update=10";
+
+    private String host = "localhost";
+    private int port = 28374;
+    private int users = 10;
+    private double rate = 100;
+    private Duration duration = Duration.ofSeconds(30);
+    private Duration warmup = Duration.ofSeconds(5);
+    private Duration timeout = Duration.ofSeconds(10);
+    private CommandMix mix = CommandMix.parse(DEFAULT_MIX);
+    private boolean poisson;
+    private long seed = 1;
+    private Path jsonReport;
+
+    /**
+     * Разбирает аргументы командной строки.
+     *
+     * @param args аргументы
+     * @return параметры запуска
+     * @throws IllegalArgumentException если аргументы некорректны
+     */
+    public static LoadConfig parse(String[] args) {
+        LoadConfig config = new LoadConfig();
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--poisson")) {
+                config.poisson = true;
+                continue;
+            }
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Не указано значение параметра " + option);
+            String value = args[++i];
+            try {
+                switch (option) {
+                    case "--host" -> config.host = value;
+                    case "--port" -> config.port = Integer.parseInt(value);
+                    case "--users" -> config.users = Integer.parseInt(value);
+                    case "--rate" -> config.rate = Double.parseDouble(value);
+                    case "--duration" -> config.duration = Duration.ofSeconds(Long.parseLong(value));
+                    case "--warmup" -> config.warmup = Duration.ofSeconds(Long.parseLong(value));
+                    case "--timeout" -> config.timeout = Duration.ofSeconds(Long.parseLong(value));
+                    case "--mix" -> config.mix = CommandMix.parse(value);
+                    case "--seed" -> config.seed = Long.parseLong(value);
+                    case "--json" -> config.jsonReport = Path.of(value);
+                    default -> throw new IllegalArgumentException("Неизвестный параметр " + option);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Некорректное значение параметра " + option + ": " + value);
+            }
+        }
+        if (config.users <= 0 || config.rate <= 0 || config.duration.isZero() || config.duration.isNegative()
+                || config.warmup.isNegative() || config.timeout.isZero() || config.timeout.isNegative()) {
+            throw new IllegalArgumentException("Количество пользователей, частота, длительность и время ожидания должны быть положительными");
+        }
+        return config;
+    }
+}
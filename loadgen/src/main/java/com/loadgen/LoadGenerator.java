@@ -0,0 +1,141 @@
+package com.loadgen;
+
+import com.general.network.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Генератор нагрузки на сервер.
+ * <p>
+ * Запросы отправляются по расписанию с заданной суммарной частотой независимо от того, успел ли сервер ответить
+ * на предыдущие (открытая модель нагрузки), и распределяются по моделируемым пользователям по очереди.
+ * Каждый пользователь держит собственное соединение, на котором одновременно может выполняться
+ * любое количество запросов.
+ */
+public class LoadGenerator {
+    private static final Logger logger = LoggerFactory.getLogger("LoadGenerator");
+
+    private final LoadConfig config;
+
+    public LoadGenerator(LoadConfig config) {
+        this.config = config;
+    }
+
+    public static void main(String[] args) {
+        LoadConfig config;
+        try {
+            config = LoadConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+        try {
+            LoadReport report = new LoadGenerator(config).run();
+            System.out.println(report.format());
+            if (config.getJsonReport() != null) {
+                Files.writeString(config.getJsonReport(), report.toJson());
+                System.out.println("Отчет записан в " + config.getJsonReport());
+            }
+        } catch (IOException | TimeoutException e) {
+            System.err.println("Нагрузочный прогон не выполнен: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Подключает пользователей, выполняет прогрев и измерение и дожидается ответов на отправленные запросы.
+     *
+     * @return результаты прогона
+     * @throws IOException          если пользователь не смог подключиться
+     * @throws TimeoutException     если сервер не ответил при регистрации пользователя
+     * @throws InterruptedException если прогон прерван
+     */
+    public LoadReport run() throws IOException, TimeoutException, InterruptedException {
+        LoadReport report = new LoadReport(config);
+        Random random = new Random(config.getSeed());
+        ExecutorService callbacks = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        List<SimulatedUser> users = new ArrayList<>();
+        try {
+            String runId = Long.toString(System.currentTimeMillis(), 36);
+            for (int i = 0; i < config.getUsers(); i++) {
+                SimulatedUser user = new SimulatedUser(config, "lg-" + runId + "-" + i, new Random(random.nextLong()), callbacks);
+                users.add(user);
+                user.start();
+            }
+            logger.info("Подключено пользователей: {}", users.size());
+
+            AtomicInteger inFlight = new AtomicInteger();
+            AtomicLong lastResponseAt = new AtomicLong(Long.MIN_VALUE);
+            long intervalNanos = (long) (1e9 / config.getRate());
+            long start = System.nanoTime();
+            long measureFrom = start + config.getWarmup().toNanos();
+            long end = measureFrom + config.getDuration().toNanos();
+            long intended = start;
+            for (int next = 0; intended < end; next++) {
+                parkUntil(intended);
+                SimulatedUser user = users.get(next % users.size());
+                String command = config.getMix().next(random);
+                boolean measured = intended >= measureFrom;
+                long scheduledAt = intended;
+                if (measured) report.scheduled();
+                inFlight.incrementAndGet();
+                CompletableFuture<Response> response = user.execute(command);
+                response.whenComplete((result, throwable) -> {
+                    long completedAt = System.nanoTime();
+                    long latency = completedAt - scheduledAt;
+                    inFlight.decrementAndGet();
+                    if (!measured) return;
+                    lastResponseAt.accumulateAndGet(completedAt, Math::max);
+                    if (throwable == null) {
+                        report.recordResponse(command, latency, result.isSuccess());
+                    } else {
+                        Throwable cause = throwable.getCause() != null ? throwable.getCause() : throwable;
+                        report.recordFailure(cause instanceof TimeoutException);
+                    }
+                });
+                intended += config.isPoisson()
+                        ? (long) (-Math.log(1 - random.nextDouble()) * intervalNanos)
+                        : intervalNanos;
+            }
+
+            // Ждем ответов на уже отправленные запросы; дольше времени ожидания они не задержатся
+            long deadline = System.nanoTime() + config.getTimeout().toNanos() + Duration.ofSeconds(1).toNanos();
+            while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            // Измерение длится до последнего ответа: если сервер не успевал, ответы приходят после конца расписания
+            report.setElapsed(Duration.ofNanos(Math.max(end, lastResponseAt.get()) - measureFrom));
+            return report;
+        } finally {
+            users.forEach(SimulatedUser::close);
+            callbacks.shutdown();
+        }
+    }
+
+    private static void parkUntil(long deadline) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) throw new InterruptedException();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.loadgen;
+
+import com.general.managers.stats.LatencyHistogram;
+import com.general.managers.stats.StatsRegistry;
+import com.google.gson.GsonBuilder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Результаты нагрузочного прогона: пропускная способность и задержки по командам.
+ * <p>
+ * Задержка отсчитывается от момента, когда запрос должен был быть отправлен по расписанию, а не от фактической
+ * отправки, поэтому задержки на стороне генератора и очереди на сервере не скрываются (coordinated omission).
+ */
+public class LoadReport {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final LoadConfig config;
+    @Getter
+    private final StatsRegistry statistics = new StatsRegistry();
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder scheduled = new LongAdder();
+    private volatile Duration elapsed = Duration.ZERO;
+
+    public LoadReport(LoadConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Отмечает запрос, отправленный в измеряемый период.
+     */
+    public void scheduled() {
+        scheduled.increment();
+    }
+
+    /**
+     * Записывает ответ на запрос.
+     *
+     * @param command имя команды
+     * @param nanos   задержка от запланированного момента отправки
+     * @param success успешен ли ответ сервера
+     */
+    public void recordResponse(String command, long nanos, boolean success) {
+        statistics.recordCommand(command, nanos, success);
+        total.record(nanos);
+    }
+
+    /**
+     * Записывает запрос, на который не получен ответ.
+     *
+     * @param timeout true, если истекло время ожидания, false - если соединение разорвано
+     */
+    public void recordFailure(boolean timeout) {
+        if (timeout) timeouts.increment();
+        else failures.increment();
+    }
+
+    /**
+     * @param elapsed фактическая длительность измеряемого периода
+     */
+    public void setElapsed(Duration elapsed) {
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * @return количество полученных ответов в секунду
+     */
+    public double getThroughput() {
+        double seconds = elapsed.toNanos() / 1e9;
+        return seconds == 0 ? 0 : total.count() / seconds;
+    }
+
+    /**
+     * Формирует текстовый отчет.
+     *
+     * @return отчет
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Пользователей: %d, целевая частота: %.1f запросов/с, длительность: %.1f с%n",
+                config.getUsers(), config.getRate(), elapsed.toNanos() / 1e9));
+        sb.append(String.format("Запланировано: %d, ответов: %d, таймаутов: %d, обрывов: %d%n",
+                scheduled.sum(), total.count(), timeouts.sum(), failures.sum()));
+        sb.append(String.format("Пропускная способность: %.1f ответов/с%n", getThroughput()));
+        sb.append("Задержки (мс):\n");
+        sb.append(String.format("%-26s%10s%8s%10s%10s%10s%10s%10s%n", "", "ответы", "ошибки", "p50", "p90", "p99", "p999", "max"));
+        appendRow(sb, "все запросы", total, 0);
+        for (String command : statistics.getCommandNames()) {
+            appendRow(sb, command, statistics.getCommandLatency(command), statistics.getCommandErrors(command));
+        }
+        return sb.toString().stripTrailing();
+    }
+
+    /**
+     * Формирует отчет в формате JSON. Задержки указываются в миллисекундах.
+     *
+     * @return отчет в JSON
+     */
+    public String toJson() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("host", config.getHost());
+        parameters.put("port", config.getPort());
+        parameters.put("users", config.getUsers());
+        parameters.put("rate", config.getRate());
+        parameters.put("durationSeconds", elapsed.toNanos() / 1e9);
+        parameters.put("warmupSeconds", config.getWarmup().toSeconds());
+        parameters.put("arrivals", config.isPoisson() ? "poisson" : "uniform");
+        parameters.put("mix", config.getMix().getWeights());
+        parameters.put("seed", config.getSeed());
+        report.put("parameters", parameters);
+        report.put("scheduled", scheduled.sum());
+        report.put("responses", total.count());
+        report.put("timeouts", timeouts.sum());
+        report.put("failures", failures.sum());
+        report.put("throughput", getThroughput());
+        report.put("latency", latency(total, 0));
+        Map<String, Object> commands = new LinkedHashMap<>();
+        for (String command : statistics.getCommandNames()) {
+            commands.put(command, latency(statistics.getCommandLatency(command), statistics.getCommandErrors(command)));
+        }
+        report.put("commands", commands);
+        return new GsonBuilder().setPrettyPrinting().create().toJson(report);
+    }
+
+    private static void appendRow(StringBuilder sb, String name, LatencyHistogram histogram, long errors) {
+        sb.append(String.format("%-26s%10d%8d%10.3f%10.3f%10.3f%10.3f%10.3f%n", name, histogram.count(), errors,
+                millis(histogram.percentile(50)), millis(histogram.percentile(90)), millis(histogram.percentile(99)),
+                millis(histogram.percentile(99.9)), millis(histogram.max())));
+    }
+
+    private static Map<String, Object> latency(LatencyHistogram histogram, long errors) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("count", histogram.count());
+        latency.put("errors", errors);
+        latency.put("mean", millis(Math.round(histogram.mean())));
+        for (double percentile : PERCENTILES) {
+            latency.put("p" + (percentile == Math.floor(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                    millis(histogram.percentile(percentile)));
+        }
+        latency.put("max", millis(histogram.max()));
+        return latency;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
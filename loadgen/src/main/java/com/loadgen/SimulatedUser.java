@@ -0,0 +1,151 @@
+package com.loadgen;
+
+import com.general.models.Coordinates;
+import com.general.models.Flat;
+import com.general.models.House;
+import com.general.models.View;
+import com.general.network.AsyncTCPClient;
+import com.general.network.Request;
+import com.general.network.Response;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Deque;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Моделируемый пользователь: собственное соединение с сервером, собственная учетная запись
+ * и список добавленных им элементов, которые он может обновлять и удалять.
+ */
+public class SimulatedUser implements Closeable {
+    /**
+     * Команды, которые умеет отправлять пользователь.
+     */
+    public static final Set<String> SUPPORTED_COMMANDS = Set.of("add", "update", "remove_by_id", "show",
+            "filter_starts_with_name", "info", "sum_of_height", "group_counting_by_house");
+    static final String NAME_PREFIX = "load-";
+    private static final String PASSWORD = "loadgen-password";
+
+    @Getter
+    private final String login;
+    private final AsyncTCPClient client;
+    private final Deque<Long> ownIds = new ConcurrentLinkedDeque<>();
+    private final Random random;
+
+    /**
+     * @param config           параметры запуска
+     * @param login            логин пользователя
+     * @param random           генератор случайных чисел для содержимого элементов
+     * @param callbackExecutor пул, в котором завершаются ответы
+     */
+    public SimulatedUser(LoadConfig config, String login, Random random, Executor callbackExecutor) {
+        this.login = login;
+        this.random = random;
+        this.client = new AsyncTCPClient(config.getHost(), config.getPort(), config.getTimeout(),
+                config.getTimeout(), callbackExecutor);
+    }
+
+    /**
+     * Подключается к серверу и регистрирует пользователя. Если пользователь уже зарегистрирован
+     * предыдущим запуском, используются его учетные данные.
+     *
+     * @throws IOException      если подключиться не удалось или сервер не принял учетные данные
+     * @throws TimeoutException если сервер не ответил вовремя
+     */
+    public void start() throws IOException, TimeoutException {
+        client.connect();
+        Response registered = authenticate("register");
+        if (!registered.isSuccess()) {
+            Response loggedIn = authenticate("login");
+            if (!loggedIn.isSuccess()) {
+                throw new IOException("Пользователь " + login + " не зарегистрирован: " + registered.getMessage());
+            }
+        }
+        client.setCredentials(login, PASSWORD);
+    }
+
+    private Response authenticate(String command) throws IOException, TimeoutException {
+        Request request = new Request(command, null);
+        request.setLogin(login);
+        request.setPassword(PASSWORD);
+        try {
+            return client.send(request).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException timeout) throw timeout;
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Регистрация прервана");
+        }
+    }
+
+    /**
+     * Отправляет команду. Изменяющие команды работают только с элементами этого пользователя;
+     * если их еще нет, вместо обновления или удаления добавляется новый элемент.
+     *
+     * @param command имя команды
+     * @return будущий ответ сервера
+     */
+    public CompletableFuture<Response> execute(String command) {
+        switch (command) {
+            case "add" -> {
+                return add();
+            }
+            case "update" -> {
+                Long id = ownIds.peekLast();
+                if (id == null) return add();
+                Flat flat = randomFlat();
+                flat.setId(id);
+                flat.setUsername(login);
+                return client.send(new Request(command, flat));
+            }
+            case "remove_by_id" -> {
+                Long id = ownIds.pollFirst();
+                if (id == null) return add();
+                return client.send(new Request(command, id));
+            }
+            case "filter_starts_with_name" -> {
+                return client.send(new Request(command, new String[]{command, NAME_PREFIX + random.nextInt(10)}));
+            }
+            default -> {
+                return client.send(new Request(command, null));
+            }
+        }
+    }
+
+    /**
+     * @return количество запросов пользователя, ожидающих ответа
+     */
+    public int getPendingCount() {
+        return client.getPendingCount();
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+
+    private CompletableFuture<Response> add() {
+        return client.send(new Request("add", randomFlat())).thenApply(response -> {
+            if (response.isSuccess() && response.getData() instanceof Long id) ownIds.addLast(id);
+            return response;
+        });
+    }
+
+    private Flat randomFlat() {
+        Flat flat = new Flat(0, NAME_PREFIX + random.nextInt(10) + "-" + Integer.toHexString(random.nextInt()),
+                new Coordinates((long) random.nextInt(1000), random.nextFloat() * 100),
+                1 + random.nextInt(200), 1 + random.nextInt(5), 1 + random.nextInt(30),
+                1 + random.nextFloat() * 20, View.values()[random.nextInt(View.values().length)],
+                new House("Дом " + random.nextInt(100), 1900 + random.nextInt(125), 1L + random.nextInt(8), 1 + random.nextInt(4)));
+        flat.setUsername(login);
+        return flat;
+    }
+}
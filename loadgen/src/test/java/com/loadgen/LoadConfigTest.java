@@ -0,0 +1,62 @@
+package com.loadgen;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import junit.framework.TestCase;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Проверки разбора параметров генератора нагрузки и отчета.
+ */
+public class LoadConfigTest extends TestCase {
+
+    public void testParseArguments() {
+        LoadConfig config = LoadConfig.parse(new String[]{"--users", "4", "--rate", "250", "--duration", "3",
+                "--mix", "show=3,add=1", "--poisson", "--json", "report.json"});
+        assertEquals(4, config.getUsers());
+        assertEquals(250.0, config.getRate());
+        assertEquals(Duration.ofSeconds(3), config.getDuration());
+        assertTrue(config.isPoisson());
+        assertEquals("show=3,add=1", config.getMix().toString());
+        assertEquals("report.json", config.getJsonReport().toString());
+    }
+
+    public void testRejectsInvalidArguments() {
+        String[][] invalid = {{"--users", "0"}, {"--rate"}, {"--mix", "drop_table=1"}, {"--mix", "show=-1"}, {"--unknown", "1"}};
+        for (String[] args : invalid) {
+            try {
+                LoadConfig.parse(args);
+                fail(String.join(" ", args));
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    public void testMixFollowsWeights() {
+        CommandMix mix = CommandMix.parse("show=3,add=1");
+        Random random = new Random(1);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 40_000; i++) counts.merge(mix.next(random), 1, Integer::sum);
+        assertEquals(3.0, counts.get("show") / (double) counts.get("add"), 0.2);
+    }
+
+    public void testJsonReport() {
+        LoadConfig config = LoadConfig.parse(new String[]{"--mix", "show=1"});
+        LoadReport report = new LoadReport(config);
+        report.scheduled();
+        report.scheduled();
+        report.recordResponse("show", 2_000_000, true);
+        report.recordFailure(true);
+        report.setElapsed(Duration.ofSeconds(1));
+
+        JsonObject json = JsonParser.parseString(report.toJson()).getAsJsonObject();
+        assertEquals(2, json.get("scheduled").getAsInt());
+        assertEquals(1, json.get("timeouts").getAsInt());
+        assertEquals(1.0, json.get("throughput").getAsDouble());
+        assertEquals(2.0, json.getAsJsonObject("commands").getAsJsonObject("show").get("p50").getAsDouble(), 0.1);
+    }
+}
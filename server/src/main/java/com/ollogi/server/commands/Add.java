@@ -1,21 +1,23 @@
 package com.ollogi.server.commands;
 
-import com.general.command.Command;
+import com.general.command.AsyncCommand;
 import com.general.exceptions.WrongAmountOfElementsException;
 import com.general.managers.CollectionManager;
 import com.general.models.base.Element;
 import com.general.network.Request;
 import com.general.network.Response;
 
+import java.util.concurrent.Executor;
+
 /**
  * Команда 'add'. Добавляет новый элемент в коллекцию.
  */
 
-public class Add<T extends Element & Comparable<T>> extends Command {
+public class Add<T extends Element & Comparable<T>> extends AsyncCommand {
     private final CollectionManager<T> collectionManager;
 
-    public Add(CollectionManager<T> collectionManager) {
-        super("add {element}", "добавить новый элемент в коллекцию");
+    public Add(CollectionManager<T> collectionManager, Executor executor) {
+        super("add {element}", "добавить новый элемент в коллекцию", executor);
         this.collectionManager = collectionManager;
     }
 
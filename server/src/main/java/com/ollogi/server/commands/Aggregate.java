@@ -0,0 +1,70 @@
+package com.ollogi.server.commands;
+
+import com.general.command.Command;
+import com.general.exceptions.WrongAmountOfElementsException;
+import com.general.managers.CollectionManager;
+import com.general.managers.index.AggregateFunction;
+import com.general.managers.index.FieldAggregate;
+import com.general.network.Request;
+import com.general.network.Response;
+
+/**
+ * Команда 'aggregate'. Выводит агрегат (сумму, количество, минимум, максимум или среднее) числового поля элементов коллекции.
+ */
+public class Aggregate extends Command {
+    private final CollectionManager<?> collectionManager;
+
+    public Aggregate(CollectionManager<?> collectionManager) {
+        super("aggregate <field> <fn>", "вывести значение функции (" + AggregateFunction.names() + ") по числовому полю элементов коллекции");
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public boolean isUserIndependent() {
+        return true;
+    }
+
+    /**
+     * Выполняет команду
+     *
+     * @return Response с результатом выполнения команды.
+     */
+    @Override
+    public Response execute(Request request) {
+        try {
+            if (!(request.getData() instanceof String[] args) || args.length < 2) {
+                throw new WrongAmountOfElementsException();
+            }
+
+            String[] arguments = args[1].trim().split("\\s+");
+            if (arguments.length != 2) {
+                throw new WrongAmountOfElementsException();
+            }
+
+            FieldAggregate<?> aggregate = collectionManager.getAggregate(arguments[0]);
+            if (aggregate == null) {
+                return new Response(false, "Агрегаты для поля '" + arguments[0] + "' не поддерживаются. Доступные поля: "
+                        + String.join(", ", collectionManager.getAggregateFields()));
+            }
+
+            AggregateFunction function = AggregateFunction.parse(arguments[1]);
+            if (function == null) {
+                return new Response(false, "Неизвестная функция '" + arguments[1] + "'. Доступные функции: " + AggregateFunction.names());
+            }
+
+            Number value = function.apply(aggregate);
+            if (value == null) {
+                return new Response(false, "Коллекция пуста!");
+            }
+
+            return new Response(true, function.getTitle() + " значений поля " + aggregate.getField() + ": " + value);
+        } catch (WrongAmountOfElementsException exception) {
+            return new Response(false, "Неправильное количество аргументов! Правильное использование: '" + getName() + "'");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.ollogi.server.commands;
+
+import com.general.command.AsyncCommand;
+import com.general.command.Command;
+import com.general.managers.CommandManager;
+import com.general.network.Request;
+import com.general.network.Response;
+import com.general.network.ScriptBatch;
+import com.ollogi.server.managers.TransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Команда 'execute_script'. Выполняет скрипт, присланный клиентом одним запросом,
+ * и возвращает результат для каждой строки.
+ */
+public class ExecuteScript extends AsyncCommand {
+    private static final Set<String> UNSUPPORTED = Set.of("execute_script", "transaction", "exit");
+
+    private final CommandManager commandManager;
+    private final TransactionManager transactionManager;
+
+    public ExecuteScript(CommandManager commandManager, TransactionManager transactionManager, Executor executor) {
+        this("execute_script [-a] file_name", "исполнить скрипт из указанного файла (-a - в одной транзакции)",
+                commandManager, transactionManager, executor);
+    }
+
+    protected ExecuteScript(String name, String description, CommandManager commandManager,
+                            TransactionManager transactionManager, Executor executor) {
+        super(name, description, executor);
+        this.commandManager = commandManager;
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * Команды скрипта сами определяют, нужна ли им очередь записи; транзакция удерживает очередь записи целиком.
+     */
+    @Override
+    public boolean isMutating() {
+        return false;
+    }
+
+    /**
+     * Выполняет команду
+     *
+     * @return Response с результатом выполнения команды, в данных - список ответов по строкам скрипта.
+     */
+    @Override
+    public Response execute(Request request) {
+        if (!(request.getData() instanceof ScriptBatch batch)) {
+            return new Response(false, "Неправильное количество аргументов! Правильное использование: '" + getName() + "'");
+        }
+
+        if (!isTransactional(batch)) {
+            return executeLines(request, batch, false);
+        }
+        return transactionManager.inTransaction(() -> executeLines(request, batch, true));
+    }
+
+    /**
+     * @param batch пакет команд
+     * @return true, если пакет нужно выполнить в одной транзакции
+     */
+    protected boolean isTransactional(ScriptBatch batch) {
+        return batch.isAtomic();
+    }
+
+    private Response executeLines(Request request, ScriptBatch batch, boolean transactional) {
+        List<Response> results = new ArrayList<>(batch.size());
+        int succeeded = 0;
+        boolean aborted = false;
+        for (Request line : batch.getRequests()) {
+            boolean unsupported = UNSUPPORTED.contains(line.getCommand());
+            Command command = commandManager.getCommands().get(line.getCommand());
+            Response response;
+            if (unsupported) {
+                response = new Response(false, "Команда '" + line.getCommand() + "' не может выполняться в скрипте на сервере");
+            } else {
+                // Команды скрипта выполняются от имени пользователя, отправившего скрипт
+                line.setLogin(request.getLogin());
+                line.setPassword(request.getPassword());
+                line.setUserId(request.getUserId());
+                response = commandManager.handle(line);
+                if (response == null) response = new Response(false, "Команда не вернула результат");
+            }
+            results.add(response);
+            if (response.isSuccess()) {
+                succeeded++;
+            } else if (transactional && (unsupported || command == null || command.isMutating())) {
+                // Неудачная читающая команда ничего не изменила, транзакцию отменяет только ошибка изменения
+                aborted = true;
+                break;
+            }
+        }
+
+        String message = "Выполнено успешно " + succeeded + " из " + batch.size() + " команд скрипта";
+        if (aborted) {
+            message += "; выполнение остановлено на строке " + results.size() + ", все изменения отменены";
+        }
+        return new Response(transactional ? !aborted : succeeded == batch.size(), message, results);
+    }
+}
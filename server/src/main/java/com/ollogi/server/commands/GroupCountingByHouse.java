@@ -20,6 +20,16 @@ public class GroupCountingByHouse extends Command {
         this.collectionManager = collectionManager;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public boolean isUserIndependent() {
+        return true;
+    }
+
     /**
      * Выполняет команду
      *
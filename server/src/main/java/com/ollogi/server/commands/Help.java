@@ -16,6 +16,16 @@ public class Help extends Command {
         this.commandManager = commandManager;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public boolean isUserIndependent() {
+        return true;
+    }
+
     /**
      * Выполняет команду
      * @return Response с результатом выполнения команды.
@@ -18,6 +18,16 @@ public class Info extends Command {
         this.collectionManager = collectionManager;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public boolean isUserIndependent() {
+        return true;
+    }
+
     /**
      * Выполняет команду
      * @return Response с результатом выполнения команды.
@@ -1,20 +1,27 @@
 package com.ollogi.server.commands;
 
 import com.general.command.Command;
-import com.general.exceptions.WrongAmountOfElementsException;
-import com.general.managers.CollectionManager;
-import com.general.models.User;
-import com.general.models.base.Element;
 import com.general.network.Request;
 import com.general.network.Response;
-import com.ollogi.server.data.UserDAO;
-import com.ollogi.server.managers.DatabaseManager;
+import com.ollogi.server.managers.Authenticator;
 
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Команда 'login'. Проверяет учетные данные тем же способом, что и обработчик запросов
+ * (см. {@link Authenticator}), и не занимает поток, пока проверка выполняется.
+ */
 public class Login extends Command {
-    private UserDAO userDAO;
-    public Login(UserDAO userDAO) {
+    private final Authenticator authenticator;
+
+    public Login(Authenticator authenticator) {
         super("login <login> <password>", "для входа в систему");
-        this.userDAO = userDAO;
+        this.authenticator = authenticator;
+    }
+
+    @Override
+    public boolean isMutating() {
+        return false;
     }
 
     /**
@@ -23,28 +30,18 @@ public class Login extends Command {
      */
     @Override
     public Response execute(Request request) {
-        try {
-            String username = request.getLogin();
-            String password = request.getPassword();
-
-            if (!userDAO.verifyUserPassword(username, password)) {
-                return new Response(false, "Invalid username or password", null);
-            }
-
-            User user = userDAO.getUserByUsername(DatabaseManager.getConnection(), username);
-
-            if (user == null) {
-                return new Response(false, "User not found", null);
-            }
-
-            if (user.getId() == null) {
-                return new Response(false, "User ID is null", null);
-            }
+        return executeAsync(request).join();
+    }
 
-            return new Response(true, "You have successfully logged in", user.getUsername());
-        } catch (Exception e) {
-            System.out.println("Exception during login: " + e); // Debug message
-            return new Response(false, e.toString(), null);
+    @Override
+    public CompletableFuture<Response> executeAsync(Request request) {
+        if (request.getLogin() == null || request.getPassword() == null) {
+            return CompletableFuture.completedFuture(new Response(false, "Invalid username or password", null));
         }
+        return authenticator.authenticate(request.getLogin(), request.getPassword()).handle((user, throwable) -> {
+            if (throwable != null) return new Response(false, throwable.toString(), null);
+            if (user == null) return new Response(false, "Invalid username or password", null);
+            return new Response(true, "You have successfully logged in", user.getUsername());
+        });
     }
 }
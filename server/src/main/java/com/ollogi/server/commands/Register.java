@@ -1,6 +1,6 @@
 package com.ollogi.server.commands;
 
-import com.general.command.Command;
+import com.general.command.AsyncCommand;
 import com.general.exceptions.InvalidFormException;
 import com.general.exceptions.WrongAmountOfElementsException;
 import com.general.managers.CollectionManager;
@@ -9,22 +9,27 @@ import com.general.models.base.Element;
 import com.general.network.Request;
 import com.general.network.Response;
 import com.ollogi.server.data.UserDAO;
-import com.ollogi.server.managers.DatabaseManager;
 import com.ollogi.server.utility.PasswordHashing;
 
 import javax.management.InstanceAlreadyExistsException;
 import java.time.LocalDateTime;
+import java.util.concurrent.Executor;
 
-public class Register extends Command {
+public class Register extends AsyncCommand {
     public static final int MIN_PASSWORD_LENGTH = 8;
     private static final int MAX_USERNAME_LENGTH = 50;
     private UserDAO userDAO;
 
-    public Register(UserDAO userDAO) {
-        super("register <login> <password>", "команда регистрации в системе");
+    public Register(UserDAO userDAO, Executor executor) {
+        super("register <login> <password>", "команда регистрации в системе", executor);
         this.userDAO = userDAO;
     }
 
+    @Override
+    public boolean isMutating() {
+        return false;
+    }
+
     /**
      * Выполняет команду
      *
@@ -45,7 +50,7 @@ public class Register extends Command {
                     cryptoData[0],
                     cryptoData[1],
                     LocalDateTime.now());
-            var id = userDAO.insertUser(DatabaseManager.getConnection(), user);
+            var id = userDAO.insertUser(user);
 
             if (id < 0) throw new InstanceAlreadyExistsException("User already exists");
 
@@ -1,6 +1,6 @@
 package com.ollogi.server.commands;
 
-import com.general.command.Command;
+import com.general.command.AsyncCommand;
 import com.general.exceptions.CollectionIsEmptyException;
 import com.general.exceptions.NotFoundException;
 import com.general.exceptions.WrongAmountOfElementsException;
@@ -10,16 +10,16 @@ import com.general.network.Request;
 import com.general.network.Response;
 
 import java.nio.file.AccessDeniedException;
-import java.util.Optional;
+import java.util.concurrent.Executor;
 
 /**
  * Команда 'remove_by_id'. Удаляет элемент из коллекции.
  */
-public class RemoveById<T extends Element & Comparable<T>> extends Command {
+public class RemoveById<T extends Element & Comparable<T>> extends AsyncCommand {
     private final CollectionManager<T> collectionManager;
 
-    public RemoveById(CollectionManager<T> collectionManager) {
-        super("remove_by_id <ID>", "удалить элемент из коллекции по ID");
+    public RemoveById(CollectionManager<T> collectionManager, Executor executor) {
+        super("remove_by_id <ID>", "удалить элемент из коллекции по ID", executor);
         this.collectionManager = collectionManager;
     }
 
@@ -41,17 +41,14 @@ public class RemoveById<T extends Element & Comparable<T>> extends Command {
                 throw new CollectionIsEmptyException();
             }
 
-            // Ищем элемент по ID с использованием Stream API
-            Optional<T> elementToRemove = collectionManager.getCollection().stream()
-                    .filter(element -> element.getId().equals(id))
-                    .findFirst();
-
-            if (elementToRemove.isEmpty()) {
+            // Ищем элемент по индексу ID: команда выполняется без блокировки коллекции
+            T elementToRemove = collectionManager.getById(id);
+            if (elementToRemove == null) {
                 throw new NotFoundException();
             }
 
             // Удаляем элемент из коллекции
-            if (!collectionManager.removeFromCollection(elementToRemove.get(), request.getLogin()))
+            if (!collectionManager.removeFromCollection(elementToRemove, request.getLogin()))
                 throw new AccessDeniedException("У вас нет доступа к этому элементу!");
             return new Response(true, "Элемент успешно удален.");
 
@@ -8,7 +8,6 @@ import com.general.network.Request;
 import com.general.network.Response;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Команда 'remove_lower {element}'. Удаляет из коллекции все элементы, меньшие, чем заданный.
@@ -44,28 +43,8 @@ public class RemoveLower<T extends Element & Comparable<T>> extends Command {
     }
 
     private int removeLower(T element, Request request) {
-        var collection = collectionManager.getCollection();
-        collectionManager.sortCollection();
-
-        // Проверка на null и пустоту коллекции
-        if (collection == null || collection.isEmpty()) {
-            return 0;
-        }
-
-        // Использование Stream API для фильтрации элементов, которые меньше указанного
-        List<T> elementsToRemove = collection.stream()
-                .filter(e -> e.compareTo(element) < 0)
-                .collect(Collectors.toList());
-
-        // Подсчет успешно удалённых элементов с помощью метода removeFromCollection
-        int removedCount = 0;
-        for (T elementToRemove : elementsToRemove) {
-            if (collectionManager.removeFromCollection(elementToRemove, request.getLogin())) {
-                removedCount++;
-            }
-        }
-
-        return removedCount;
+        // Индекс порядка возвращает только элементы, которые меньше заданного; удаляются они одним пакетом
+        List<T> elementsToRemove = collectionManager.getLowerThan(element);
+        return collectionManager.removeAllFromCollection(elementsToRemove, request.getLogin());
     }
-
 }
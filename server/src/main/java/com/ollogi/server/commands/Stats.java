@@ -0,0 +1,67 @@
+package com.ollogi.server.commands;
+
+import com.general.command.Command;
+import com.general.exceptions.WrongAmountOfElementsException;
+import com.general.managers.stats.StatsRegistry;
+import com.general.network.Request;
+import com.general.network.Response;
+
+/**
+ * Команда 'stats'. Выводит количество вызовов и задержки команд и этапов обработки запросов.
+ * Начать отсчет заново ('stats reset') можно только с консоли администратора.
+ */
+public class Stats extends Command {
+    private final StatsRegistry statistics;
+    private final boolean resettable;
+
+    /**
+     * Команда для клиентов: только вывод статистики.
+     */
+    public Stats(StatsRegistry statistics) {
+        this(statistics, false);
+    }
+
+    /**
+     * @param statistics статистика сервера
+     * @param resettable разрешен ли аргумент reset
+     */
+    public Stats(StatsRegistry statistics, boolean resettable) {
+        super(resettable ? "stats [reset]" : "stats", resettable
+                ? "вывести статистику задержек команд и этапов обработки запросов (reset - начать отсчет заново)"
+                : "вывести статистику задержек команд и этапов обработки запросов");
+        this.statistics = statistics;
+        this.resettable = resettable;
+    }
+
+    @Override
+    public boolean isMutating() {
+        return false;
+    }
+
+    /**
+     * Выполняет команду
+     * @return Response с результатом выполнения команды.
+     */
+    @Override
+    public Response execute(Request request) {
+        try {
+            String argument = "";
+            if (request.getData() instanceof String[] args && args.length > 1) {
+                argument = args[1].trim();
+            } else if (request.getData() != null && !(request.getData() instanceof String[])) {
+                throw new WrongAmountOfElementsException();
+            }
+
+            if (argument.isEmpty()) {
+                return new Response(true, statistics.format());
+            }
+            if (resettable && "reset".equals(argument)) {
+                statistics.reset();
+                return new Response(true, "Отсчет статистики начат заново");
+            }
+            throw new WrongAmountOfElementsException();
+        } catch (WrongAmountOfElementsException exception) {
+            return new Response(false, "Неправильное количество аргументов! Правильное использование: '" + getName() + "'");
+        }
+    }
+}
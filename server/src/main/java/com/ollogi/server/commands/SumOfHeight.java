@@ -4,6 +4,7 @@ import com.general.command.Command;
 import com.general.exceptions.CollectionIsEmptyException;
 import com.general.exceptions.WrongAmountOfElementsException;
 import com.general.managers.CollectionManager;
+import com.general.managers.index.FieldAggregate;
 import com.general.models.Flat;
 import com.general.network.Request;
 import com.general.network.Response;
@@ -19,6 +20,16 @@ public class SumOfHeight extends Command {
         this.collectionManager = collectionManager;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public boolean isUserIndependent() {
+        return true;
+    }
+
     /**
      * Выполняет команду
      * @return Response с результатом выполнения команды.
@@ -30,10 +41,11 @@ public class SumOfHeight extends Command {
                 throw new WrongAmountOfElementsException();
             }
 
-            int sumOfHeight = getSumOfHeight();
-            if (sumOfHeight == 0) {
+            FieldAggregate<Flat> heights = collectionManager.getAggregate("height");
+            if (heights.count() == 0) {
                 throw new CollectionIsEmptyException();
             }
+            long sumOfHeight = heights.sum().longValue();
 
             String resultMessage = "Сумма значений поля height для всех квартир: " + sumOfHeight;
             return new Response(true, resultMessage);
@@ -44,10 +56,4 @@ public class SumOfHeight extends Command {
             return new Response(false, "Коллекция пуста!");
         }
     }
-
-    private int getSumOfHeight() {
-        return collectionManager.getCollection().stream()
-                .mapToInt(Flat::getHeight)
-                .sum();
-    }
 }
@@ -0,0 +1,50 @@
+package com.ollogi.server.commands;
+
+import com.general.command.Command;
+import com.general.managers.CollectionDelta;
+import com.general.managers.CollectionManager;
+import com.general.models.base.Element;
+import com.general.network.Request;
+import com.general.network.Response;
+
+/**
+ * Команда 'sync'. Передает клиенту изменения коллекции с известной ему версии,
+ * чтобы клиент поддерживал локальную копию коллекции и отвечал на читающие команды без сервера.
+ * Аргумент запроса - массив {эпоха, версия}; без аргумента передается полный снимок коллекции.
+ */
+public class Sync<T extends Element & Comparable<T>> extends Command {
+    private final CollectionManager<T> collectionManager;
+
+    public Sync(CollectionManager<T> collectionManager) {
+        super("sync", "получить изменения коллекции для локальной копии (служебная команда клиента)");
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public boolean isUserIndependent() {
+        return true;
+    }
+
+    /**
+     * Выполняет команду
+     *
+     * @return Response с изменениями коллекции ({@link CollectionDelta}) в поле данных.
+     */
+    @Override
+    public Response execute(Request request) {
+        CollectionDelta<T> delta;
+        if (request.getData() == null) {
+            delta = collectionManager.getChangesSince(0, -1);
+        } else if (request.getData() instanceof Long[] cursor && cursor.length == 2) {
+            delta = collectionManager.getChangesSince(cursor[0], cursor[1]);
+        } else {
+            return new Response(false, "Неправильное количество аргументов! Правильное использование: '" + getName() + "'");
+        }
+        return new Response(true, "Версия коллекции: " + delta.getVersion(), delta);
+    }
+}
@@ -0,0 +1,23 @@
+package com.ollogi.server.commands;
+
+import com.general.managers.CommandManager;
+import com.general.network.ScriptBatch;
+import com.ollogi.server.managers.TransactionManager;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Команда 'transaction'. Выполняет присланные клиентом команды в одной транзакции:
+ * либо применяются все изменения, либо ни одного.
+ */
+public class Transaction extends ExecuteScript {
+
+    public Transaction(CommandManager commandManager, TransactionManager transactionManager, Executor executor) {
+        super("transaction {commands}", "выполнить команды в одной транзакции", commandManager, transactionManager, executor);
+    }
+
+    @Override
+    protected boolean isTransactional(ScriptBatch batch) {
+        return true;
+    }
+}
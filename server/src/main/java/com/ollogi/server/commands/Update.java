@@ -1,6 +1,6 @@
 package com.ollogi.server.commands;
 
-import com.general.command.Command;
+import com.general.command.AsyncCommand;
 import com.general.exceptions.CollectionIsEmptyException;
 import com.general.exceptions.InvalidFormException;
 import com.general.exceptions.WrongAmountOfElementsException;
@@ -10,16 +10,17 @@ import com.general.network.Request;
 import com.general.network.Response;
 
 import java.nio.file.AccessDeniedException;
-import java.util.Optional;
+import java.util.concurrent.Executor;
 
 /**
- * Команда 'update'. Обновляет элемент коллекции.
+ * Команда 'update'. Обновляет элемент коллекции пользователя. Выполняется в пуле работы с базой данных:
+ * обновление сначала сохраняется в базе, а затем применяется к коллекции.
  */
-public class Update<T extends Element & Comparable<T>> extends Command {
+public class Update<T extends Element & Comparable<T>> extends AsyncCommand {
     private final CollectionManager<T> collectionManager;
 
-    public Update(CollectionManager<T> collectionManager) {
-        super("update <ID> {element}", "обновить значение элемента коллекции по ID");
+    public Update(CollectionManager<T> collectionManager, Executor executor) {
+        super("update <ID> {element}", "обновить значение элемента коллекции по ID", executor);
         this.collectionManager = collectionManager;
     }
 
@@ -47,25 +48,23 @@ public class Update<T extends Element & Comparable<T>> extends Command {
                 throw new CollectionIsEmptyException();
             }
 
-            // Ищем элемент по ID с использованием Stream API
-            Optional<T> optionalElement = collectionManager.getCollection().stream()
-                    .filter(element -> element.getId().equals(id))
-                    .findFirst();
-
-            if (optionalElement.isEmpty()) {
+            // Ищем элемент по индексу ID: команда выполняется без блокировки коллекции
+            T existingElement = collectionManager.getById(id);
+            if (existingElement == null) {
                 return new Response(false, "Элемента с таким ID в коллекции нет!");
             }
 
-            T existingElement = optionalElement.get();
-            if (!existingElement.getUsername().equals(newElement.getUsername()))
+            if (!existingElement.getUsername().equals(request.getLogin()))
                 throw new AccessDeniedException("У вас нет доступа к данному элементу.");
             // Проверяем валидность нового элемента
             if (!newElement.validate()) {
                 throw new InvalidFormException();
             }
 
-            collectionManager.updateInCollection(newElement);
-            collectionManager.sortCollection();
+            // Владелец проверяется еще раз вместе с обновлением: элемент могли удалить после проверки выше
+            if (!collectionManager.updateInCollection(newElement, request.getLogin())) {
+                return new Response(false, "Элемент не обновлен: его уже нет в коллекции или у вас нет к нему доступа.");
+            }
 
             return new Response(true, "Элемент успешно обновлен.");
 
@@ -0,0 +1,56 @@
+package com.ollogi.server.commands.admin;
+
+import com.general.command.Command;
+import com.general.network.Request;
+import com.general.network.Response;
+import com.ollogi.server.monitoring.ConnectionStats;
+import com.ollogi.server.monitoring.ServerMetrics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Команда консоли сервера 'connections'. Выводит открытые соединения клиентов с количеством запросов,
+ * объемом данных и средней пропускной способностью.
+ */
+public class Connections extends Command {
+
+    public Connections() {
+        super("connections", "вывести открытые соединения и их пропускную способность");
+    }
+
+    @Override
+    public boolean isMutating() {
+        return false;
+    }
+
+    /**
+     * Выполняет команду
+     * @return Response с результатом выполнения команды.
+     */
+    @Override
+    public Response execute(Request request) {
+        if (request.getData() != null) {
+            return new Response(false, "Неправильное количество аргументов! Правильное использование: '" + getName() + "'");
+        }
+        List<ConnectionStats> connections = new ArrayList<>(ServerMetrics.getConnections());
+        if (connections.isEmpty()) {
+            return new Response(true, "Открытых соединений нет");
+        }
+        connections.sort(Comparator.comparing(ConnectionStats::getOpenedAt));
+        Instant now = Instant.now();
+        StringBuilder sb = new StringBuilder(String.format("%-24s%10s%10s%12s%12s%10s%n",
+                "клиент", "время, с", "запросы", "получено", "отправлено", "запр/с"));
+        for (ConnectionStats connection : connections) {
+            sb.append(String.format("%-24s%10d%10d%12d%12d%10.1f%n", connection.getAddress(),
+                    Duration.between(connection.getOpenedAt(), now).toSeconds(), connection.getRequests(),
+                    connection.getBytesIn(), connection.getBytesOut(), connection.getRequestsPerSecond()));
+        }
+        sb.append("Всего соединений: ").append(connections.size())
+                .append(", принято с запуска: ").append(ServerMetrics.getConnectionsOpened());
+        return new Response(true, sb.toString());
+    }
+}
@@ -0,0 +1,63 @@
+package com.ollogi.server.commands.admin;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import com.general.command.Command;
+import com.general.exceptions.WrongAmountOfElementsException;
+import com.general.network.Request;
+import com.general.network.Response;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Команда консоли сервера 'log'. Выводит уровни логгеров или меняет уровень логгера во время работы,
+ * например {@code log Handler DEBUG} или {@code log ROOT INFO}.
+ */
+public class LogLevel extends Command {
+
+    public LogLevel() {
+        super("log [<логгер> <уровень>]", "вывести уровни логгеров или изменить уровень логгера (TRACE, DEBUG, INFO, WARN, ERROR, OFF)");
+    }
+
+    @Override
+    public boolean isMutating() {
+        return false;
+    }
+
+    /**
+     * Выполняет команду
+     * @return Response с результатом выполнения команды.
+     */
+    @Override
+    public Response execute(Request request) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return new Response(false, "Уровни логгеров можно менять только при использовании logback");
+        }
+        try {
+            if (request.getData() == null) {
+                return new Response(true, format(context));
+            }
+            if (!(request.getData() instanceof String[] args) || args.length < 2) throw new WrongAmountOfElementsException();
+            String[] arguments = args[1].trim().split("\\s+");
+            if (arguments.length != 2) throw new WrongAmountOfElementsException();
+            Level level = Level.toLevel(arguments[1], null);
+            if (level == null) {
+                return new Response(false, "Неизвестный уровень '" + arguments[1] + "'");
+            }
+            context.getLogger(arguments[0]).setLevel(level);
+            return new Response(true, "Уровень логгера '" + arguments[0] + "' изменен на " + level);
+        } catch (WrongAmountOfElementsException exception) {
+            return new Response(false, "Неправильное количество аргументов! Правильное использование: '" + getName() + "'");
+        }
+    }
+
+    private static String format(LoggerContext context) {
+        StringBuilder sb = new StringBuilder("Логгеры с заданным уровнем:\n");
+        for (Logger logger : context.getLoggerList()) {
+            if (logger.getLevel() != null) {
+                sb.append(' ').append(logger.getName()).append(": ").append(logger.getLevel()).append('\n');
+            }
+        }
+        return sb.toString().stripTrailing();
+    }
+}
@@ -0,0 +1,82 @@
+package com.ollogi.server.commands.admin;
+
+import com.general.command.Command;
+import com.general.exceptions.WrongAmountOfElementsException;
+import com.general.network.Request;
+import com.general.network.Response;
+import com.ollogi.server.monitoring.ServerMetrics;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Команда консоли сервера 'pools'. Выводит очереди и загрузку пулов потоков сервера
+ * или меняет размер пула без перезапуска.
+ */
+public class Pools extends Command {
+
+    public Pools() {
+        super("pools [<пул> <размер>]", "вывести очереди и загрузку пулов потоков или изменить размер пула");
+    }
+
+    @Override
+    public boolean isMutating() {
+        return false;
+    }
+
+    /**
+     * Выполняет команду
+     * @return Response с результатом выполнения команды.
+     */
+    @Override
+    public Response execute(Request request) {
+        try {
+            if (request.getData() == null) {
+                return new Response(true, format());
+            }
+            if (!(request.getData() instanceof String[] args) || args.length < 2) throw new WrongAmountOfElementsException();
+            String[] arguments = args[1].trim().split("\\s+");
+            if (arguments.length != 2) throw new WrongAmountOfElementsException();
+            int size = Integer.parseInt(arguments[1]);
+            if (size <= 0) throw new WrongAmountOfElementsException();
+            return resize(arguments[0], size);
+        } catch (WrongAmountOfElementsException | NumberFormatException exception) {
+            return new Response(false, "Неправильные аргументы! Правильное использование: '" + getName() + "'");
+        }
+    }
+
+    private static Response resize(String name, int size) {
+        ExecutorService executor = ServerMetrics.getExecutors().get(name);
+        if (executor == null) {
+            return new Response(false, "Пул '" + name + "' не найден. Доступные пулы: " + ServerMetrics.getExecutors().keySet());
+        }
+        if (!(executor instanceof ThreadPoolExecutor pool)) {
+            return new Response(false, "Размер пула '" + name + "' нельзя изменить во время работы");
+        }
+        // Порядок важен: максимальный размер не может быть меньше основного
+        if (size > pool.getMaximumPoolSize()) {
+            pool.setMaximumPoolSize(size);
+            pool.setCorePoolSize(size);
+        } else {
+            pool.setCorePoolSize(size);
+            pool.setMaximumPoolSize(size);
+        }
+        return new Response(true, "Размер пула '" + name + "' изменен на " + size);
+    }
+
+    private static String format() {
+        StringBuilder sb = new StringBuilder(String.format("%-10s%10s%10s%10s%14s%n", "пул", "потоки", "активны", "очередь", "выполнено"));
+        for (Map.Entry<String, ExecutorService> entry : ServerMetrics.getExecutors().entrySet()) {
+            if (entry.getValue() instanceof ThreadPoolExecutor pool) {
+                sb.append(String.format("%-10s%10d%10d%10d%14d%n", entry.getKey(), pool.getPoolSize(),
+                        pool.getActiveCount(), pool.getQueue().size(), pool.getCompletedTaskCount()));
+            } else if (entry.getValue() instanceof ForkJoinPool pool) {
+                sb.append(String.format("%-10s%10d%10d%10d%14s%n", entry.getKey(), pool.getPoolSize(),
+                        pool.getActiveThreadCount(), pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount(), "-"));
+            }
+        }
+        return sb.toString().stripTrailing();
+    }
+}
@@ -0,0 +1,37 @@
+package com.ollogi.server.commands.admin;
+
+import com.general.command.Command;
+import com.general.managers.CollectionManager;
+import com.general.network.Request;
+import com.general.network.Response;
+
+/**
+ * Команда консоли сервера 'reload'. Перечитывает коллекцию из базы данных без перезапуска сервера.
+ */
+public class Reload extends Command {
+    private final CollectionManager<?> collectionManager;
+
+    public Reload(CollectionManager<?> collectionManager) {
+        super("reload", "перечитать коллекцию из базы данных");
+        this.collectionManager = collectionManager;
+    }
+
+    /**
+     * Выполняет команду
+     * @return Response с результатом выполнения команды.
+     */
+    @Override
+    public Response execute(Request request) {
+        if (request.getData() != null) {
+            return new Response(false, "Неправильное количество аргументов! Правильное использование: '" + getName() + "'");
+        }
+        try {
+            long start = System.nanoTime();
+            collectionManager.reload();
+            return new Response(true, String.format("Коллекция перечитана за %d мс, элементов: %d",
+                    (System.nanoTime() - start) / 1_000_000, collectionManager.collectionSize()));
+        } catch (RuntimeException e) {
+            return new Response(false, "Не удалось перечитать коллекцию: " + e.getMessage());
+        }
+    }
+}
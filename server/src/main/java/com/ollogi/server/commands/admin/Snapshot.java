@@ -0,0 +1,82 @@
+package com.ollogi.server.commands.admin;
+
+import com.general.command.Command;
+import com.general.io.DateAdapter;
+import com.general.managers.CollectionManager;
+import com.general.network.Request;
+import com.general.network.Response;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Команда консоли сервера 'snapshot'. Сохраняет снимок коллекции в JSON-файл, например перед
+ * разбором инцидента или ручным вмешательством в базу данных. Коллекция копируется под блокировкой чтения,
+ * запись файла выполняется уже без блокировки.
+ */
+public class Snapshot extends Command {
+    private static final Path DEFAULT_DIRECTORY = Path.of("snapshots");
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, new DateAdapter())
+            .setPrettyPrinting()
+            .create();
+
+    private final CollectionManager<?> collectionManager;
+
+    public Snapshot(CollectionManager<?> collectionManager) {
+        super("snapshot [файл]", "сохранить снимок коллекции в JSON-файл (по умолчанию в каталог snapshots)");
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public boolean isMutating() {
+        return false;
+    }
+
+    /**
+     * Выполняет команду
+     * @return Response с результатом выполнения команды.
+     */
+    @Override
+    public Response execute(Request request) {
+        LocalDateTime now = LocalDateTime.now();
+        Path file = request.getData() instanceof String[] args && args.length > 1 && !args[1].isBlank()
+                ? Path.of(args[1].trim())
+                : DEFAULT_DIRECTORY.resolve("flats-" + now.format(FILE_TIME) + ".json");
+
+        List<Object> elements;
+        long version;
+        Lock lock = collectionManager.readLock();
+        lock.lock();
+        try {
+            elements = new ArrayList<>(collectionManager.getCollection());
+            version = collectionManager.getVersion();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                GSON.toJson(elements, writer);
+            }
+        } catch (IOException e) {
+            return new Response(false, "Не удалось сохранить снимок: " + e.getMessage());
+        }
+        collectionManager.setLastSaveTime(now);
+        return new Response(true, String.format("Снимок коллекции (версия %d, элементов: %d) сохранен в %s",
+                version, elements.size(), file.toAbsolutePath()));
+    }
+}
@@ -3,13 +3,17 @@ package com.ollogi.server.data;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import com.general.models.Coordinates;
 import com.general.models.Flat;
 import com.general.models.House;
 import com.general.models.View;
 import com.ollogi.server.managers.DatabaseManager;
+import com.ollogi.server.monitoring.DatabaseQueryEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,6 +24,11 @@ import org.slf4j.LoggerFactory;
 public class FlatDAO {
     private static final Logger LOGGER = LoggerFactory.getLogger(FlatDAO.class);
 
+    /**
+     * Канал уведомлений PostgreSQL, в который триггер таблицы "flats" пишет изменения квартир.
+     */
+    public static final String CHANGES_CHANNEL = "flats_changes";
+
     // SQL-запрос для создания таблицы "flats"
     private static final String CREATE_FLATS_TABLE_SQL = "CREATE TABLE IF NOT EXISTS flats (" +
             "id BIGSERIAL PRIMARY KEY, " +
@@ -40,6 +49,21 @@ public class FlatDAO {
             "FOREIGN KEY (username) REFERENCES users(username)" +
             ");";
 
+    // Триггер, уведомляющий другие серверы об изменении квартир через канал LISTEN/NOTIFY.
+    // Сообщение: "<операция>:<id>:<application_name соединения, изменившего строку>"
+    private static final String CREATE_NOTIFY_FUNCTION_SQL = "CREATE OR REPLACE FUNCTION flats_notify_change() " +
+            "RETURNS trigger AS $$ BEGIN " +
+            "PERFORM pg_notify('" + CHANGES_CHANNEL + "', TG_OP || ':' || " +
+            "CASE WHEN TG_OP = 'DELETE' THEN OLD.id ELSE NEW.id END || ':' || current_setting('application_name')); " +
+            "RETURN NULL; END; $$ LANGUAGE plpgsql";
+    private static final String NOTIFY_TRIGGER_EXISTS_SQL = "SELECT 1 FROM pg_trigger " +
+            "WHERE tgname = 'flats_changes' AND tgrelid = 'flats'::regclass AND NOT tgisinternal";
+    private static final String CREATE_NOTIFY_TRIGGER_SQL = "CREATE TRIGGER flats_changes " +
+            "AFTER INSERT OR UPDATE OR DELETE ON flats FOR EACH ROW EXECUTE FUNCTION flats_notify_change()";
+
+    // Код ошибки PostgreSQL "объект уже существует"
+    private static final String DUPLICATE_OBJECT = "42710";
+
     // SQL-запрос для получения всех квартир
     private static final String SELECT_ALL_FLATS_SQL = "SELECT * FROM flats";
 
@@ -52,12 +76,15 @@ public class FlatDAO {
     // SQL-запрос для удаления квартиры по ID
     private static final String REMOVE_FLAT_SQL = "DELETE FROM flats WHERE id = ?";
 
+    // SQL-запрос для удаления квартир пользователя по списку ID
+    private static final String REMOVE_OWNED_FLATS_SQL = "DELETE FROM flats WHERE id = ANY(?) AND username = ? RETURNING id";
+
     // SQL-запрос для обновления данных о квартире
     private static final String UPDATE_FLAT_SQL = "UPDATE flats SET " +
             "name = ?, coordinates_x = ?, coordinates_y = ?, creation_date = ?, area = ?, number_of_rooms = ?, " +
             "height = ?, kitchen_area = ?, view = ?, house_name = ?, house_year = ?, " +
-            "house_number_of_flats_on_floor = ?, house_number_of_lifts = ?, username = ? " +
-            "WHERE id = ?";
+            "house_number_of_flats_on_floor = ?, house_number_of_lifts = ? " +
+            "WHERE id = ? AND username = ?";
 
     // SQL-запрос для получения квартиры по ID
     private static final String SELECT_FLAT_BY_ID_SQL = "SELECT * FROM flats WHERE id = ?";
@@ -66,13 +93,24 @@ public class FlatDAO {
     private static final String SELECT_FLATS_BY_USER_ID_SQL = "SELECT * FROM flats WHERE username = ?";
 
     /**
-     * Метод для создания таблицы "flats" в базе данных.
+     * Метод для создания таблицы "flats" в базе данных и триггера уведомлений об ее изменениях, если их еще нет.
      * @param connection Подключение к базе данных
      * @throws SQLException Если возникает ошибка при выполнении SQL-запроса
      */
     public void createFlatsTable(Connection connection) throws SQLException {
         try (Statement statement = connection.createStatement()) {
             statement.execute(CREATE_FLATS_TABLE_SQL);
+            // Триггер создается один раз: пересоздание блокировало бы таблицу при каждом запуске сервера
+            try (ResultSet trigger = statement.executeQuery(NOTIFY_TRIGGER_EXISTS_SQL)) {
+                if (trigger.next()) return;
+            }
+            statement.execute(CREATE_NOTIFY_FUNCTION_SQL);
+            try {
+                statement.execute(CREATE_NOTIFY_TRIGGER_SQL);
+            } catch (SQLException e) {
+                // Триггер успел создать другой сервер, запущенный одновременно с этим
+                if (!DUPLICATE_OBJECT.equals(e.getSQLState())) throw e;
+            }
         }
     }
 
@@ -89,23 +127,39 @@ public class FlatDAO {
 
     /**
      * Метод для получения всех квартир как списка объектов Flat.
-     * @return Список квартир
+     * @return Список квартир (пустой, если произошла ошибка)
      */
     public List<Flat> getAllFlats() {
+        try {
+            return selectAllFlats();
+        } catch (Exception e) {
+            // Логируем ошибку и выбрасываем исключение или обрабатываем его соответствующим образом
+            LOGGER.error("Ошибка при получении всех квартир из базы данных", e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Метод для получения всех квартир как списка объектов Flat. В отличие от {@link #getAllFlats()},
+     * ошибка не заменяется пустым списком, поэтому вызывающий может отличить пустую таблицу от недоступной базы.
+     * @return Список квартир
+     * @throws SQLException Если возникает ошибка при выполнении SQL-запроса
+     */
+    public List<Flat> selectAllFlats() throws SQLException {
         List<Flat> flats = new ArrayList<>();
+        DatabaseQueryEvent event = DatabaseQueryEvent.start("flats.select_all");
+        long rows = -1;
 
-        try (Connection connection = DatabaseManager.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(SELECT_ALL_FLATS_SQL);
+        try (PreparedStatement preparedStatement = DatabaseManager.getConnection().prepareStatement(SELECT_ALL_FLATS_SQL);
              ResultSet resultSet = preparedStatement.executeQuery()) {
 
             while (resultSet.next()) {
                 Flat flat = mapResultSetToFlat(resultSet);
                 flats.add(flat);
             }
-
-        } catch (Exception e) {
-            // Логируем ошибку и выбрасываем исключение или обрабатываем его соответствующим образом
-            LOGGER.error("Ошибка при получении всех квартир из базы данных", e);
+            rows = flats.size();
+        } finally {
+            event.finish(rows);
         }
 
         return flats;
@@ -117,8 +171,9 @@ public class FlatDAO {
      * @return ID вставленной квартиры или -1 в случае ошибки
      */
     public long insertFlat(Flat flat) {
-        try (Connection connection = DatabaseManager.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(INSERT_FLAT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+        DatabaseQueryEvent event = DatabaseQueryEvent.start("flats.insert");
+        long rows = -1;
+        try (PreparedStatement preparedStatement = DatabaseManager.getConnection().prepareStatement(INSERT_FLAT_SQL, Statement.RETURN_GENERATED_KEYS)) {
 
             // Устанавливаем параметры запроса
             preparedStatement.setString(1, flat.getName());
@@ -138,6 +193,7 @@ public class FlatDAO {
 
             // Выполняем запрос и получаем ID новой записи
             int affectedRows = preparedStatement.executeUpdate();
+            rows = affectedRows;
             if (affectedRows > 0) {
                 try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
@@ -148,6 +204,8 @@ public class FlatDAO {
         } catch (Exception e) {
             // Логируем ошибку
             LOGGER.error("Ошибка при вставке новой квартиры в базу данных", e);
+        } finally {
+            event.finish(rows);
         }
         return -1;
     }
@@ -159,54 +217,100 @@ public class FlatDAO {
      * @throws SQLException Если возникает ошибка при выполнении SQL-запроса
      */
     public boolean removeFlatById(long id) throws SQLException {
-        try (Connection connection = DatabaseManager.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(REMOVE_FLAT_SQL)) {
+        DatabaseQueryEvent event = DatabaseQueryEvent.start("flats.delete");
+        long rows = -1;
+        try (PreparedStatement preparedStatement = DatabaseManager.getConnection().prepareStatement(REMOVE_FLAT_SQL)) {
 
             preparedStatement.setLong(1, id);
             int affectedRows = preparedStatement.executeUpdate();
+            rows = affectedRows;
             return affectedRows > 0;
+        } finally {
+            event.finish(rows);
+        }
+    }
+
+    /**
+     * Удаляет квартиры пользователя по списку ID одним запросом.
+     * @param ids      ID квартир
+     * @param username владелец квартир; квартиры других пользователей не удаляются
+     * @return ID удаленных квартир
+     * @throws SQLException Если возникает ошибка при выполнении SQL-запроса
+     */
+    public Set<Long> removeFlatsByIds(Collection<Long> ids, String username) throws SQLException {
+        DatabaseQueryEvent event = DatabaseQueryEvent.start("flats.delete_batch");
+        Set<Long> removed = new HashSet<>();
+        try (PreparedStatement preparedStatement = DatabaseManager.getConnection().prepareStatement(REMOVE_OWNED_FLATS_SQL)) {
+            preparedStatement.setArray(1, preparedStatement.getConnection().createArrayOf("bigint", ids.toArray()));
+            preparedStatement.setString(2, username);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    removed.add(resultSet.getLong(1));
+                }
+            }
+            return removed;
+        } finally {
+            event.finish(removed.size());
         }
     }
 
     /**
-     * Метод для обновления данных о квартире.
-     * @param flat Объект Flat с обновленными данными
+     * Метод для обновления данных о квартире пользователя. Владелец квартиры не меняется.
+     * @param flat     Объект Flat с обновленными данными
+     * @param username владелец квартиры; квартиры других пользователей не обновляются
      * @return true, если данные были успешно обновлены, иначе false
      * @throws SQLException Если возникает ошибка при выполнении SQL-запроса
      */
-    public boolean updateFlat(Flat flat) throws SQLException {
-        Connection connection = DatabaseManager.getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(UPDATE_FLAT_SQL);
-        preparedStatement.setString(1, flat.getName());
-        preparedStatement.setLong(2, flat.getCoordinates().getX());
-        preparedStatement.setFloat(3, flat.getCoordinates().getY());
-        preparedStatement.setTimestamp(4, Timestamp.valueOf(flat.getCreationDate().atStartOfDay()));
-        preparedStatement.setInt(5, flat.getArea());
-        preparedStatement.setInt(6, flat.getNumberOfRooms());
-        preparedStatement.setInt(7, flat.getHeight());
-        preparedStatement.setFloat(8, flat.getKitchenArea());
-        preparedStatement.setString(9, flat.getView().toString());
-        preparedStatement.setString(10, flat.getHouse().getName());
-        preparedStatement.setInt(11, flat.getHouse().getYear());
-        preparedStatement.setLong(12, flat.getHouse().getNumberOfFlatsOnFloor());
-        preparedStatement.setLong(13, flat.getHouse().getNumberOfLifts());
-        preparedStatement.setString(14, flat.getUsername());
-        preparedStatement.setLong(15, flat.getId());
-
-        int affectedRows = preparedStatement.executeUpdate();
-        return affectedRows > 0;
+    public boolean updateFlat(Flat flat, String username) throws SQLException {
+        DatabaseQueryEvent event = DatabaseQueryEvent.start("flats.update");
+        long rows = -1;
+        try (PreparedStatement preparedStatement = DatabaseManager.getConnection().prepareStatement(UPDATE_FLAT_SQL)) {
+            preparedStatement.setString(1, flat.getName());
+            preparedStatement.setLong(2, flat.getCoordinates().getX());
+            preparedStatement.setFloat(3, flat.getCoordinates().getY());
+            preparedStatement.setTimestamp(4, Timestamp.valueOf(flat.getCreationDate().atStartOfDay()));
+            preparedStatement.setInt(5, flat.getArea());
+            preparedStatement.setInt(6, flat.getNumberOfRooms());
+            preparedStatement.setInt(7, flat.getHeight());
+            preparedStatement.setFloat(8, flat.getKitchenArea());
+            preparedStatement.setString(9, flat.getView().toString());
+            preparedStatement.setString(10, flat.getHouse().getName());
+            preparedStatement.setInt(11, flat.getHouse().getYear());
+            preparedStatement.setLong(12, flat.getHouse().getNumberOfFlatsOnFloor());
+            preparedStatement.setLong(13, flat.getHouse().getNumberOfLifts());
+            preparedStatement.setLong(14, flat.getId());
+            preparedStatement.setString(15, username);
+
+            int affectedRows = preparedStatement.executeUpdate();
+            rows = affectedRows;
+            return affectedRows > 0;
+        } finally {
+            event.finish(rows);
+        }
     }
 
-    // Метод для получения квартиры по ID
-    public Flat getFlatById(int id) throws SQLException {
-        Connection connection = DatabaseManager.getConnection();
-        PreparedStatement preparedStatement = connection.prepareStatement(SELECT_FLAT_BY_ID_SQL);
-        preparedStatement.setInt(1, id);
-        ResultSet resultSet = preparedStatement.executeQuery();
-        if (resultSet.next()) {
-            return mapResultSetToFlat(resultSet);
+    /**
+     * Метод для получения квартиры по ID.
+     * @param id ID квартиры
+     * @return квартира или null, если ее нет в базе данных
+     * @throws SQLException Если возникает ошибка при выполнении SQL-запроса
+     */
+    public Flat getFlatById(long id) throws SQLException {
+        DatabaseQueryEvent event = DatabaseQueryEvent.start("flats.select_by_id");
+        long rows = -1;
+        try (PreparedStatement preparedStatement = DatabaseManager.getConnection().prepareStatement(SELECT_FLAT_BY_ID_SQL)) {
+            preparedStatement.setLong(1, id);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                rows = 0;
+                if (resultSet.next()) {
+                    rows = 1;
+                    return mapResultSetToFlat(resultSet);
+                }
+                return null;
+            }
+        } finally {
+            event.finish(rows);
         }
-        return null;
     }
 
     // Метод для получения всех квартир пользователя
@@ -8,6 +8,7 @@ import java.util.Properties;
 
 import com.general.models.User;
 import com.ollogi.server.managers.DatabaseManager;
+import com.ollogi.server.monitoring.DatabaseQueryEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -92,6 +93,8 @@ public class UserDAO {
      * @throws SQLException Если происходит ошибка при выполнении SQL-запроса
      */
     public int insertUser(Connection connection, User user) throws SQLException {
+        DatabaseQueryEvent event = DatabaseQueryEvent.start("users.insert");
+        long rows = -1;
         try (PreparedStatement preparedStatement = connection.prepareStatement(INSERT_USER_SQL, Statement.RETURN_GENERATED_KEYS)) {
             preparedStatement.setString(1, user.getUsername());
             preparedStatement.setString(2, user.getPasswordHash());
@@ -100,6 +103,7 @@ public class UserDAO {
             preparedStatement.setObject(5, LocalDateTime.now());
 
             int affectedRows = preparedStatement.executeUpdate();
+            rows = affectedRows;
             if (affectedRows > 0) {
                 try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
@@ -107,10 +111,34 @@ public class UserDAO {
                     }
                 }
             }
+        } finally {
+            event.finish(rows);
         }
         return -1;
     }
 
+    /**
+     * Вставляет нового пользователя, используя соединение текущего потока.
+     *
+     * @param user Объект пользователя для вставки
+     * @return ID нового пользователя, либо -1, если вставка не удалась
+     * @throws SQLException Если происходит ошибка при выполнении SQL-запроса
+     */
+    public int insertUser(User user) throws SQLException {
+        return insertUser(DatabaseManager.getConnection(), user);
+    }
+
+    /**
+     * Возвращает пользователя по его имени, используя соединение текущего потока.
+     *
+     * @param username Имя пользователя
+     * @return Объект User, если пользователь найден, или null, если нет
+     * @throws SQLException Если происходит ошибка при выполнении SQL-запроса
+     */
+    public User getUserByUsername(String username) throws SQLException {
+        return getUserByUsername(DatabaseManager.getConnection(), username);
+    }
+
     /**
      * Возвращает пользователя по его имени.
      *
@@ -120,13 +148,19 @@ public class UserDAO {
      * @throws SQLException Если происходит ошибка при выполнении SQL-запроса
      */
     public User getUserByUsername(Connection connection, String username) throws SQLException {
+        DatabaseQueryEvent event = DatabaseQueryEvent.start("users.select_by_username");
+        long rows = -1;
         try (PreparedStatement preparedStatement = connection.prepareStatement(SELECT_USER_BY_USERNAME_SQL)) {
             preparedStatement.setString(1, username);
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                rows = 0;
                 if (resultSet.next()) {
+                    rows = 1;
                     return mapResultSetToUser(resultSet);
                 }
             }
+        } finally {
+            event.finish(rows);
         }
         return null;
     }
@@ -216,11 +250,14 @@ public class UserDAO {
      * @return true, если пароль совпадает, false в противном случае
      */
     public boolean verifyUserPassword(String username, String password) {
-        try (Connection connection = DatabaseManager.getConnection();
-             PreparedStatement statement = connection.prepareStatement(SELECT_USER_BY_USERNAME_SQL)) {
+        DatabaseQueryEvent event = DatabaseQueryEvent.start("users.verify_password");
+        long rows = -1;
+        try (PreparedStatement statement = DatabaseManager.getConnection().prepareStatement(SELECT_USER_BY_USERNAME_SQL)) {
             statement.setString(1, username);
             try (ResultSet resultSet = statement.executeQuery()) {
+                rows = 0;
                 if (resultSet.next()) {
+                    rows = 1;
                     String storedPasswordHash = resultSet.getString("password_hash");
                     String storedSalt = resultSet.getString("salt");
                     String enteredPasswordHash = hashPassword(password, storedSalt);
@@ -232,6 +269,8 @@ public class UserDAO {
         } catch (SQLException e) {
             LOGGER.error("Ошибка при верификации пароля пользователя: {}", e.getMessage());
             return false;
+        } finally {
+            event.finish(rows);
         }
     }
 }
@@ -1,6 +1,5 @@
 package com.ollogi.server.main;
 
-import com.general.command.Command;
 import com.general.io.Interrogator;
 import com.general.managers.CollectionManager;
 import com.general.managers.CommandManager;
@@ -8,94 +7,187 @@ import com.general.models.Flat;
 import com.general.network.Request;
 import com.general.network.Response;
 import com.ollogi.server.commands.*;
+import com.ollogi.server.commands.admin.Connections;
+import com.ollogi.server.commands.admin.LogLevel;
+import com.ollogi.server.commands.admin.Pools;
+import com.ollogi.server.commands.admin.Reload;
+import com.ollogi.server.commands.admin.Snapshot;
 import com.ollogi.server.data.FlatDAO;
 import com.ollogi.server.data.UserDAO;
+import com.ollogi.server.managers.ChangeFeed;
+import com.ollogi.server.managers.Authenticator;
+import com.ollogi.server.managers.CachingAuthenticator;
+import com.ollogi.server.managers.ConnectionManager;
+import com.ollogi.server.managers.DatabaseAuthenticator;
+import com.ollogi.server.managers.DatabaseManager;
 import com.ollogi.server.managers.FlatCollectionManager;
+import com.ollogi.server.managers.FollowerCollectionManager;
+import com.ollogi.server.managers.TransactionManager;
+import com.ollogi.server.monitoring.MetricsServer;
+import com.ollogi.server.monitoring.PrometheusExporter;
+import com.ollogi.server.monitoring.SlowRequestLog;
 import com.ollogi.server.network.Handler;
+import com.ollogi.server.network.LeaderAuthenticator;
+import com.ollogi.server.network.LeaderConnection;
+import com.ollogi.server.network.Replicator;
 import com.ollogi.server.network.TCPServer;
+import com.ollogi.server.network.TCPWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.Scanner;
+import java.util.concurrent.Executor;
 
 import static com.ollogi.server.managers.DatabaseManager.createDatabaseIfNotExists;
 
 public class Main {
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
-    private static final int PORT = 28374;
 
     public static void main(String[] args) {
+        ServerConfig config = ServerConfig.load();
         Interrogator.setUserScanner(new Scanner(System.in));
-        createDatabaseIfNotExists();
-        CollectionManager<Flat> collectionManager = initializeCollectionManager();
-
-        startConsoleListener(collectionManager);
-
-        CommandManager commandManager = initializeCommandManager(collectionManager);
-        startServer(commandManager);
+        ConnectionManager.setApplicationName(config.getNodeId());
+        LeaderConnection leader = config.isFollower() ? new LeaderConnection(config.getLeaderHost(), config.getLeaderPort(),
+                config.getReplicationLogin(), config.getReplicationPassword()) : null;
+        // У ведомого сервера нет своей базы данных: коллекция и проверка пользователей идут через ведущий
+        if (leader == null) createDatabaseIfNotExists();
+        FollowerCollectionManager follower = leader != null ? new FollowerCollectionManager(leader) : null;
+        UserDAO userDAO = leader == null ? new UserDAO() : null;
+        CollectionManager<Flat> collectionManager = follower != null ? follower : initializeCollectionManager(userDAO);
+        Authenticator authenticator = new CachingAuthenticator(leader != null ? new LeaderAuthenticator(leader)
+                : new DatabaseAuthenticator(userDAO, DatabaseManager.getExecutor()), config.getAuthCacheTtlMillis());
+        CommandManager commandManager = initializeCommandManager(collectionManager, userDAO, authenticator);
+
+        if (follower != null) {
+            startReplication(follower, commandManager, config);
+        } else {
+            startChangeFeed(collectionManager, config);
+        }
+
+        startConsoleListener(collectionManager, commandManager);
+        startMetricsServer(collectionManager, commandManager, config);
+        startServer(commandManager, config);
     }
 
-    private static CollectionManager<Flat> initializeCollectionManager() {
-        return new FlatCollectionManager(new FlatDAO(), new UserDAO());
+    private static CollectionManager<Flat> initializeCollectionManager(UserDAO userDAO) {
+        return new FlatCollectionManager(new FlatDAO(), userDAO);
     }
 
-    private static CommandManager initializeCommandManager(CollectionManager<Flat> collectionManager) {
+    private static CommandManager initializeCommandManager(CollectionManager<Flat> collectionManager, UserDAO userDAO,
+                                                           Authenticator authenticator) {
         CommandManager commandManager = new CommandManager();
-        UserDAO userDAO = new UserDAO();
-        Handler.setUserDAO(userDAO);
-        initCommands(collectionManager, commandManager, userDAO);
+        Handler.setAuthenticator(authenticator);
+        initCommands(collectionManager, commandManager, userDAO, authenticator);
+        commandManager.setCollectionManager(collectionManager);
         return commandManager;
     }
 
-    private static void startServer(CommandManager commandManager) {
+    private static void startServer(CommandManager commandManager, ServerConfig config) {
         Handler.setCommandManager(commandManager);
-        new TCPServer(PORT).start();
+        if (config.isSlowRequestLogEnabled()) {
+            TCPWriter.setSlowRequestLog(new SlowRequestLog(config.getSlowRequestThresholdMillis(),
+                    config.getSlowRequestBufferSize()));
+            logger.info("Журнал медленных запросов включен, порог {} мс", config.getSlowRequestThresholdMillis());
+        }
+        new TCPServer(config.getPort()).start();
+    }
+
+    private static void startReplication(FollowerCollectionManager follower, CommandManager commandManager,
+                                         ServerConfig config) {
+        String leader = config.getLeaderHost() + ":" + config.getLeaderPort();
+        commandManager.setReadOnly("Сервер только читает копию коллекции, изменения выполняются на сервере " + leader);
+        new Replicator(follower, config.getReplicationPollMillis()).start();
+        logger.info("Ведомый сервер, коллекция повторяет сервер {}", leader);
     }
 
-    public static void initCommands(CollectionManager<Flat> collectionManager, CommandManager commandManager, UserDAO userDAO) {
+    private static void startChangeFeed(CollectionManager<Flat> collectionManager, ServerConfig config) {
+        if (!config.isChangeFeedEnabled()) return;
+        new ChangeFeed(config.getNodeId(), new FlatDAO(), collectionManager).start();
+    }
+
+    private static void startMetricsServer(CollectionManager<Flat> collectionManager, CommandManager commandManager,
+                                           ServerConfig config) {
+        if (!config.isMetricsEnabled()) return;
+        try {
+            new MetricsServer(config.getMetricsHost(), config.getMetricsPort(),
+                    new PrometheusExporter(commandManager.getStatistics(), collectionManager)).start();
+        } catch (IOException e) {
+            logger.error("Не удалось запустить сервер метрик: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Регистрирует команды клиентов.
+     *
+     * @param userDAO       таблица пользователей или null, если у сервера нет своей базы данных (ведомый сервер):
+     *                      тогда регистрация недоступна, а транзакции не открывают транзакцию базы данных
+     * @param authenticator проверка учетных данных для команды login
+     */
+    public static void initCommands(CollectionManager<Flat> collectionManager, CommandManager commandManager,
+                                    UserDAO userDAO, Authenticator authenticator) {
+        Executor dbExecutor = DatabaseManager.getExecutor();
         commandManager.register("help", new Help(commandManager));
         commandManager.register("info", new Info(collectionManager));
         commandManager.register("show", new Show<>(collectionManager));
-        commandManager.register("add", new Add<>(collectionManager));
-        commandManager.register("update", new Update<>(collectionManager));
-        commandManager.register("remove_by_id", new RemoveById<>(collectionManager));
+        commandManager.register("add", new Add<>(collectionManager, dbExecutor));
+        commandManager.register("update", new Update<>(collectionManager, dbExecutor));
+        commandManager.register("remove_by_id", new RemoveById<>(collectionManager, dbExecutor));
         commandManager.register("clear", new Clear(collectionManager));
         commandManager.register("remove_greater", new RemoveGreater<>(collectionManager));
         commandManager.register("remove_lower", new RemoveLower<>(collectionManager));
         commandManager.register("add_if_min", new AddIfMin<>(collectionManager));
         commandManager.register("sum_of_height", new SumOfHeight(collectionManager));
+        commandManager.register("aggregate", new Aggregate(collectionManager));
         commandManager.register("group_counting_by_house", new GroupCountingByHouse(collectionManager));
         commandManager.register("filter_starts_with_name", new FilterStartsWithName(collectionManager));
-        commandManager.register("register", new Register(userDAO));
-        commandManager.register("login", new Login(userDAO));
-        Command executeScriptCommand = new Command("execute_script", "исполнить скрипт из указанного файла") {
+        commandManager.register("sync", new Sync<>(collectionManager));
+        if (userDAO != null) commandManager.register("register", new Register(userDAO, dbExecutor));
+        commandManager.register("login", new Login(authenticator));
+        commandManager.register("stats", new Stats(commandManager.getStatistics()));
+        TransactionManager transactionManager = new TransactionManager(collectionManager, userDAO != null);
+        commandManager.register("execute_script", new ExecuteScript(commandManager, transactionManager, dbExecutor));
+        commandManager.register("transaction", new Transaction(commandManager, transactionManager, dbExecutor));
 
-            public Request execute(String[] arguments) {
-                return null; // Stub implementation
-            }
+    }
 
-            @Override
-            public Response execute(Request request) {
-                return null; // Stub implementation
-            }
-        };
-        commandManager.register("execute_script", executeScriptCommand);
 
+    /**
+     * Регистрирует команды консоли сервера. У консоли свой менеджер команд, поэтому эти команды
+     * недоступны клиентам, а их вызовы не попадают в статистику клиентских запросов.
+     */
+    public static CommandManager initAdminCommands(CollectionManager<Flat> collectionManager, CommandManager commandManager) {
+        CommandManager adminCommands = new CommandManager();
+        adminCommands.register("help", new Help(adminCommands));
+        adminCommands.register("stats", new Stats(commandManager.getStatistics(), true));
+        adminCommands.register("pools", new Pools());
+        adminCommands.register("connections", new Connections());
+        adminCommands.register("snapshot", new Snapshot(collectionManager));
+        adminCommands.register("reload", new Reload(collectionManager));
+        adminCommands.register("log", new LogLevel());
+        return adminCommands;
     }
 
-
-    private static void startConsoleListener(CollectionManager<Flat> collectionManager) {
+    private static void startConsoleListener(CollectionManager<Flat> collectionManager, CommandManager commandManager) {
+        CommandManager adminCommands = initAdminCommands(collectionManager, commandManager);
         new Thread(() -> {
             Scanner scanner = new Scanner(System.in);
-            while (true) {
+            while (scanner.hasNextLine()) {
                 String input = scanner.nextLine().trim();
+                if (input.isEmpty()) continue;
                 if ("exit".equalsIgnoreCase(input)) {
                     logger.info("Завершение работы программы...");
                     System.exit(0);
+                }
+                String[] userCommand = (input + " ").split(" ", 2);
+                userCommand[1] = userCommand[1].trim();
+                Response response = adminCommands.handle(new Request(userCommand[0], userCommand[1].isEmpty() ? null : userCommand));
+                if (response.isSuccess()) {
+                    logger.info("{}", response.getMessage());
                 } else {
-                    logger.warn("Неизвестная команда: {}", input);
+                    logger.warn("{}", response.getMessage());
                 }
             }
-        }).start();
+        }, "admin-console").start();
     }
 }
@@ -0,0 +1,124 @@
+package com.ollogi.server.main;
+
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Properties;
+
+/**
+ * Настройки сервера из файла {@code server.properties}. Любую настройку можно переопределить
+ * системным свойством с тем же именем, например {@code -Dslow.request.threshold.ms=200}.
+ */
+@Getter
+public class ServerConfig {
+    private static final Logger logger = LoggerFactory.getLogger("ServerConfig");
+    private static final String FILE = "server.properties";
+    // Длиннее PostgreSQL не хранит application_name, по которому узнаются собственные изменения
+    private static final int MAX_NODE_ID_LENGTH = 63;
+
+    private final int port;
+    private final long slowRequestThresholdMillis;
+    private final int slowRequestBufferSize;
+    private final String metricsHost;
+    private final int metricsPort;
+    private final String nodeId;
+    private final boolean changeFeedEnabled;
+    private final String leaderHost;
+    private final int leaderPort;
+    private final String replicationLogin;
+    private final String replicationPassword;
+    private final long replicationPollMillis;
+    private final long authCacheTtlMillis;
+
+    private ServerConfig(Properties properties) {
+        this.port = Integer.parseInt(get(properties, "server.port", "28374"));
+        this.slowRequestThresholdMillis = Long.parseLong(get(properties, "slow.request.threshold.ms", "0"));
+        this.slowRequestBufferSize = Integer.parseInt(get(properties, "slow.request.buffer.size", "1024"));
+        this.metricsHost = get(properties, "metrics.host", "127.0.0.1");
+        this.metricsPort = Integer.parseInt(get(properties, "metrics.port", "0"));
+        String configuredNodeId = get(properties, "node.id", "");
+        this.nodeId = configuredNodeId.isEmpty() ? defaultNodeId() : configuredNodeId;
+        if (nodeId.length() > MAX_NODE_ID_LENGTH) {
+            throw new IllegalArgumentException("node.id не может быть длиннее " + MAX_NODE_ID_LENGTH + " символов");
+        }
+        this.changeFeedEnabled = Boolean.parseBoolean(get(properties, "change.feed.enabled", "false"));
+        String leader = get(properties, "replication.leader", "");
+        if (leader.isEmpty()) {
+            this.leaderHost = null;
+            this.leaderPort = 0;
+        } else {
+            int separator = leader.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("replication.leader должен иметь вид <адрес>:<порт>");
+            }
+            this.leaderHost = leader.substring(0, separator);
+            this.leaderPort = Integer.parseInt(leader.substring(separator + 1));
+        }
+        this.replicationLogin = get(properties, "replication.login", "");
+        this.replicationPassword = get(properties, "replication.password", "");
+        this.replicationPollMillis = Long.parseLong(get(properties, "replication.poll.ms", "100"));
+        this.authCacheTtlMillis = Long.parseLong(get(properties, "auth.cache.ttl.ms", "60000"));
+    }
+
+    /**
+     * Читает настройки из {@code server.properties} в classpath; отсутствующие настройки получают значения по умолчанию.
+     *
+     * @return настройки сервера
+     * @throws NumberFormatException    если числовая настройка задана неверно
+     * @throws IllegalArgumentException если идентификатор сервера слишком длинный или адрес ведущего сервера задан неверно
+     */
+    public static ServerConfig load() {
+        Properties properties = new Properties();
+        try (InputStream input = ServerConfig.class.getClassLoader().getResourceAsStream(FILE)) {
+            if (input == null) {
+                logger.warn("Файл {} не найден, используются настройки по умолчанию", FILE);
+            } else {
+                properties.load(input);
+            }
+        } catch (IOException e) {
+            logger.error("Ошибка при загрузке файла настроек: {}", e.getMessage());
+        }
+        return new ServerConfig(properties);
+    }
+
+    private static String get(Properties properties, String name, String defaultValue) {
+        return System.getProperty(name, properties.getProperty(name, defaultValue)).trim();
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        String suffix = "-" + ProcessHandle.current().pid();
+        return host.substring(0, Math.min(host.length(), MAX_NODE_ID_LENGTH - suffix.length())) + suffix;
+    }
+
+    /**
+     * @return true, если журнал медленных запросов включен
+     */
+    public boolean isSlowRequestLogEnabled() {
+        return slowRequestThresholdMillis > 0;
+    }
+
+    /**
+     * @return true, если включен HTTP-сервер метрик
+     */
+    public boolean isMetricsEnabled() {
+        return metricsPort > 0;
+    }
+
+    /**
+     * @return true, если сервер ведомый: повторяет коллекцию ведущего сервера и только читает ее
+     */
+    public boolean isFollower() {
+        return leaderHost != null;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ollogi.server.managers;
+
+import com.general.models.User;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Проверка учетных данных, с которыми пришел запрос клиента. Проверка может обращаться к базе данных,
+ * поэтому ее результат - будущее значение: поток, принявший запрос, не ждет ответа базы.
+ */
+public interface Authenticator {
+
+    /**
+     * Проверяет имя пользователя и пароль.
+     *
+     * @param login    имя пользователя
+     * @param password пароль
+     * @return будущий пользователь или null, если пользователь не найден или пароль неверен;
+     * будущее завершается исключением, если проверить учетные данные не удалось
+     */
+    CompletableFuture<User> authenticate(String login, String password);
+}
@@ -0,0 +1,66 @@
+package com.ollogi.server.managers;
+
+import com.general.models.User;
+import com.ollogi.server.utility.PasswordHashing;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Запоминает пользователей, успешно прошедших проверку, на заданное время. Пока запись действует,
+ * пароль сверяется с хешем из нее без обращения к базе данных или ведущему серверу, поэтому
+ * повторные запросы одного клиента (и опросы ведомых серверов) не нагружают базу.
+ * Неверный пароль и истекшая запись проверяются заново исходным способом.
+ */
+public class CachingAuthenticator implements Authenticator {
+    // Сколько записей можно накопить, прежде чем удалять истекшие
+    private static final int EVICTION_THRESHOLD = 1024;
+    private final Authenticator delegate;
+    private final long ttlNanos;
+    private final Map<String, Entry> verified = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate  исходный способ проверки
+     * @param ttlMillis сколько миллисекунд действует запись о пользователе
+     */
+    public CachingAuthenticator(Authenticator delegate, long ttlMillis) {
+        this.delegate = delegate;
+        this.ttlNanos = ttlMillis * 1_000_000;
+    }
+
+    @Override
+    public CompletableFuture<User> authenticate(String login, String password) {
+        Entry entry = verified.get(login);
+        long now = System.nanoTime();
+        if (entry != null && now - entry.verifiedAt < ttlNanos) {
+            User user = entry.user;
+            if (PasswordHashing.verifyPassword(password, user.getSalt(), user.getPasswordHash())) {
+                return CompletableFuture.completedFuture(user);
+            }
+        }
+        return delegate.authenticate(login, password).thenApply(user -> {
+            if (user == null) {
+                verified.remove(login);
+            } else {
+                verified.put(login, new Entry(user, now));
+                if (verified.size() > EVICTION_THRESHOLD) evictExpired(now);
+            }
+            return user;
+        });
+    }
+
+    private void evictExpired(long now) {
+        verified.values().removeIf(entry -> now - entry.verifiedAt >= ttlNanos);
+    }
+
+    private static final class Entry {
+        private final User user;
+        private final long verifiedAt;
+
+        private Entry(User user, long verifiedAt) {
+            this.user = user;
+            this.verifiedAt = verifiedAt;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.ollogi.server.managers;
+
+import com.general.managers.CollectionDelta;
+import com.general.managers.CollectionManager;
+import com.general.models.Flat;
+import com.ollogi.server.data.FlatDAO;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Лента изменений таблицы "flats": применяет к коллекции в памяти изменения, сделанные другими серверами
+ * с той же базой данных или вручную через SQL. Триггер таблицы (см. {@link FlatDAO#createFlatsTable})
+ * после фиксации транзакции отправляет в канал {@link FlatDAO#CHANGES_CHANNEL} операцию, ID квартиры
+ * и {@code application_name} изменившего соединения; по последнему отбрасываются собственные изменения сервера,
+ * которые уже применены к коллекции.
+ * <p>
+ * Уведомление несет только ID, а актуальная квартира читается из базы данных, поэтому порядок и повторы
+ * уведомлений не важны: коллекция приходит к состоянию таблицы. Уведомления, отправленные, пока сервер
+ * не слушал канал (при запуске или после обрыва соединения), теряются, поэтому после каждой подписки
+ * коллекция перечитывается целиком ({@link CollectionManager#reload()}), не блокируя читающие команды.
+ */
+public class ChangeFeed {
+    private static final Logger logger = LoggerFactory.getLogger("ChangeFeed");
+    private static final int POLL_MILLIS = 500;
+    private static final long MIN_RETRY_MILLIS = 1_000;
+    private static final long MAX_RETRY_MILLIS = 30_000;
+
+    private final String nodeId;
+    private final FlatDAO flatDAO;
+    private final CollectionManager<Flat> collectionManager;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * @param nodeId            идентификатор этого сервера, совпадающий с именем приложения его соединений
+     *                          (см. {@link ConnectionManager#setApplicationName(String)})
+     * @param flatDAO           источник актуальных квартир
+     * @param collectionManager коллекция, к которой применяются изменения
+     */
+    public ChangeFeed(String nodeId, FlatDAO flatDAO, CollectionManager<Flat> collectionManager) {
+        this.nodeId = nodeId;
+        this.flatDAO = flatDAO;
+        this.collectionManager = collectionManager;
+        this.thread = new Thread(this::run, "change-feed");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Запускает поток, слушающий канал изменений.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Останавливает поток; уже полученные изменения применяются до остановки.
+     */
+    public void close() {
+        running = false;
+        thread.interrupt();
+    }
+
+    private void run() {
+        long retryMillis = MIN_RETRY_MILLIS;
+        while (running) {
+            try (Connection connection = ConnectionManager.getConnection()) {
+                if (connection == null) throw new SQLException("нет соединения с базой данных");
+                PGConnection listener = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + FlatDAO.CHANGES_CHANNEL);
+                }
+                collectionManager.reload();
+                logger.info("Подписка на изменения коллекции, сервер {}", nodeId);
+                retryMillis = MIN_RETRY_MILLIS;
+
+                while (running) {
+                    PGNotification[] notifications = listener.getNotifications(POLL_MILLIS);
+                    if (notifications == null || notifications.length == 0) continue;
+                    List<String> payloads = new ArrayList<>(notifications.length);
+                    for (PGNotification notification : notifications) payloads.add(notification.getParameter());
+                    apply(payloads);
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) break;
+                logger.warn("Лента изменений прервана: {}. Повтор через {} мс", e.getMessage(), retryMillis);
+                try {
+                    Thread.sleep(retryMillis);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+                retryMillis = Math.min(retryMillis * 2, MAX_RETRY_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Применяет к коллекции уведомления одной пачки. Несколько уведомлений об одной квартире
+     * сводятся к одному чтению из базы данных. Изменяющие команды этого сервера на это время ждут.
+     *
+     * @param payloads сообщения уведомлений в порядке получения
+     * @return количество примененных изменений
+     * @throws SQLException если квартиру не удалось прочитать из базы данных
+     */
+    int apply(List<String> payloads) throws SQLException {
+        Map<Long, Boolean> deleted = new LinkedHashMap<>();
+        for (String payload : payloads) {
+            String[] parts = payload.split(":", 3);
+            if (parts.length != 3) {
+                logger.warn("Неизвестное уведомление об изменении: {}", payload);
+                continue;
+            }
+            if (nodeId.equals(parts[2])) continue;
+            long id;
+            try {
+                id = Long.parseLong(parts[1]);
+            } catch (NumberFormatException e) {
+                logger.warn("Неизвестное уведомление об изменении: {}", payload);
+                continue;
+            }
+            deleted.remove(id);
+            deleted.put(id, "DELETE".equals(parts[0]));
+        }
+        if (deleted.isEmpty()) return 0;
+
+        // Чтение и применение выполняются в очереди записи: иначе изменение этого сервера, зафиксированное
+        // между чтением квартиры и применением, было бы перезаписано прочитанным до него состоянием
+        List<CollectionDelta.Change<Flat>> changes = new ArrayList<>(deleted.size());
+        collectionManager.writerLock().lock();
+        try {
+            for (Map.Entry<Long, Boolean> entry : deleted.entrySet()) {
+                Flat flat = entry.getValue() ? null : flatDAO.getFlatById(entry.getKey());
+                changes.add(flat == null ? CollectionDelta.Change.removed(entry.getKey()) : CollectionDelta.Change.added(flat));
+            }
+            collectionManager.applyDelta(CollectionDelta.changes(collectionManager.getEpoch(),
+                    collectionManager.getVersion(), changes));
+        } finally {
+            collectionManager.writerLock().unlock();
+        }
+        logger.debug("Применено изменений от других серверов: {}", changes.size());
+        return changes.size();
+    }
+}
@@ -19,6 +19,7 @@ public class ConnectionManager {
     public static final String dbName;
     private static String user;
     private static String password;
+    private static volatile String applicationName;
 
     static {
         InputStream input = null;
@@ -32,10 +33,11 @@ public class ConnectionManager {
             Properties properties = new Properties();
             properties.load(input);
 
-            dbUrl = properties.getProperty("db.url");
-            dbName = properties.getProperty("db.name");
-            user = properties.getProperty("db.user");
-            password = properties.getProperty("db.password");
+            // Системные свойства с теми же именами переопределяют файл, например для тестов с локальной базой
+            dbUrl = System.getProperty("db.url", properties.getProperty("db.url"));
+            dbName = System.getProperty("db.name", properties.getProperty("db.name"));
+            user = System.getProperty("db.user", properties.getProperty("db.user"));
+            password = System.getProperty("db.password", properties.getProperty("db.password"));
 
             // Проверка на наличие необходимых значений
             if (dbUrl == null || dbName == null || user == null || password == null) {
@@ -56,6 +58,16 @@ public class ConnectionManager {
         }
     }
 
+    /**
+     * Задает имя приложения для новых соединений ({@code application_name} в PostgreSQL).
+     * По нему уведомления об изменениях таблиц отличают изменения этого сервера от изменений других.
+     *
+     * @param name имя приложения (не длиннее 63 символов)
+     */
+    public static void setApplicationName(String name) {
+        applicationName = name;
+    }
+
     /**
      * Получает соединение с базой данных.
      *
@@ -64,7 +76,9 @@ public class ConnectionManager {
     public static Connection getConnection() {
         try {
             // Возвращаем соединение с базой данных с использованием указанных учетных данных.
-            return DriverManager.getConnection(dbUrl + dbName);
+            Properties info = new Properties();
+            if (applicationName != null) info.setProperty("ApplicationName", applicationName);
+            return DriverManager.getConnection(dbUrl + dbName, info);
         } catch (SQLException e) {
             logError("Не удалось установить соединение", e);
             return null;
@@ -0,0 +1,42 @@
+package com.ollogi.server.managers;
+
+import com.general.models.User;
+import com.ollogi.server.data.UserDAO;
+import com.ollogi.server.utility.PasswordHashing;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Проверяет учетные данные по таблице пользователей. Запрос к базе выполняется в пуле потоков
+ * базы данных (см. {@link DatabaseManager#getExecutor()}), а пароль сверяется с хешем уже прочитанной
+ * записи, поэтому на одну проверку приходится один запрос.
+ */
+public class DatabaseAuthenticator implements Authenticator {
+    private final UserDAO userDAO;
+    private final Executor executor;
+
+    /**
+     * @param userDAO  доступ к таблице пользователей
+     * @param executor пул потоков, в котором выполняются запросы к базе данных
+     */
+    public DatabaseAuthenticator(UserDAO userDAO, Executor executor) {
+        this.userDAO = userDAO;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<User> authenticate(String login, String password) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                User user = userDAO.getUserByUsername(login);
+                return user != null && PasswordHashing.verifyPassword(password, user.getSalt(), user.getPasswordHash())
+                        ? user : null;
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+}
@@ -2,11 +2,18 @@ package com.ollogi.server.managers;
 
 import com.ollogi.server.data.FlatDAO;
 import com.ollogi.server.data.UserDAO;
+import com.ollogi.server.monitoring.RequestTrace;
+import com.ollogi.server.monitoring.ServerMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.ollogi.server.managers.ConnectionManager.*;
 
@@ -23,6 +30,46 @@ public class DatabaseManager {
     private static final FlatDAO flatDAO = new FlatDAO();
     private static final Logger logger = LoggerFactory.getLogger("DatabaseManager");
     private static final ThreadLocal<Connection> threadLocalConnection = new ThreadLocal<>();
+    private static final int EXECUTOR_THREADS = 8;
+    private static final ExecutorService executor = createExecutor();
+
+    static {
+        ServerMetrics.registerExecutor("database", executor);
+    }
+
+    private static ExecutorService createExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(EXECUTOR_THREADS, EXECUTOR_THREADS, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            // Поток пула завершается при уменьшении пула (команда pools), его соединение закрывается вместе с ним
+            Thread thread = new Thread(() -> {
+                try {
+                    runnable.run();
+                } finally {
+                    closeThreadConnection();
+                }
+            }, "db-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }) {
+            @Override
+            public void execute(Runnable command) {
+                // Время запросов к базе учитывается в хронометраже запроса клиента, отправившего задачу
+                super.execute(RequestTrace.propagate(command));
+            }
+        };
+    }
+
+    /**
+     * Возвращает пул потоков для операций с базой данных. У каждого потока пула
+     * свое соединение (см. {@link #getConnection()}), поэтому запросы к базе
+     * не занимают потоки, обрабатывающие сетевые запросы.
+     *
+     * @return пул потоков для работы с базой данных
+     */
+    public static ExecutorService getExecutor() {
+        return executor;
+    }
 
 
     /**
@@ -43,6 +90,17 @@ public class DatabaseManager {
         return connection;
     }
 
+    private static void closeThreadConnection() {
+        Connection connection = threadLocalConnection.get();
+        threadLocalConnection.remove();
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("Не удалось закрыть соединение потока {}: {}", Thread.currentThread().getName(), e.getMessage());
+        }
+    }
+
     /**
      * Создаёт базу данных, если она еще не существует, и инициализирует таблицы.
      * Если база данных уже существует, создаются только отсутствующие таблицы.
@@ -0,0 +1,28 @@
+package com.ollogi.server.managers;
+
+import com.general.models.Flat;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Числовые поля квартир, для которых коллекции сервера поддерживают агрегаты (команды sum_of_height и aggregate).
+ * Одни и те же поля регистрируют коллекция ведущего сервера и коллекция ведомого.
+ */
+final class FlatAggregates {
+
+    private FlatAggregates() {
+    }
+
+    /**
+     * Передает имя и функцию извлечения каждого поля.
+     *
+     * @param registrar регистрация агрегата в коллекции
+     */
+    static void registerAll(BiConsumer<String, Function<? super Flat, ? extends Number>> registrar) {
+        registrar.accept("height", Flat::getHeight);
+        registrar.accept("area", Flat::getArea);
+        registrar.accept("numberOfRooms", Flat::getNumberOfRooms);
+        registrar.accept("kitchenArea", Flat::getKitchenArea);
+    }
+}
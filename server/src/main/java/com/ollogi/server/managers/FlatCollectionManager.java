@@ -5,11 +5,13 @@ import com.general.models.Flat;
 import com.ollogi.server.data.FlatDAO;
 import com.ollogi.server.data.UserDAO;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.PriorityQueue;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Класс {@code FlatCollectionManager} управляет коллекцией объектов типа {@link Flat}.
@@ -30,6 +32,7 @@ public class FlatCollectionManager extends CollectionManager<Flat> {
     public FlatCollectionManager(FlatDAO flatDAO, UserDAO userDAO) {
         this.flatDAO = flatDAO;
         this.userDAO = userDAO;
+        FlatAggregates.registerAll(this::registerAggregate);
         loadCollection();
     }
 
@@ -44,39 +47,44 @@ public class FlatCollectionManager extends CollectionManager<Flat> {
     }
 
     /**
-     * Загружает коллекцию объектов Flat из базы данных и сортирует её.
+     * Загружает коллекцию объектов Flat из базы данных.
      */
     @Override
     protected void loadCollection() {
         Collection<Flat> loadedCollection = flatDAO.getAllFlats();
         setCollection(loadedCollection);
-        sortCollection();  // Сортировка коллекции после загрузки
         setLastInitTime(LocalDateTime.now());
     }
 
     /**
-     * Возвращает идентификатор объекта Flat.
+     * Читает все объекты Flat из базы данных для перезагрузки коллекции.
      *
-     * @param element объект Flat, для которого нужно получить ID.
-     * @return ID объекта Flat.
+     * @return объекты Flat из базы данных
+     * @throws IllegalStateException если прочитать базу данных не удалось
      */
     @Override
-    protected Long getId(Flat element) {
-        return element.getId();
+    protected Collection<Flat> fetchCollection() {
+        try {
+            return flatDAO.selectAllFlats();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Ошибка при чтении квартир из базы данных: " + e.getMessage(), e);
+        }
     }
 
     /**
-     * Синхронизированный метод для установки новой коллекции объектов Flat.
+     * Возвращает идентификатор объекта Flat.
      *
-     * @param collection коллекция объектов Flat для установки.
+     * @param element объект Flat, для которого нужно получить ID.
+     * @return ID объекта Flat.
      */
-    private synchronized void setCollection(Collection<Flat> collection) {
-        super.getCollection().clear();
-        super.getCollection().addAll(collection);
+    @Override
+    protected Long getId(Flat element) {
+        return element.getId();
     }
 
     /**
-     * Добавляет объект Flat в коллекцию и базу данных.
+     * Добавляет объект Flat в коллекцию и базу данных. Запрос к базе выполняется без очереди записи,
+     * в коллекцию объект попадает после фиксации вставки.
      *
      * @param username имя пользователя, добавляющего объект.
      * @param element  объект Flat для добавления.
@@ -88,13 +96,35 @@ public class FlatCollectionManager extends CollectionManager<Flat> {
         long id = flatDAO.insertFlat(element);
         if (id < 0) return id;
         element.setId(id);
-        synchronized (this) {
-            return super.addToCollection("", element);
+        return super.addToCollection("", element);
+    }
+
+    /**
+     * Обновляет объект Flat в базе данных и коллекции. Владелец проверяется по строке в базе одним запросом
+     * с обновлением, запрос выполняется без очереди записи, а в коллекции объект заменяется после фиксации
+     * обновления.
+     *
+     * @param newElement новое значение объекта Flat
+     * @param username   пользователь, обновляющий объект
+     * @return {@code true}, если объект обновлен; {@code false}, если его нет или он принадлежит другому пользователю
+     * @throws IllegalStateException если обновить объект в базе данных не удалось
+     */
+    @Override
+    public boolean updateInCollection(Flat newElement, String username) {
+        newElement.setUsername(username);
+        try {
+            if (!flatDAO.updateFlat(newElement, username)) return false;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Ошибка при обновлении квартиры в базе данных: " + e.getMessage(), e);
         }
+        super.updateInCollection(newElement);
+        return true;
     }
 
     /**
-     * Удаляет объект Flat из коллекции и базы данных.
+     * Удаляет объект Flat из коллекции и базы данных. Запрос к базе выполняется без очереди записи,
+     * а из коллекции удаляется объект с тем же ID, даже если его успели обновить: строка в базе уже удалена.
+     * Из двух одновременных удалений одного объекта успешно только то, чье удаление в базе затронуло строку.
      *
      * @param element  объект Flat для удаления.
      * @param username
@@ -109,19 +139,32 @@ public class FlatCollectionManager extends CollectionManager<Flat> {
         } catch (Exception e) {
             return false;
         }
-        synchronized (this) {
-            return super.removeFromCollection(element, username);
-        }
+        return removeById(element.getId());
     }
 
     /**
-     * Сортирует коллекцию объектов Flat по имени.
+     * Удаляет объекты Flat пользователя из базы данных одним запросом, а затем из коллекции за один проход.
+     * Объекты других пользователей пропускаются.
+     *
+     * @param elements объекты Flat для удаления
+     * @param username пользователь, удаляющий объекты
+     * @return количество удаленных объектов
+     * @throws IllegalStateException если удалить объекты из базы данных не удалось
      */
     @Override
-    public synchronized void sortCollection() {
-        Collection<Flat> sortedCollection = getCollection().stream()
-                .sorted(Comparator.comparing(Flat::getName))
-                .collect(Collectors.toList());
-        setCollection(sortedCollection);
+    public int removeAllFromCollection(Collection<? extends Flat> elements, String username) {
+        Map<Long, Flat> owned = new HashMap<>();
+        for (Flat element : elements) {
+            if (element != null && username.equals(element.getUsername())) owned.put(element.getId(), element);
+        }
+        if (owned.isEmpty()) return 0;
+        Set<Long> removed;
+        try {
+            removed = flatDAO.removeFlatsByIds(owned.keySet(), username);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Ошибка при удалении квартир из базы данных: " + e.getMessage(), e);
+        }
+        owned.keySet().retainAll(removed);
+        return super.removeAllFromCollection(owned.values(), username);
     }
 }
@@ -0,0 +1,36 @@
+package com.ollogi.server.managers;
+
+import com.general.managers.ReplicatedCollectionManager;
+import com.general.models.Flat;
+import com.general.network.Request;
+import com.general.network.Response;
+import com.ollogi.server.network.LeaderConnection;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Коллекция ведомого сервера: копия коллекции ведущего сервера, которая заполняется только
+ * изменениями от него (см. {@link com.ollogi.server.network.Replicator}) и не обращается к базе данных.
+ * Перезагрузка коллекции запрашивает у ведущего полный снимок.
+ */
+public class FollowerCollectionManager extends ReplicatedCollectionManager<Flat> {
+    private final LeaderConnection leader;
+
+    /**
+     * @param leader соединение с ведущим сервером
+     */
+    public FollowerCollectionManager(LeaderConnection leader) {
+        this.leader = leader;
+        FlatAggregates.registerAll(this::registerAggregate);
+    }
+
+    @Override
+    protected Response requestChanges(Long[] cursor) {
+        try {
+            return leader.send(new Request("sync", cursor));
+        } catch (IOException | TimeoutException e) {
+            return new Response(false, "Ведущий сервер " + leader.getAddress() + " недоступен: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.ollogi.server.managers;
+
+import com.general.managers.CollectionManager;
+import com.general.network.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Класс {@code TransactionManager} выполняет группу команд как одну транзакцию: все изменения
+ * попадают в одну транзакцию базы данных (на соединении текущего потока) и в одно изменение коллекции.
+ * Пока транзакция открыта, удерживается только очередь записи коллекции, а изменения копятся в рабочей копии;
+ * блокировка записи захватывается лишь для подмены коллекции после фиксации в базе, поэтому читающие команды
+ * транзакцию не ждут. Если хотя бы одна команда завершилась неуспешно, откатываются и база, и коллекция.
+ */
+public class TransactionManager {
+    private static final Logger logger = LoggerFactory.getLogger("TransactionManager");
+    private final CollectionManager<?> collectionManager;
+    private final boolean database;
+
+    public TransactionManager(CollectionManager<?> collectionManager) {
+        this(collectionManager, true);
+    }
+
+    /**
+     * @param collectionManager коллекция, изменения которой откатываются вместе с транзакцией
+     * @param database          открывать ли транзакцию базы данных; у ведомого сервера своей базы нет,
+     *                          и транзакция затрагивает только коллекцию
+     */
+    public TransactionManager(CollectionManager<?> collectionManager, boolean database) {
+        this.collectionManager = collectionManager;
+        this.database = database;
+    }
+
+    /**
+     * Выполняет работу в транзакции. Работа должна выполняться в текущем потоке,
+     * так как соединение с базой данных привязано к потоку.
+     * Транзакция, начатая внутри другой транзакции, присоединяется к внешней.
+     *
+     * @param work работа; неуспешный ответ означает откат
+     * @return ответ работы или ответ с ошибкой, если транзакцию не удалось зафиксировать
+     */
+    public Response inTransaction(Supplier<Response> work) {
+        if (collectionManager.isInTransaction()) {
+            return work.get();
+        }
+
+        collectionManager.beginTransaction();
+        Connection connection = null;
+        boolean committed = false;
+        try {
+            if (database) {
+                connection = DatabaseManager.getConnection();
+                connection.setAutoCommit(false);
+            }
+
+            Response response = work.get();
+            if (response == null || !response.isSuccess()) {
+                return response;
+            }
+            if (connection != null) connection.commit();
+            committed = true;
+            return response;
+        } catch (SQLException | RuntimeException e) {
+            logger.error("Ошибка выполнения транзакции: {}", e.getMessage());
+            return new Response(false, "Транзакция отменена: " + e.getMessage());
+        } finally {
+            if (committed) {
+                collectionManager.commitTransaction();
+            } else {
+                rollback(connection);
+                collectionManager.rollbackTransaction();
+            }
+            restoreAutoCommit(connection);
+        }
+    }
+
+    private void rollback(Connection connection) {
+        if (connection == null) return;
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            logger.error("Ошибка отката транзакции: {}", e.getMessage());
+        }
+    }
+
+    private void restoreAutoCommit(Connection connection) {
+        if (connection == null) return;
+        try {
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            logger.error("Ошибка восстановления режима автоматической фиксации: {}", e.getMessage());
+        }
+    }
+}
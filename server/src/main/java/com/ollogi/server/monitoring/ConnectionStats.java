@@ -0,0 +1,67 @@
+package com.ollogi.server.monitoring;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики одного соединения клиента: количество запросов и объем принятых и отправленных данных.
+ * Обновляются потоками чтения и отправки без блокировок.
+ */
+public class ConnectionStats {
+    @Getter
+    private final String address;
+    @Getter
+    private final Instant openedAt = Instant.now();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+
+    /**
+     * @param address адрес клиента
+     */
+    public ConnectionStats(String address) {
+        this.address = address;
+    }
+
+    /**
+     * Учитывает полученный запрос.
+     *
+     * @param bytes размер кадра с запросом
+     */
+    public void received(long bytes) {
+        requests.increment();
+        bytesIn.add(bytes);
+    }
+
+    /**
+     * Учитывает отправленный ответ.
+     *
+     * @param bytes размер кадра с ответом
+     */
+    public void sent(long bytes) {
+        bytesOut.add(bytes);
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    /**
+     * @return среднее количество запросов в секунду за время соединения
+     */
+    public double getRequestsPerSecond() {
+        double seconds = Duration.between(openedAt, Instant.now()).toMillis() / 1000.0;
+        return seconds <= 0 ? 0 : getRequests() / seconds;
+    }
+}
@@ -0,0 +1,65 @@
+package com.ollogi.server.monitoring;
+
+import com.general.managers.stats.RequestStage;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Событие JFR: запрос к базе данных из DAO. Идентификатор запроса - имя вида {@code flats.insert},
+ * а не текст SQL, чтобы события было удобно группировать. По умолчанию записываются запросы от 1 мс.
+ * Независимо от записи JFR длительность запроса добавляется к хронометражу запроса клиента,
+ * привязанного к текущему потоку (см. {@link RequestTrace}).
+ */
+@Name("com.ollogi.DatabaseQuery")
+@Label("Запрос к базе данных")
+@Category({"Ollogi", "База данных"})
+@Description("Выполнение SQL-запроса DAO")
+@StackTrace(false)
+@Threshold("1 ms")
+public class DatabaseQueryEvent extends Event {
+    @Label("Запрос")
+    String query;
+
+    @Label("Строк")
+    @Description("Количество прочитанных или измененных строк")
+    long rows;
+
+    @Label("Успешно")
+    boolean success;
+
+    private transient long startNanos;
+
+    /**
+     * Создает событие и начинает отсчет длительности запроса.
+     *
+     * @param query идентификатор запроса
+     * @return начатое событие
+     */
+    public static DatabaseQueryEvent start(String query) {
+        DatabaseQueryEvent event = new DatabaseQueryEvent();
+        event.query = query;
+        event.startNanos = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Завершает событие и записывает его, если оно включено и превысило порог.
+     * Удобно вызывать в блоке finally, оставив -1, если запрос завершился исключением.
+     *
+     * @param rows количество прочитанных или измененных строк или -1, если запрос не выполнен
+     */
+    public void finish(long rows) {
+        RequestTrace.addToCurrent(RequestStage.DATABASE, System.nanoTime() - startNanos);
+        end();
+        if (!shouldCommit()) return;
+        this.rows = Math.max(rows, 0);
+        this.success = rows >= 0;
+        commit();
+    }
+}
@@ -0,0 +1,93 @@
+package com.ollogi.server.monitoring;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP-сервер метрик на встроенном в JDK {@link HttpServer}: по запросу {@code GET /metrics}
+ * отдает метрики в текстовом формате Prometheus. Запросы обслуживаются одним потоком,
+ * отдельным от потоков, обрабатывающих клиентов.
+ */
+public class MetricsServer {
+    private static final Logger logger = LoggerFactory.getLogger("MetricsServer");
+    private static final String PATH = "/metrics";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final PrometheusExporter exporter;
+
+    /**
+     * Открывает порт сервера метрик, не начиная обслуживать запросы.
+     *
+     * @param host     адрес, на котором принимаются запросы (например, 127.0.0.1, чтобы метрики были доступны только локально)
+     * @param port     порт (0 - любой свободный порт)
+     * @param exporter источник метрик
+     * @throws IOException если порт не удалось открыть
+     */
+    public MetricsServer(String host, int port, PrometheusExporter exporter) throws IOException {
+        this.exporter = exporter;
+        this.server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext(PATH, this::handle);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Начинает обслуживать запросы.
+     */
+    public void start() {
+        server.start();
+        logger.info("Метрики доступны по адресу http://{}:{}{}", server.getAddress().getHostString(), getPort(), PATH);
+    }
+
+    /**
+     * Останавливает сервер метрик.
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /**
+     * @return порт, на котором принимаются запросы
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body;
+            try {
+                body = exporter.scrape().getBytes(StandardCharsets.UTF_8);
+            } catch (RuntimeException e) {
+                logger.error("Ошибка сбора метрик: {}", e.getMessage());
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", PrometheusExporter.CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.ollogi.server.monitoring;
+
+import com.general.managers.CollectionManager;
+import com.general.managers.stats.LatencyHistogram;
+import com.general.managers.stats.RequestStage;
+import com.general.managers.stats.StatsRegistry;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Формирует метрики сервера в текстовом формате Prometheus. Все значения читаются из уже существующих
+ * счетчиков в момент выгрузки, поэтому на обработку запросов сбор метрик не влияет.
+ */
+public class PrometheusExporter {
+    /**
+     * Тип содержимого текстового формата Prometheus.
+     */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final StatsRegistry statistics;
+    private final CollectionManager<?> collectionManager;
+
+    /**
+     * @param statistics        статистика команд и этапов обработки запросов
+     * @param collectionManager менеджер коллекции (может быть null)
+     */
+    public PrometheusExporter(StatsRegistry statistics, CollectionManager<?> collectionManager) {
+        this.statistics = statistics;
+        this.collectionManager = collectionManager;
+    }
+
+    /**
+     * @return текущие значения всех метрик
+     */
+    public String scrape() {
+        StringBuilder sb = new StringBuilder(4096);
+        appendConnections(sb);
+        appendCommands(sb);
+        appendStages(sb);
+        appendExecutors(sb);
+        appendCollection(sb);
+        appendJvm(sb);
+        return sb.toString();
+    }
+
+    private void appendConnections(StringBuilder sb) {
+        header(sb, "lab7_connections_open", "gauge", "Открытые соединения клиентов");
+        sample(sb, "lab7_connections_open", null, null, ServerMetrics.getConnectionsOpen());
+        header(sb, "lab7_connections_accepted_total", "counter", "Принятые соединения с момента запуска");
+        sample(sb, "lab7_connections_accepted_total", null, null, ServerMetrics.getConnectionsOpened());
+    }
+
+    private void appendCommands(StringBuilder sb) {
+        header(sb, "lab7_requests_total", "counter", "Выполненные команды");
+        for (String command : statistics.getCommandNames()) {
+            sample(sb, "lab7_requests_total", "command", command, statistics.getCommandLatency(command).count());
+        }
+        header(sb, "lab7_request_errors_total", "counter", "Команды, завершившиеся неуспешно");
+        for (String command : statistics.getCommandNames()) {
+            sample(sb, "lab7_request_errors_total", "command", command, statistics.getCommandErrors(command));
+        }
+        header(sb, "lab7_request_duration_seconds", "summary", "Длительность выполнения команд");
+        for (String command : statistics.getCommandNames()) {
+            summary(sb, "lab7_request_duration_seconds", "command", command, statistics.getCommandLatency(command));
+        }
+    }
+
+    private void appendStages(StringBuilder sb) {
+        header(sb, "lab7_request_stage_duration_seconds", "summary", "Длительность этапов обработки запросов");
+        for (RequestStage stage : RequestStage.values()) {
+            summary(sb, "lab7_request_stage_duration_seconds", "stage", stage.name().toLowerCase(Locale.ROOT),
+                    statistics.getStageLatency(stage));
+        }
+    }
+
+    private void appendExecutors(StringBuilder sb) {
+        Map<String, ExecutorService> executors = ServerMetrics.getExecutors();
+        header(sb, "lab7_executor_queue_size", "gauge", "Задачи, ожидающие в очереди пула потоков");
+        for (Map.Entry<String, ExecutorService> entry : executors.entrySet()) {
+            ExecutorService executor = entry.getValue();
+            long queued = executor instanceof ThreadPoolExecutor pool ? pool.getQueue().size()
+                    : executor instanceof ForkJoinPool pool ? pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount() : 0;
+            sample(sb, "lab7_executor_queue_size", "pool", entry.getKey(), queued);
+        }
+        header(sb, "lab7_executor_active_threads", "gauge", "Потоки пула, выполняющие задачи");
+        for (Map.Entry<String, ExecutorService> entry : executors.entrySet()) {
+            ExecutorService executor = entry.getValue();
+            long active = executor instanceof ThreadPoolExecutor pool ? pool.getActiveCount()
+                    : executor instanceof ForkJoinPool pool ? pool.getActiveThreadCount() : 0;
+            sample(sb, "lab7_executor_active_threads", "pool", entry.getKey(), active);
+        }
+        header(sb, "lab7_executor_threads", "gauge", "Потоки пула");
+        for (Map.Entry<String, ExecutorService> entry : executors.entrySet()) {
+            ExecutorService executor = entry.getValue();
+            long size = executor instanceof ThreadPoolExecutor pool ? pool.getPoolSize()
+                    : executor instanceof ForkJoinPool pool ? pool.getPoolSize() : 0;
+            sample(sb, "lab7_executor_threads", "pool", entry.getKey(), size);
+        }
+    }
+
+    private void appendCollection(StringBuilder sb) {
+        if (collectionManager == null) return;
+        header(sb, "lab7_collection_size", "gauge", "Элементы коллекции");
+        sample(sb, "lab7_collection_size", null, null, collectionManager.collectionSize());
+        header(sb, "lab7_collection_version", "counter", "Версия коллекции (количество изменений с загрузки)");
+        sample(sb, "lab7_collection_version", null, null, collectionManager.getVersion());
+    }
+
+    private static void appendJvm(StringBuilder sb) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        MemoryUsage nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+        header(sb, "jvm_memory_used_bytes", "gauge", "Используемая память JVM");
+        sample(sb, "jvm_memory_used_bytes", "area", "heap", heap.getUsed());
+        sample(sb, "jvm_memory_used_bytes", "area", "nonheap", nonHeap.getUsed());
+        header(sb, "jvm_memory_committed_bytes", "gauge", "Выделенная JVM память");
+        sample(sb, "jvm_memory_committed_bytes", "area", "heap", heap.getCommitted());
+        sample(sb, "jvm_memory_committed_bytes", "area", "nonheap", nonHeap.getCommitted());
+        header(sb, "jvm_memory_max_bytes", "gauge", "Максимальный размер памяти JVM (-1, если не ограничен)");
+        sample(sb, "jvm_memory_max_bytes", "area", "heap", heap.getMax());
+        sample(sb, "jvm_memory_max_bytes", "area", "nonheap", nonHeap.getMax());
+
+        header(sb, "jvm_gc_collection_seconds", "summary", "Сборки мусора по сборщикам");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            labelled(sb, "jvm_gc_collection_seconds_count", "gc", gc.getName()).append(Math.max(0, gc.getCollectionCount())).append('\n');
+            labelled(sb, "jvm_gc_collection_seconds_sum", "gc", gc.getName()).append(Math.max(0, gc.getCollectionTime()) / 1000.0).append('\n');
+        }
+        header(sb, "jvm_threads_live", "gauge", "Живые потоки JVM");
+        sample(sb, "jvm_threads_live", null, null, ManagementFactory.getThreadMXBean().getThreadCount());
+    }
+
+    private static void summary(StringBuilder sb, String name, String label, String value, LatencyHistogram histogram) {
+        for (double quantile : QUANTILES) {
+            labelled(sb, name, label, value).setLength(sb.length() - 2);
+            sb.append(",quantile=\"").append(quantile).append("\"} ")
+                    .append(seconds(histogram.percentile(quantile * 100))).append('\n');
+        }
+        labelled(sb, name + "_sum", label, value).append(seconds(histogram.sum())).append('\n');
+        labelled(sb, name + "_count", label, value).append(histogram.count()).append('\n');
+    }
+
+    private static void header(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder sb, String name, String label, String value, long sample) {
+        if (label == null) {
+            sb.append(name).append(' ');
+        } else {
+            labelled(sb, name, label, value);
+        }
+        sb.append(sample).append('\n');
+    }
+
+    /**
+     * Добавляет имя метрики с одной меткой и пробел перед значением.
+     */
+    private static StringBuilder labelled(StringBuilder sb, String name, String label, String value) {
+        sb.append(name).append('{').append(label).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') sb.append('\\').append(c);
+            else if (c == '\n') sb.append("\\n");
+            else sb.append(c);
+        }
+        return sb.append("\"} ");
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,67 @@
+package com.ollogi.server.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import java.nio.channels.SocketChannel;
+
+/**
+ * Событие JFR: ожидание задачи в очереди пула потоков сервера от постановки до начала выполнения.
+ * По умолчанию записываются ожидания от 1 мс.
+ */
+@Name("com.ollogi.QueueWait")
+@Label("Ожидание в очереди")
+@Category({"Ollogi", "Сервер"})
+@Description("Время от постановки задачи в пул потоков до начала ее выполнения")
+@StackTrace(false)
+@Threshold("1 ms")
+public class QueueWaitEvent extends Event {
+    /**
+     * Пул чтения из сокетов.
+     */
+    public static final String READER = "чтение";
+    /**
+     * Пул обработчиков запросов.
+     */
+    public static final String HANDLER = "обработка";
+    /**
+     * Пул отправки ответов.
+     */
+    public static final String SENDER = "отправка";
+
+    @Label("Очередь")
+    String queue;
+
+    @Label("Клиент")
+    String client;
+
+    /**
+     * Создает событие в момент постановки задачи в очередь.
+     *
+     * @param queue имя очереди
+     * @return начатое событие
+     */
+    public static QueueWaitEvent enqueued(String queue) {
+        QueueWaitEvent event = new QueueWaitEvent();
+        event.queue = queue;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Завершает событие в момент начала выполнения задачи.
+     *
+     * @param channel канал клиента
+     */
+    public void dequeued(SocketChannel channel) {
+        end();
+        if (!shouldCommit()) return;
+        client = RequestStageEvent.addressOf(channel);
+        commit();
+    }
+}
@@ -0,0 +1,96 @@
+package com.ollogi.server.monitoring;
+
+import com.general.managers.stats.RequestStage;
+import com.general.network.Request;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Событие JFR: этап обработки запроса клиента (десериализация, авторизация, выполнение, сериализация, запись).
+ * По умолчанию записываются этапы длительностью от 1 мс; порог меняется настройкой
+ * {@code com.ollogi.RequestStage#threshold} в файле настроек JFR.
+ */
+@Name("com.ollogi.RequestStage")
+@Label("Этап обработки запроса")
+@Category({"Ollogi", "Сервер"})
+@Description("Длительность этапа обработки запроса клиента")
+@StackTrace(false)
+@Threshold("1 ms")
+public class RequestStageEvent extends Event {
+    @Label("Этап")
+    String stage;
+
+    @Label("Команда")
+    String command;
+
+    @Label("Пользователь")
+    String user;
+
+    @Label("Клиент")
+    @Description("Адрес клиента; вместе с ID запроса однозначно определяет запрос")
+    String client;
+
+    @Label("ID запроса")
+    long requestId;
+
+    @Label("Размер данных")
+    @DataAmount
+    long payloadSize;
+
+    @Label("Успешно")
+    boolean success = true;
+
+    /**
+     * Создает событие и начинает отсчет его длительности.
+     *
+     * @param stage этап обработки
+     * @return начатое событие
+     */
+    public static RequestStageEvent start(RequestStage stage) {
+        RequestStageEvent event = new RequestStageEvent();
+        event.stage = stage.getTitle();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Завершает событие и записывает его, если оно включено и превысило порог.
+     *
+     * @param channel     канал клиента
+     * @param requestId   ID запроса
+     * @param request     запрос (может быть null, если он еще не прочитан или недействителен)
+     * @param payloadSize размер данных этапа в байтах
+     * @param success     успешно ли завершился этап
+     */
+    public void finish(SocketChannel channel, long requestId, Request request, long payloadSize, boolean success) {
+        end();
+        if (!shouldCommit()) return;
+        this.client = addressOf(channel);
+        this.requestId = requestId;
+        if (request != null) {
+            this.command = request.getCommand();
+            this.user = request.getLogin();
+        }
+        this.payloadSize = payloadSize;
+        this.success = success;
+        commit();
+    }
+
+    static String addressOf(SocketChannel channel) {
+        if (channel == null) return null;
+        try {
+            return String.valueOf(channel.getRemoteAddress());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
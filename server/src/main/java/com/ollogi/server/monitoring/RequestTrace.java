@@ -0,0 +1,154 @@
+package com.ollogi.server.monitoring;
+
+import com.general.managers.stats.RequestStage;
+import com.general.network.Request;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.nio.channels.SocketChannel;
+import java.util.function.Supplier;
+
+/**
+ * Хронометраж одного запроса клиента: длительности этапов от чтения кадра из сокета до записи ответа.
+ * Объект передается от потока чтения обработчику и затем потоку отправки; этапы записываются
+ * последовательно, поэтому синхронизация не нужна - передача задачи в пул потоков упорядочивает записи.
+ * <p>
+ * Пока поток выполняет работу по запросу, хронометраж привязан к нему (см. {@link #attach()}),
+ * чтобы запросы к базе данных могли добавить свое время, не зная о запросе клиента.
+ */
+public class RequestTrace {
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos;
+    private final long[] stageNanos = new long[RequestStage.values().length];
+    @Getter
+    private final SocketChannel channel;
+    @Getter
+    private final long bytesIn;
+    @Getter
+    @Setter
+    private long requestId;
+    @Getter
+    @Setter
+    private Request request;
+    @Getter
+    @Setter
+    private long bytesOut;
+    @Getter
+    @Setter
+    private ConnectionStats connection;
+    @Getter
+    private long totalNanos;
+    @Getter
+    private boolean success;
+
+    /**
+     * @param channel    канал клиента
+     * @param startNanos момент начала чтения кадра ({@link System#nanoTime()})
+     * @param bytesIn    размер тела кадра с запросом
+     */
+    public RequestTrace(SocketChannel channel, long startNanos, long bytesIn) {
+        this.channel = channel;
+        this.startNanos = startNanos;
+        this.bytesIn = bytesIn;
+    }
+
+    /**
+     * Добавляет длительность к этапу; этап может встречаться несколько раз (например, ожидание в двух очередях).
+     *
+     * @param stage этап
+     * @param nanos длительность в наносекундах
+     */
+    public void add(RequestStage stage, long nanos) {
+        stageNanos[stage.ordinal()] += nanos;
+    }
+
+    /**
+     * @param stage этап
+     * @return суммарная длительность этапа в наносекундах
+     */
+    public long get(RequestStage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+
+    /**
+     * Отмечает окончание обработки запроса после записи ответа.
+     *
+     * @param success успешно ли выполнен запрос
+     */
+    public void finish(boolean success) {
+        this.totalNanos = System.nanoTime() - startNanos;
+        this.success = success;
+    }
+
+    /**
+     * @return адрес клиента или null, если канал закрыт
+     */
+    public String getClient() {
+        return RequestStageEvent.addressOf(channel);
+    }
+
+    /**
+     * Привязывает хронометраж к текущему потоку.
+     */
+    public void attach() {
+        CURRENT.set(this);
+    }
+
+    /**
+     * Отвязывает хронометраж от текущего потока.
+     */
+    public static void detach() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Выполняет работу с привязанным к текущему потоку хронометражем этого запроса и затем
+     * восстанавливает прежнюю привязку. Нужен продолжениям, которые выполняет поток, завершивший
+     * задачу другого запроса.
+     *
+     * @param work работа
+     * @return результат работы
+     */
+    public <V> V call(Supplier<V> work) {
+        RequestTrace previous = CURRENT.get();
+        attach();
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) detach();
+            else previous.attach();
+        }
+    }
+
+    /**
+     * Добавляет длительность к этапу запроса, привязанного к текущему потоку, если такой есть.
+     *
+     * @param stage этап
+     * @param nanos длительность в наносекундах
+     */
+    public static void addToCurrent(RequestStage stage, long nanos) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) trace.add(stage, nanos);
+    }
+
+    /**
+     * Оборачивает задачу так, чтобы в потоке, который ее выполнит, был привязан хронометраж
+     * запроса, привязанного к текущему потоку в момент вызова.
+     *
+     * @param task задача
+     * @return задача с переносом хронометража или сама задача, если к текущему потоку ничего не привязано
+     */
+    public static Runnable propagate(Runnable task) {
+        RequestTrace trace = CURRENT.get();
+        if (trace == null) return task;
+        return () -> {
+            trace.attach();
+            try {
+                task.run();
+            } finally {
+                detach();
+            }
+        };
+    }
+}
@@ -0,0 +1,97 @@
+package com.ollogi.server.monitoring;
+
+import java.nio.channels.SocketChannel;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики сервера, которые не хранятся в {@link com.general.managers.stats.StatsRegistry}:
+ * соединения клиентов и пулы потоков. Счетчики соединений обновляются без блокировок и выделения памяти
+ * (объект счетчиков создается один раз при подключении), состояние пулов читается только при выгрузке метрик.
+ */
+public final class ServerMetrics {
+    private static final LongAdder connectionsOpened = new LongAdder();
+    private static final Map<SocketChannel, ConnectionStats> connections = new ConcurrentHashMap<>();
+    private static final Map<String, ExecutorService> executors = new ConcurrentSkipListMap<>();
+
+    private ServerMetrics() {
+    }
+
+    /**
+     * Регистрирует пул потоков, размер очереди и загрузку которого нужно выгружать.
+     *
+     * @param name     имя пула в метриках
+     * @param executor пул потоков
+     */
+    public static void registerExecutor(String name, ExecutorService executor) {
+        executors.put(name, executor);
+    }
+
+    /**
+     * Убирает пул потоков из метрик.
+     *
+     * @param name имя пула в метриках
+     */
+    public static void unregisterExecutor(String name) {
+        executors.remove(name);
+    }
+
+    /**
+     * @return зарегистрированные пулы потоков по именам
+     */
+    public static Map<String, ExecutorService> getExecutors() {
+        return executors;
+    }
+
+    /**
+     * Отмечает новое соединение клиента.
+     *
+     * @param channel канал клиента
+     */
+    public static void connectionOpened(SocketChannel channel) {
+        connectionsOpened.increment();
+        connections.put(channel, new ConnectionStats(RequestStageEvent.addressOf(channel)));
+    }
+
+    /**
+     * Отмечает закрытие соединения клиента. Повторный вызов для того же канала ничего не делает.
+     *
+     * @param channel канал клиента
+     */
+    public static void connectionClosed(SocketChannel channel) {
+        connections.remove(channel);
+    }
+
+    /**
+     * @param channel канал клиента
+     * @return счетчики соединения или null, если соединение не зарегистрировано или уже закрыто
+     */
+    public static ConnectionStats connection(SocketChannel channel) {
+        return connections.get(channel);
+    }
+
+    /**
+     * @return счетчики открытых соединений
+     */
+    public static Collection<ConnectionStats> getConnections() {
+        return connections.values();
+    }
+
+    /**
+     * @return количество принятых соединений с момента запуска
+     */
+    public static long getConnectionsOpened() {
+        return connectionsOpened.sum();
+    }
+
+    /**
+     * @return количество открытых сейчас соединений
+     */
+    public static long getConnectionsOpen() {
+        return connections.size();
+    }
+}
@@ -0,0 +1,135 @@
+package com.ollogi.server.monitoring;
+
+import com.general.managers.stats.RequestStage;
+import com.general.network.Request;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Журнал медленных запросов. Запрос, обработка которого заняла больше порога, записывается один раз
+ * с командой, пользователем, объемом данных и длительностями этапов.
+ * <p>
+ * Потоки сервера только кладут хронометраж в кольцевой буфер без блокировок; форматированием
+ * и записью в лог занимается отдельный поток. Если буфер переполнен, запись отбрасывается,
+ * а количество отброшенных записей выводится со следующей записью.
+ */
+public class SlowRequestLog {
+    private static final Logger logger = LoggerFactory.getLogger("SlowRequests");
+    private static final long IDLE_PARK_NANOS = 10_000_000L;
+
+    @Getter
+    private final long thresholdNanos;
+    private final AtomicReferenceArray<RequestTrace> buffer;
+    private final AtomicLong head = new AtomicLong();
+    private volatile long tail;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    /**
+     * @param thresholdMillis порог длительности запроса в миллисекундах
+     * @param capacity        размер буфера записей, ожидающих вывода
+     */
+    public SlowRequestLog(long thresholdMillis, int capacity) {
+        if (thresholdMillis <= 0) throw new IllegalArgumentException("Порог должен быть положительным");
+        if (capacity <= 0) throw new IllegalArgumentException("Размер буфера должен быть положительным");
+        this.thresholdNanos = thresholdMillis * 1_000_000L;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.writer = new Thread(this::drain, "slow-request-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Передает завершенный запрос журналу; запросы быстрее порога игнорируются. Никогда не блокируется.
+     *
+     * @param trace хронометраж завершенного запроса
+     * @return true, если запрос медленный и принят к записи
+     */
+    public boolean offer(RequestTrace trace) {
+        if (trace.getTotalNanos() < thresholdNanos) return false;
+        int capacity = buffer.length();
+        while (true) {
+            long position = head.get();
+            if (position - tail >= capacity) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            if (head.compareAndSet(position, position + 1)) {
+                buffer.set((int) (position % capacity), trace);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Останавливает поток записи, предварительно выведя накопленные записи.
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return количество записей, отброшенных из-за переполнения буфера и еще не упомянутых в логе
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void drain() {
+        int capacity = buffer.length();
+        while (true) {
+            int index = (int) (tail % capacity);
+            RequestTrace trace = buffer.get(index);
+            if (trace == null) {
+                // Ячейка пуста или уже занята производителем, но еще не заполнена
+                if (!running && tail == head.get()) return;
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            buffer.set(index, null);
+            tail = tail + 1;
+            if (logger.isWarnEnabled()) logger.warn(format(trace, dropped.getAndSet(0)));
+        }
+    }
+
+    /**
+     * Формирует строку журнала для медленного запроса.
+     *
+     * @param trace   хронометраж запроса
+     * @param dropped количество записей, отброшенных перед этой
+     * @return строка журнала
+     */
+    static String format(RequestTrace trace, long dropped) {
+        Request request = trace.getRequest();
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Медленный запрос %.1f мс: команда=%s, пользователь=%s, клиент=%s, id=%d, успешно=%s, "
+                        + "получено %d Б, отправлено %d Б;",
+                millis(trace.getTotalNanos()),
+                request == null ? null : request.getCommand(),
+                request == null ? null : request.getLogin(),
+                trace.getClient(), trace.getRequestId(), trace.isSuccess() ? "да" : "нет",
+                trace.getBytesIn(), trace.getBytesOut()));
+        for (RequestStage stage : RequestStage.values()) {
+            sb.append(String.format(" %s %.1f мс,", stage.getTitle(), millis(trace.get(stage))));
+        }
+        sb.setLength(sb.length() - 1);
+        if (dropped > 0) sb.append(" (пропущено записей: ").append(dropped).append(')');
+        return sb.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,141 @@
+package com.ollogi.server.network;
+
+import com.general.network.FrameDecoder;
+import com.ollogi.server.monitoring.ServerMetrics;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Состояние соединения с клиентом, привязанное к его ключу селектора: декодер входящих кадров,
+ * очередь исходящих кадров и порядок выполнения запросов.
+ * <p>
+ * Ответ пишется в канал сразу, если очередь отправки пуста; то, что не поместилось в буфер сокета,
+ * ждет в очереди, и ее дописывает поток селектора, когда канал снова готов к записи (OP_WRITE).
+ * Поэтому поток отправки никогда не ждет медленного клиента, а кадры уходят целиком и по одному.
+ * <p>
+ * Клиент может отправить следующий запрос, не дожидаясь ответа на предыдущий, поэтому порядок
+ * задается здесь: обработчики запросов одного соединения выполняются по одному в порядке поступления,
+ * читающий запрос выполняется после всех предыдущих изменяющих, а изменяющий - после всех предыдущих
+ * запросов соединения. Читающие запросы между двумя изменяющими выполняются параллельно, и ответы
+ * на них могут прийти в любом порядке (клиент сопоставляет ответы с запросами по идентификатору).
+ */
+class ClientConnection {
+    @Getter
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    @Getter
+    private final FrameDecoder decoder = new FrameDecoder();
+    // Кадры, ожидающие записи; первый из них может быть записан частично
+    private final Queue<ByteBuffer> outbound = new ArrayDeque<>();
+    // Цепочка обработчиков соединения; продлевается только потоком, читающим соединение
+    private CompletableFuture<Void> handlers = CompletableFuture.completedFuture(null);
+    // Завершение последнего изменяющего запроса и всех запросов; меняются только обработчиками соединения
+    private CompletableFuture<Void> lastWrite = CompletableFuture.completedFuture(null);
+    private CompletableFuture<Void> all = CompletableFuture.completedFuture(null);
+
+    /**
+     * @param channel канал клиента
+     * @param key     ключ канала в селекторе сервера
+     */
+    ClientConnection(SocketChannel channel, SelectionKey key) {
+        this.channel = channel;
+        this.key = key;
+    }
+
+    /**
+     * Отправляет кадр клиенту, не дожидаясь, пока клиент его прочитает.
+     *
+     * @param frame кадр целиком
+     * @throws IOException если соединение закрыто
+     */
+    synchronized void send(ByteBuffer frame) throws IOException {
+        if (outbound.isEmpty()) {
+            channel.write(frame);
+            if (!frame.hasRemaining()) return;
+        }
+        outbound.add(frame);
+        if (outbound.size() == 1) {
+            if (!key.isValid()) throw new ClosedChannelException();
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            key.selector().wakeup();
+        }
+    }
+
+    /**
+     * Дописывает очередь отправки, сколько примет канал. Вызывается потоком селектора,
+     * когда канал готов к записи; когда очередь пуста, запись больше не ожидается.
+     *
+     * @throws IOException если запись не удалась
+     */
+    synchronized void flush() throws IOException {
+        ByteBuffer frame;
+        while ((frame = outbound.peek()) != null) {
+            channel.write(frame);
+            if (frame.hasRemaining()) return;
+            outbound.poll();
+        }
+        setInterest(SelectionKey.OP_WRITE, false);
+    }
+
+    /**
+     * Включает или выключает событие в ключе канала. Ключ меняют поток селектора, читатели
+     * и отправители, поэтому изменения выполняются под монитором соединения.
+     *
+     * @param operation событие {@link SelectionKey}
+     * @param enabled   ожидать ли событие
+     */
+    synchronized void setInterest(int operation, boolean enabled) {
+        if (!key.isValid()) return;
+        key.interestOps(enabled ? key.interestOps() | operation : key.interestOps() & ~operation);
+    }
+
+    /**
+     * Закрывает соединение; неотправленные кадры отбрасываются.
+     *
+     * @throws IOException если канал не удалось закрыть
+     */
+    synchronized void close() throws IOException {
+        outbound.clear();
+        key.cancel();
+        ServerMetrics.connectionClosed(channel);
+        channel.close();
+    }
+
+    /**
+     * Запускает обработчик запроса после обработчиков, запущенных раньше.
+     *
+     * @param handler  обработчик запроса
+     * @param executor пул потоков обработчиков
+     */
+    void dispatch(Runnable handler, Executor executor) {
+        handlers = handlers.exceptionally(throwable -> null).thenRunAsync(handler, executor);
+    }
+
+    /**
+     * Ставит запрос в порядок выполнения. Вызывается обработчиками соединения по одному,
+     * в порядке поступления запросов.
+     *
+     * @param write изменяет ли запрос данные
+     * @param done  будущее, которое завершится вместе с запросом
+     * @return будущее, после завершения которого запрос можно выполнять
+     */
+    CompletableFuture<Void> enter(boolean write, CompletableFuture<Void> done) {
+        if (write) {
+            CompletableFuture<Void> ready = all;
+            lastWrite = done;
+            all = done;
+            return ready;
+        }
+        all = CompletableFuture.allOf(all, done);
+        return lastWrite;
+    }
+}
@@ -1,19 +1,26 @@
 package com.ollogi.server.network;
 
+import com.general.command.Command;
 import com.general.managers.CommandManager;
+import com.general.managers.stats.RequestStage;
+import com.general.managers.stats.StatsRegistry;
 import com.general.models.User;
+import com.general.network.FrameDecoder;
 import com.general.network.Request;
 import com.general.network.Response;
-import com.ollogi.server.data.UserDAO;
-import com.ollogi.server.managers.DatabaseManager;
+import com.ollogi.server.managers.Authenticator;
+import com.ollogi.server.monitoring.QueueWaitEvent;
+import com.ollogi.server.monitoring.RequestStageEvent;
+import com.ollogi.server.monitoring.RequestTrace;
+import com.ollogi.server.monitoring.ServerMetrics;
 import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.nio.channels.SocketChannel;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ForkJoinPool;
 
@@ -25,28 +32,37 @@ public class Handler implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger("Handler");
     private static final Request SAVE_REQUEST = new Request("save", null);
     @Setter
-    private static UserDAO userDAO;
+    private static Authenticator authenticator;
 
     @Setter
     private static CommandManager commandManager;
 
+    private final ClientConnection connection;
     private final SocketChannel clientSocketChannel;
-    private final ByteArrayOutputStream byteArrayOutputStream;
+    private final byte[] requestBytes;
+    private final RequestTrace trace;
+    private long requestId;
+    private final QueueWaitEvent queueWait = QueueWaitEvent.enqueued(QueueWaitEvent.HANDLER);
+    private final long enqueuedAt = System.nanoTime();
     private static final ExecutorService senderPool;
 
     static {
         senderPool = new ForkJoinPool();
+        ServerMetrics.registerExecutor("sender", senderPool);
     }
 
     /**
      * Конструктор для создания нового объекта Handler.
      *
-     * @param clientSocketChannel   Канал сокета, подключенный к клиенту.
-     * @param byteArrayOutputStream Поток вывода, содержащий запрос клиента.
+     * @param connection          Соединение с клиентом.
+     * @param requestBytes        Тело кадра с запросом клиента: идентификатор запроса и сериализованный запрос.
+     * @param trace               Хронометраж запроса, начатый при чтении кадра.
      */
-    public Handler(SocketChannel clientSocketChannel, ByteArrayOutputStream byteArrayOutputStream) {
-        this.clientSocketChannel = clientSocketChannel;
-        this.byteArrayOutputStream = byteArrayOutputStream;
+    Handler(ClientConnection connection, byte[] requestBytes, RequestTrace trace) {
+        this.connection = connection;
+        this.clientSocketChannel = connection.getChannel();
+        this.requestBytes = requestBytes;
+        this.trace = trace;
     }
 
     /**
@@ -55,50 +71,114 @@ public class Handler implements Runnable {
      */
     @Override
     public void run() {
+        queueWait.dequeued(clientSocketChannel);
+        StatsRegistry statistics = commandManager.getStatistics();
+        RequestStageEvent decodeEvent = RequestStageEvent.start(RequestStage.DECODE);
+        boolean decoded = false;
+        trace.attach();
         try {
-            byte[] requestBytes = byteArrayOutputStream.toByteArray();
-            try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(requestBytes))) {
+            long start = System.nanoTime();
+            trace.add(RequestStage.QUEUE, start - enqueuedAt);
+            requestId = FrameDecoder.requestIdOf(requestBytes);
+            trace.setRequestId(requestId);
+            try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(requestBytes,
+                    FrameDecoder.REQUEST_ID_LENGTH, requestBytes.length - FrameDecoder.REQUEST_ID_LENGTH))) {
                 Request request = (Request) objectInputStream.readObject();
+                long decodeNanos = System.nanoTime() - start;
+                statistics.recordStage(RequestStage.DECODE, decodeNanos);
+                trace.add(RequestStage.DECODE, decodeNanos);
+                trace.setRequest(request);
+                decodeEvent.finish(clientSocketChannel, requestId, request, requestBytes.length, true);
+                decoded = true;
                 if ("exit".equals(request.getCommand())) {
                     logger.info("Клиент {} завершил работу", clientSocketChannel.getRemoteAddress());
-                    clientSocketChannel.close();
+                    connection.close();
                     if (commandManager.handle(SAVE_REQUEST).isSuccess())
                         logger.info("Коллекция сохранена");
                     return;
                 }
-                User user = null;
-                if (!"help".equals(request.getCommand()) && !"register".equals(request.getCommand()) && !"login".equals(request.getCommand()) && request.getLogin() != null) {
-                    user = userDAO.getUserByUsername(DatabaseManager.getConnection(), request.getLogin());
-                }
-                handleRequest(request, user);
+                handleRequest(request);
             }
         } catch (Exception e) {
-            logger.error("Ошибка обработки запроса: {}", e.getMessage());
+            if (!decoded) {
+                decodeEvent.finish(clientSocketChannel, requestId, null, requestBytes.length, false);
+            }
+            logger.error("Ошибка обработки запроса {} от {}: {}", requestId, trace.getClient(), e.getMessage());
             sendErrorResponse(clientSocketChannel);
+        } finally {
+            RequestTrace.detach();
         }
     }
 
     /**
      * Обрабатывает входящий запрос, передавая его в CommandManager.
-     * Отправляет обработанный ответ обратно клиенту.
+     * Учетные данные проверяются в пуле потоков базы данных, команда запускается после проверки
+     * и после запросов соединения, которые должны выполниться раньше (см. {@link ClientConnection}),
+     * а ответ отправляется, когда команда завершится; поток обработчика не ждет ни проверки, ни команды.
      *
      * @param request Объект запроса, полученный от клиента.
      */
-    private void handleRequest(Request request, User user) {
-        if (user != null && userDAO.verifyUserPassword(user.getUsername(), request.getPassword())) {
-            request.setUserId(user.getId());
-        } else if (!("login".equals(request.getCommand()) || "register".equals(request.getCommand()) || "help".equals(request.getCommand()))) {
-            sendUnauthorizedResponse(clientSocketChannel);
-            return;
-        }
-        Response response = commandManager.handle(request);
-        senderPool.submit(new TCPWriter(clientSocketChannel, response));
+    private void handleRequest(Request request) {
+        StatsRegistry statistics = commandManager.getStatistics();
+        String commandName = request.getCommand();
+        boolean open = "help".equals(commandName) || "register".equals(commandName) || "login".equals(commandName);
+        Command command = commandManager.getCommands().get(commandName);
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<Void> ready = connection.enter(command != null && !command.isReadOnly(), done);
+
+        RequestStageEvent authEvent = RequestStageEvent.start(RequestStage.AUTH);
+        long authStart = System.nanoTime();
+        CompletableFuture<User> authentication = open || request.getLogin() == null
+                ? CompletableFuture.completedFuture(null)
+                : authenticator.authenticate(request.getLogin(), request.getPassword());
+        authentication.handle((user, throwable) -> {
+            long authNanos = System.nanoTime() - authStart;
+            statistics.recordStage(RequestStage.AUTH, authNanos);
+            trace.add(RequestStage.AUTH, authNanos);
+            authEvent.finish(clientSocketChannel, requestId, request, 0, user != null);
+            if (throwable != null) {
+                logger.error("Ошибка проверки пользователя {}: {}", request.getLogin(), throwable.getMessage());
+                return new Response(false, "Не удалось проверить пользователя, повторите запрос позже");
+            }
+            if (user != null) {
+                request.setUserId(user.getId());
+            } else if (!open) {
+                return unauthorizedResponse();
+            }
+            return null;
+        }).thenCombine(ready, (rejection, ignored) -> rejection).thenCompose(rejection -> rejection != null
+                ? CompletableFuture.completedFuture(rejection)
+                : trace.call(() -> execute(request))
+        ).whenComplete((response, throwable) -> {
+            done.complete(null);
+            if (throwable != null) {
+                logger.error("Ошибка обработки запроса {} от {}: {}", requestId, trace.getClient(), throwable.getMessage());
+                send(new Response(false, "Недействительный запрос"));
+            } else {
+                send(response);
+            }
+        });
+    }
+
+    private CompletableFuture<Response> execute(Request request) {
+        StatsRegistry statistics = commandManager.getStatistics();
+        RequestStageEvent executeEvent = RequestStageEvent.start(RequestStage.EXECUTE);
+        long executeStart = System.nanoTime();
+        return commandManager.handleAsync(request).whenComplete((response, throwable) -> {
+            long executeNanos = System.nanoTime() - executeStart;
+            statistics.recordStage(RequestStage.EXECUTE, executeNanos);
+            trace.add(RequestStage.EXECUTE, executeNanos);
+            executeEvent.finish(clientSocketChannel, requestId, request, 0, response != null && response.isSuccess());
+        });
+    }
+
+    private void send(Response response) {
+        senderPool.submit(new TCPWriter(connection, response, commandManager.getStatistics(), trace));
     }
 
-    private void sendUnauthorizedResponse(SocketChannel channel) {
-        Response response = new Response(false, "Вы не вошли в систему." + '\n' +
+    private static Response unauthorizedResponse() {
+        return new Response(false, "Вы не вошли в систему." + '\n' +
                 "Введите register <login> <password> для регистрации или login <login> <password> для входа");
-        senderPool.submit(new TCPWriter(clientSocketChannel, response));
     }
 
     /**
@@ -107,7 +187,6 @@ public class Handler implements Runnable {
      * @param channel Канал сокета, в который отправляется ответ.
      */
     private void sendErrorResponse(SocketChannel channel) {
-        Response response = new Response(false, "Недействительный запрос");
-        senderPool.submit(new TCPWriter(clientSocketChannel, response));
+        send(new Response(false, "Недействительный запрос"));
     }
 }
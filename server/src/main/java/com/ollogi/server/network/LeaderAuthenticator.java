@@ -0,0 +1,38 @@
+package com.ollogi.server.network;
+
+import com.general.models.User;
+import com.general.network.Request;
+import com.ollogi.server.managers.Authenticator;
+import com.ollogi.server.utility.PasswordHashing;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Проверка учетных данных на ведомом сервере: у ведомого нет своей базы данных, поэтому
+ * он передает имя и пароль ведущему серверу командой login. Для принятых учетных данных
+ * создается запись пользователя с собственным хешем пароля, чтобы ее можно было запомнить
+ * (см. {@link com.ollogi.server.managers.CachingAuthenticator}) и не спрашивать ведущего на каждый запрос.
+ */
+public class LeaderAuthenticator implements Authenticator {
+    private final LeaderConnection leader;
+
+    /**
+     * @param leader соединение с ведущим сервером
+     */
+    public LeaderAuthenticator(LeaderConnection leader) {
+        this.leader = leader;
+    }
+
+    @Override
+    public CompletableFuture<User> authenticate(String login, String password) {
+        Request request = new Request("login", null);
+        request.setLogin(login);
+        request.setPassword(password);
+        return leader.sendAsync(request).thenApply(response -> {
+            if (!response.isSuccess()) return null;
+            String[] hash = PasswordHashing.hashPassword(password);
+            return new User(login, hash[0], hash[1], LocalDateTime.now());
+        });
+    }
+}
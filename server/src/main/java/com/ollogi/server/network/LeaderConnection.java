@@ -0,0 +1,99 @@
+package com.ollogi.server.network;
+
+import com.general.network.AsyncTCPClient;
+import com.general.network.Request;
+import com.general.network.Response;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Соединение ведомого сервера с ведущим. Ведомый подключается к ведущему как обычный клиент
+ * ({@link AsyncTCPClient}) от имени пользователя репликации; после обрыва соединение
+ * устанавливается заново при следующем запросе.
+ */
+public class LeaderConnection implements Closeable {
+    private final String host;
+    private final int port;
+    private final String login;
+    private final String password;
+    private AsyncTCPClient client;
+    private volatile boolean closed;
+
+    /**
+     * @param host     адрес ведущего сервера
+     * @param port     порт ведущего сервера
+     * @param login    пользователь ведущего сервера, от имени которого выполняются запросы
+     * @param password пароль пользователя
+     */
+    public LeaderConnection(String host, int port, String login, String password) {
+        this.host = host;
+        this.port = port;
+        this.login = login;
+        this.password = password;
+    }
+
+    /**
+     * @return адрес ведущего сервера в виде host:port
+     */
+    public String getAddress() {
+        return host + ":" + port;
+    }
+
+    /**
+     * Отправляет запрос ведущему серверу и ждет ответа. Запросы без собственных учетных данных
+     * выполняются от имени пользователя репликации.
+     *
+     * @param request запрос
+     * @return ответ ведущего сервера
+     * @throws IOException      если ведущий сервер недоступен или соединение разорвано
+     * @throws TimeoutException если ведущий сервер не ответил вовремя
+     */
+    public Response send(Request request) throws IOException, TimeoutException {
+        try {
+            return connection().send(request).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException timeout) throw timeout;
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Запрос к ведущему серверу прерван");
+        }
+    }
+
+    /**
+     * Отправляет запрос ведущему серверу, не дожидаясь ответа.
+     *
+     * @param request запрос
+     * @return будущий ответ ведущего сервера; завершается исключением, если ведущий недоступен или не ответил вовремя
+     */
+    public CompletableFuture<Response> sendAsync(Request request) {
+        try {
+            return connection().send(request);
+        } catch (IOException | TimeoutException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private synchronized AsyncTCPClient connection() throws IOException, TimeoutException {
+        if (closed) throw new IOException("Соединение с ведущим сервером закрыто");
+        if (client == null || !client.isConnected()) {
+            if (client != null) client.close();
+            client = new AsyncTCPClient(host, port, AsyncTCPClient.DEFAULT_CONNECT_TIMEOUT,
+                    AsyncTCPClient.DEFAULT_REQUEST_TIMEOUT, ForkJoinPool.commonPool());
+            client.setCredentials(login, password);
+            client.connect();
+        }
+        return client;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (client != null) client.close();
+    }
+}
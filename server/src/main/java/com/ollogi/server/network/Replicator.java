@@ -0,0 +1,76 @@
+package com.ollogi.server.network;
+
+import com.general.managers.CollectionDelta;
+import com.general.network.Response;
+import com.ollogi.server.managers.FollowerCollectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Репликация коллекции ведущего сервера на ведомый: поток, который в цикле синхронизирует копию
+ * ({@link FollowerCollectionManager#sync()}). Изменения приходят в порядке их применения на ведущем.
+ * <p>
+ * Пока изменения есть, следующий запрос отправляется сразу, иначе - через интервал опроса,
+ * поэтому отставание ведомого ограничено интервалом опроса и временем одного запроса.
+ * Если ведущий недоступен, попытки повторяются с растущим интервалом.
+ */
+public class Replicator {
+    private static final Logger logger = LoggerFactory.getLogger("Replicator");
+    private static final long MIN_RETRY_MILLIS = 1_000;
+    private static final long MAX_RETRY_MILLIS = 30_000;
+
+    private final FollowerCollectionManager replica;
+    private final long pollMillis;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * @param replica    копия коллекции ведущего
+     * @param pollMillis интервал опроса, когда новых изменений нет
+     */
+    public Replicator(FollowerCollectionManager replica, long pollMillis) {
+        this.replica = replica;
+        this.pollMillis = pollMillis;
+        this.thread = new Thread(this::run, "replicator");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Запускает поток репликации.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Останавливает поток репликации.
+     */
+    public void close() {
+        running = false;
+        thread.interrupt();
+    }
+
+    private void run() {
+        long retryMillis = MIN_RETRY_MILLIS;
+        try {
+            while (running) {
+                Response response;
+                try {
+                    response = replica.sync();
+                } catch (RuntimeException e) {
+                    response = new Response(false, e.getMessage());
+                }
+                if (!response.isSuccess()) {
+                    logger.warn("Репликация прервана: {}. Повтор через {} мс", response.getMessage(), retryMillis);
+                    Thread.sleep(retryMillis);
+                    retryMillis = Math.min(retryMillis * 2, MAX_RETRY_MILLIS);
+                    continue;
+                }
+                retryMillis = MIN_RETRY_MILLIS;
+                if (((CollectionDelta<?>) response.getData()).size() == 0) Thread.sleep(pollMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package com.ollogi.server.network;
 
+import com.general.managers.stats.RequestStage;
+import com.general.network.FrameDecoder;
+import com.ollogi.server.monitoring.ConnectionStats;
+import com.ollogi.server.monitoring.QueueWaitEvent;
+import com.ollogi.server.monitoring.RequestTrace;
+import com.ollogi.server.monitoring.ServerMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -19,10 +26,12 @@ import java.util.concurrent.Executors;
 public class TCPReader implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger("TCPReader");
     private final SelectionKey key;
+    private final QueueWaitEvent queueWait = QueueWaitEvent.enqueued(QueueWaitEvent.READER);
     private static final ExecutorService handlerService;
 
     static {
         handlerService = Executors.newFixedThreadPool(10);
+        ServerMetrics.registerExecutor("handler", handlerService);
     }
 
     /**
@@ -40,56 +49,70 @@ public class TCPReader implements Runnable {
      */
     @Override
     public void run() {
+        queueWait.dequeued((SocketChannel) key.channel());
         readRequest();
         // Set interest back to OP_READ after parsing is complete
-        key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+        ((ClientConnection) key.attachment()).setInterest(SelectionKey.OP_READ, true);
         // Wake up the selector to update interest operations
         key.selector().wakeup();
     }
 
     /**
-     * Читает входящий запрос из канала сокета клиента.
-     * Этот метод обрабатывает процесс чтения, обеспечивая неблокирующую работу и обработку частичных чтений.
+     * Читает входящие запросы из канала сокета клиента.
+     * Запросы передаются кадрами с длиной в заголовке, поэтому частично прочитанный запрос
+     * дочитывается при следующем событии, а несколько запросов из одного чтения обрабатываются по отдельности.
      */
     private void readRequest() {
         SocketChannel clientSocketChannel = (SocketChannel) key.channel();
+        ClientConnection clientConnection = (ClientConnection) key.attachment();
+        FrameDecoder frameDecoder = clientConnection.getDecoder();
         ByteBuffer buffer = ByteBuffer.allocate(8192);
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        List<byte[]> requests = new ArrayList<>(1);
+        long readStart = System.nanoTime();
 
         try {
             logger.debug("Чтение запроса от {}", clientSocketChannel.getRemoteAddress());
             int bytesRead;
             while ((bytesRead = clientSocketChannel.read(buffer)) > 0) {
                 buffer.flip();
-                byteArrayOutputStream.write(buffer.array(), 0, buffer.limit());
+                requests.addAll(frameDecoder.decode(buffer));
                 buffer.clear();
             }
             if (bytesRead == -1) {
                 // Соединение закрыто клиентом
-                closeConnection(clientSocketChannel);
+                closeConnection(clientConnection);
                 return;
             }
         } catch (IOException e) {
             logger.error("Ошибка чтения данных: {}", e.getMessage());
-            closeConnection(clientSocketChannel);
+            closeConnection(clientConnection);
             return;
         }
 
-        // Запускаем новый обработчик для обработки запроса
-        handlerService.submit(new Handler(clientSocketChannel, byteArrayOutputStream));
+        // Запускаем обработчики для полностью полученных запросов в порядке их поступления;
+        // незавершенный кадр остается в декодере
+        long readNanos = System.nanoTime() - readStart;
+        ConnectionStats connection = ServerMetrics.connection(clientSocketChannel);
+        for (byte[] request : requests) {
+            if (connection != null) connection.received(FrameDecoder.HEADER_LENGTH + request.length);
+            RequestTrace trace = new RequestTrace(clientSocketChannel, readStart, request.length);
+            trace.setConnection(connection);
+            trace.add(RequestStage.READ, readNanos);
+            clientConnection.dispatch(new Handler(clientConnection, request, trace), handlerService);
+        }
     }
 
     /**
      * Закрывает соединение с клиентом.
      * Этот метод обрабатывает закрытие канала и отмену ключа выбора.
      *
-     * @param clientSocketChannel Канал сокета клиента, который нужно закрыть.
+     * @param connection Соединение с клиентом, которое нужно закрыть.
      */
-    private void closeConnection(SocketChannel clientSocketChannel) {
+    private void closeConnection(ClientConnection connection) {
         try {
-            key.cancel();
-            clientSocketChannel.close();
-            logger.info("Соединение закрыто: {}", clientSocketChannel.getRemoteAddress());
+            String address = String.valueOf(connection.getChannel().getRemoteAddress());
+            connection.close();
+            logger.info("Соединение закрыто: {}", address);
         } catch (IOException e) {
             logger.error("Ошибка закрытия канала: {}", e.getMessage());
         }
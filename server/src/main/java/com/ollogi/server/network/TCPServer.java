@@ -1,5 +1,6 @@
 package com.ollogi.server.network;
 
+import com.ollogi.server.monitoring.ServerMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,22 +13,25 @@ import java.util.concurrent.Executors;
 /**
  * TCP-сервер, прослушивающий входящие соединения и обрабатывающий их асинхронно.
  * Сервер разработан для неблокирующей работы, используя Java NIO и селектор для управления несколькими соединениями.
- * Он использует пул потоков для асинхронной обработки операций чтения.
+ * Он использует пул потоков для асинхронной обработки операций чтения, а ответы, которые не удалось
+ * записать сразу, дописывает сам, когда канал клиента готов к записи.
  */
 public class TCPServer {
     private static final Logger logger = LoggerFactory.getLogger("TCPServer");
     private final int port;
     private Selector selector;
     private ServerSocketChannel serverSocketChannel;
+    private volatile boolean running = true;
     private static final ExecutorService readerService;
 
     static {
         readerService = Executors.newFixedThreadPool(10);
+        ServerMetrics.registerExecutor("reader", readerService);
     }
     /**
      * Создает TCP-сервер с указанным портом.
      *
-     * @param port Порт, на котором сервер будет прослушивать входящие соединения.
+     * @param port Порт, на котором сервер будет прослушивать входящие соединения (0 - любой свободный порт).
      */
     public TCPServer(int port) {
         this.port = port;
@@ -38,19 +42,67 @@ public class TCPServer {
      * Этот метод содержит основной цикл сервера, который непрерывно ожидает событий на зарегистрированных каналах.
      */
     public void start() {
-        initServerSocketChannel();
-        while (!Thread.currentThread().isInterrupted()) {
+        if (serverSocketChannel == null) initServerSocketChannel();
+        while (running && !Thread.currentThread().isInterrupted()) {
             select();
             for (SelectionKey key : selector.selectedKeys()) {
+                if (!key.isValid()) continue;
                 if (key.isAcceptable()) {
                     handleAccept();
-                } else if (key.isReadable()) {
-                    key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                    continue;
+                }
+                ClientConnection connection = (ClientConnection) key.attachment();
+                if (key.isWritable()) {
+                    handleWrite(connection);
+                }
+                if (key.isValid() && key.isReadable()) {
+                    connection.setInterest(SelectionKey.OP_READ, false);
                     readerService.submit(new TCPReader(key));
                 }
             }
             selector.selectedKeys().clear();
         }
+        closeServerSocketChannel();
+    }
+
+    /**
+     * Открывает серверный сокет, не запуская основной цикл. Позволяет узнать порт,
+     * выбранный системой, до вызова {@link #start()} в другом потоке.
+     *
+     * @return порт, на котором сервер принимает соединения
+     */
+    public int bind() {
+        if (serverSocketChannel == null) initServerSocketChannel();
+        return getLocalPort();
+    }
+
+    /**
+     * @return порт, на котором сервер принимает соединения, или -1, если сокет не открыт
+     */
+    public int getLocalPort() {
+        return serverSocketChannel == null ? -1 : serverSocketChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Останавливает основной цикл сервера и закрывает серверный сокет и соединения клиентов.
+     */
+    public void stop() {
+        running = false;
+        if (selector != null) selector.wakeup();
+    }
+
+    private void closeServerSocketChannel() {
+        if (selector == null) return;
+        try {
+            for (SelectionKey key : selector.keys()) {
+                if (key.channel() instanceof SocketChannel client) ServerMetrics.connectionClosed(client);
+                key.channel().close();
+            }
+            selector.close();
+            logger.info("Сервер остановлен");
+        } catch (IOException e) {
+            logger.error("Ошибка остановки сервера: {}", e.getMessage());
+        }
     }
 
     /**
@@ -76,7 +128,7 @@ public class TCPServer {
             serverSocketChannel.configureBlocking(false);
             serverSocketChannel.socket().bind(new InetSocketAddress(port));
             serverSocketChannel.register(selector, SelectionKey.OP_ACCEPT);
-            logger.info("Сервер запущен на порту {}", port);
+            logger.info("Сервер запущен на порту {}", serverSocketChannel.socket().getLocalPort());
         } catch (ClosedChannelException e) {
             logger.error("Канал закрыт: {}", e.getMessage());
         } catch (IOException e) {
@@ -84,6 +136,25 @@ public class TCPServer {
         }
     }
 
+    /**
+     * Дописывает клиенту ответы, которые не поместились в буфер сокета при отправке.
+     * Если записать не удалось, соединение закрывается.
+     *
+     * @param connection соединение, готовое к записи
+     */
+    private void handleWrite(ClientConnection connection) {
+        try {
+            connection.flush();
+        } catch (IOException e) {
+            logger.error("Ошибка отправки ответа: {}", e.getMessage());
+            try {
+                connection.close();
+            } catch (IOException closeException) {
+                logger.error("Ошибка закрытия канала: {}", closeException.getMessage());
+            }
+        }
+    }
+
     /**
      * Обрабатывает запрос на входящее соединение.
      * Этот метод принимает соединение, настраивает его как неблокирующее и регистрирует его в селекторе для событий чтения.
@@ -93,7 +164,9 @@ public class TCPServer {
             SocketChannel client = serverSocketChannel.accept();
             if (client != null) {
                 client.configureBlocking(false);
-                client.register(selector, SelectionKey.OP_READ);
+                SelectionKey key = client.register(selector, SelectionKey.OP_READ);
+                key.attach(new ClientConnection(client, key));
+                ServerMetrics.connectionOpened(client);
                 logger.info("Новое соединение: {}", client.getRemoteAddress());
             }
         } catch (IOException e) {
@@ -1,12 +1,18 @@
 package com.ollogi.server.network;
 
+import com.general.managers.stats.RequestStage;
+import com.general.managers.stats.StatsRegistry;
+import com.general.network.FrameEncoder;
 import com.general.network.Response;
+import com.ollogi.server.monitoring.QueueWaitEvent;
+import com.ollogi.server.monitoring.RequestStageEvent;
+import com.ollogi.server.monitoring.RequestTrace;
+import com.ollogi.server.monitoring.SlowRequestLog;
+import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
 
@@ -16,39 +22,82 @@ import java.nio.channels.SocketChannel;
  */
 public class TCPWriter implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger("TCPWriter");
-    private SocketChannel clientSocketChannel;
+    private final ClientConnection connection;
+    private final SocketChannel clientSocketChannel;
     private Response response;
+    private final StatsRegistry statistics;
+    private final RequestTrace trace;
+    private final long requestId;
+    private final QueueWaitEvent queueWait = QueueWaitEvent.enqueued(QueueWaitEvent.SENDER);
+    private final long enqueuedAt = System.nanoTime();
+    @Setter
+    private static SlowRequestLog slowRequestLog;
 
-    TCPWriter(final SocketChannel clientSocketChannel, final Response response) {
-        this.clientSocketChannel = clientSocketChannel;
+    /**
+     * @param statistics статистика, в которую записываются длительности сериализации и записи (может быть null)
+     * @param trace      хронометраж запроса, на который отправляется ответ
+     */
+    TCPWriter(final ClientConnection connection, final Response response, final StatsRegistry statistics,
+              final RequestTrace trace) {
+        this.connection = connection;
+        this.clientSocketChannel = connection.getChannel();
         this.response = response;
+        this.statistics = statistics;
+        this.trace = trace;
+        this.requestId = trace.getRequestId();
     }
 
     public void run() {
+        queueWait.dequeued(clientSocketChannel);
+        trace.add(RequestStage.QUEUE, System.nanoTime() - enqueuedAt);
         sendResponse();
     }
 
     /**
      * Отправляет объект ответа клиенту через указанный сокет-канал.
-     * Ответ сериализуется и записывается в канал неблокирующим способом.
+     * Ответ сериализуется и передается соединению: то, что не поместилось в буфер сокета, дописывает
+     * поток селектора, поэтому этап записи измеряет передачу ответа, а не ожидание клиента.
      */
     public void sendResponse() {
-        try (ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-             ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream)) {
-
+        try {
             logger.debug("Отправка ответа клиенту {}", clientSocketChannel.getRemoteAddress());
-            objectOutputStream.writeObject(response);
-            objectOutputStream.flush();
+            RequestStageEvent encodeEvent = RequestStageEvent.start(RequestStage.ENCODE);
+            long encodeStart = System.nanoTime();
+            ByteBuffer buffer = FrameEncoder.encode(requestId, response);
+            long writeStart = System.nanoTime();
+            if (statistics != null) statistics.recordStage(RequestStage.ENCODE, writeStart - encodeStart);
+            trace.add(RequestStage.ENCODE, writeStart - encodeStart);
+            encodeEvent.finish(clientSocketChannel, requestId, trace.getRequest(), buffer.limit(), response.isSuccess());
+            RequestStageEvent writeEvent = RequestStageEvent.start(RequestStage.WRITE);
 
-            byte[] responseBytes = byteArrayOutputStream.toByteArray();
-            ByteBuffer buffer = ByteBuffer.wrap(responseBytes);
-
-            // Запись байтов ответа в канал
-            while (buffer.hasRemaining()) {
-                clientSocketChannel.write(buffer);
-            }
+            // Кадры ответов на параллельные запросы одного клиента уходят целиком и не перемешиваются
+            connection.send(buffer);
+            long writeNanos = System.nanoTime() - writeStart;
+            if (statistics != null) statistics.recordStage(RequestStage.WRITE, writeNanos);
+            trace.add(RequestStage.WRITE, writeNanos);
+            trace.setBytesOut(buffer.limit());
+            if (trace.getConnection() != null) trace.getConnection().sent(buffer.limit());
+            writeEvent.finish(clientSocketChannel, requestId, trace.getRequest(), buffer.limit(), true);
+            finishTrace(response.isSuccess());
         } catch (IOException e) {
             logger.error("Ошибка отправки ответа: {}", e.getMessage());
+            finishTrace(false);
+        }
+    }
+
+    /**
+     * Завершает хронометраж запроса: записывает в статистику этапы, измеренные вне потока отправки,
+     * и передает запрос журналу медленных запросов.
+     */
+    private void finishTrace(boolean success) {
+        trace.finish(success);
+        if (statistics != null) {
+            statistics.recordStage(RequestStage.READ, trace.get(RequestStage.READ));
+            statistics.recordStage(RequestStage.QUEUE, trace.get(RequestStage.QUEUE));
+            long databaseNanos = trace.get(RequestStage.DATABASE);
+            if (databaseNanos > 0) statistics.recordStage(RequestStage.DATABASE, databaseNanos);
         }
+        SlowRequestLog log = slowRequestLog;
+        if (log != null) log.offer(trace);
     }
 }
@@ -0,0 +1,70 @@
+package com.ollogi.server.commands.admin;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import com.general.managers.stats.StatsRegistry;
+import com.general.network.Request;
+import com.general.network.Response;
+import com.ollogi.server.commands.Stats;
+import com.ollogi.server.monitoring.ServerMetrics;
+import junit.framework.TestCase;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Проверки команд консоли сервера, не требующих базы данных.
+ */
+public class AdminCommandsTest extends TestCase {
+    private ExecutorService executor;
+
+    @Override
+    protected void tearDown() {
+        // Реестр пулов общий для всех тестов, пул теста не должен оставаться в метриках
+        ServerMetrics.unregisterExecutor("test");
+        if (executor != null) executor.shutdown();
+    }
+
+    public void testPoolsListsAndResizesPool() {
+        executor = Executors.newFixedThreadPool(2);
+        ServerMetrics.registerExecutor("test", executor);
+        Pools pools = new Pools();
+
+        Response list = pools.execute(new Request("pools", null));
+        assertTrue(list.isSuccess());
+        assertTrue(list.getMessage(), list.getMessage().contains("test"));
+
+        assertTrue(pools.execute(new Request("pools", new String[]{"pools", "test 6"})).isSuccess());
+        assertEquals(6, ((ThreadPoolExecutor) executor).getCorePoolSize());
+        assertTrue(pools.execute(new Request("pools", new String[]{"pools", "test 1"})).isSuccess());
+        assertEquals(1, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
+
+        assertFalse(pools.execute(new Request("pools", new String[]{"pools", "test 0"})).isSuccess());
+        assertFalse(pools.execute(new Request("pools", new String[]{"pools", "missing 2"})).isSuccess());
+    }
+
+    public void testLogLevelChangesLoggerLevel() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        LogLevel log = new LogLevel();
+
+        assertTrue(log.execute(new Request("log", new String[]{"log", "AdminTest DEBUG"})).isSuccess());
+        assertEquals(Level.DEBUG, context.getLogger("AdminTest").getLevel());
+        assertTrue(log.execute(new Request("log", null)).getMessage().contains("AdminTest: DEBUG"));
+        assertFalse(log.execute(new Request("log", new String[]{"log", "AdminTest LOUD"})).isSuccess());
+    }
+
+    public void testOnlyAdminStatsCanReset() {
+        StatsRegistry statistics = new StatsRegistry();
+        statistics.recordCommand("show", 1_000, true);
+        Request reset = new Request("stats", new String[]{"stats", "reset"});
+
+        assertFalse(new Stats(statistics).execute(reset).isSuccess());
+        assertTrue(new Stats(statistics).execute(new Request("stats", null)).getMessage().contains("show"));
+
+        assertTrue(new Stats(statistics, true).execute(reset).isSuccess());
+        assertFalse(new Stats(statistics).execute(new Request("stats", null)).getMessage().contains("show"));
+        assertEquals(1, statistics.getCommandLatency("show").count());
+    }
+}
@@ -0,0 +1,76 @@
+package com.ollogi.server.data;
+
+import com.general.models.Coordinates;
+import com.general.models.Flat;
+import com.general.models.House;
+import com.general.models.User;
+import com.general.models.View;
+import com.ollogi.server.managers.DatabaseManager;
+import junit.framework.TestCase;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Проверка запросов {@link FlatDAO} с настоящей базой PostgreSQL. Выполняется профилем postgres-it.
+ */
+public class FlatDAOIT extends TestCase {
+    private static final String OWNER = "it-owner";
+    private static final String OTHER = "it-other";
+
+    private final FlatDAO flatDAO = new FlatDAO();
+
+    @Override
+    protected void setUp() throws Exception {
+        if (System.getProperty("db.url") == null) {
+            fail("Не задана база данных: укажите -Ddb.url и -Ddb.name");
+        }
+        DatabaseManager.createTablesIfNotExist(DatabaseManager.getConnection());
+        UserDAO userDAO = new UserDAO();
+        for (String username : List.of(OWNER, OTHER)) {
+            if (userDAO.getUserByUsername(username) == null) {
+                userDAO.insertUser(new User(username, "hash", "salt", LocalDateTime.now()));
+            }
+        }
+    }
+
+    private long insert(String username) {
+        Flat flat = new Flat(0, "batch", new Coordinates(1L, 2f), 50, 2, 3, 10f, View.GOOD,
+                new House("house", 1990, 4L, 1));
+        flat.setUsername(username);
+        return flatDAO.insertFlat(flat);
+    }
+
+    public void testUpdateChecksOwnerOfStoredFlat() throws Exception {
+        long id = insert(OWNER);
+        try {
+            Flat renamed = flatDAO.getFlatById(id);
+            renamed.setName("renamed");
+            renamed.setUsername(OTHER);
+
+            assertFalse(flatDAO.updateFlat(renamed, OTHER));
+            assertEquals("batch", flatDAO.getFlatById(id).getName());
+            assertTrue(flatDAO.updateFlat(renamed, OWNER));
+            assertEquals("renamed", flatDAO.getFlatById(id).getName());
+            assertEquals(OWNER, flatDAO.getFlatById(id).getUsername());
+        } finally {
+            flatDAO.removeFlatById(id);
+        }
+    }
+
+    public void testBatchRemovalDeletesOnlyOwnedFlats() throws Exception {
+        long first = insert(OWNER);
+        long second = insert(OWNER);
+        long foreign = insert(OTHER);
+        try {
+            Set<Long> removed = flatDAO.removeFlatsByIds(List.of(first, second, foreign, -1L), OWNER);
+
+            assertEquals(Set.of(first, second), removed);
+            assertNull(flatDAO.getFlatById(first));
+            assertNotNull(flatDAO.getFlatById(foreign));
+        } finally {
+            flatDAO.removeFlatById(foreign);
+        }
+    }
+}
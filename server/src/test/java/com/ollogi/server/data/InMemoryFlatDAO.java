@@ -0,0 +1,86 @@
+package com.ollogi.server.data;
+
+import com.general.models.Flat;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Хранилище квартир в памяти вместо базы данных. Используется в тестах и бенчмарках,
+ * чтобы измерять работу коллекции без затрат на обращения к базе данных.
+ * <p>
+ * В отличие от базы данных, квартира с уже назначенным положительным ID, которого нет в хранилище,
+ * сохраняет этот ID при вставке: так удаленную квартиру можно вернуть на прежнее место.
+ */
+public class InMemoryFlatDAO extends FlatDAO {
+    private final Map<Long, Flat> flats = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    /**
+     * Создает пустое хранилище.
+     */
+    public InMemoryFlatDAO() {
+    }
+
+    /**
+     * Создает хранилище с заданными квартирами. Квартирам без ID присваиваются новые ID.
+     *
+     * @param initial начальные квартиры
+     */
+    public InMemoryFlatDAO(Collection<Flat> initial) {
+        for (Flat flat : initial) {
+            if (flat.getId() == null || flat.getId() <= 0) flat.setId(nextId.incrementAndGet());
+            else nextId.accumulateAndGet(flat.getId(), Math::max);
+            flats.put(flat.getId(), flat);
+        }
+    }
+
+    @Override
+    public List<Flat> selectAllFlats() {
+        return new ArrayList<>(flats.values());
+    }
+
+    @Override
+    public long insertFlat(Flat flat) {
+        Long existing = flat.getId();
+        if (existing != null && existing > 0 && flats.putIfAbsent(existing, flat) == null) {
+            nextId.accumulateAndGet(existing, Math::max);
+            return existing;
+        }
+        long id = nextId.incrementAndGet();
+        flats.put(id, flat);
+        return id;
+    }
+
+    @Override
+    public boolean removeFlatById(long id) {
+        return flats.remove(id) != null;
+    }
+
+    @Override
+    public Set<Long> removeFlatsByIds(Collection<Long> ids, String username) {
+        Set<Long> removed = new HashSet<>();
+        for (Long id : ids) {
+            Flat flat = flats.get(id);
+            if (flat != null && username.equals(flat.getUsername()) && flats.remove(id, flat)) removed.add(id);
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean updateFlat(Flat flat, String username) {
+        Flat stored = flats.get(flat.getId());
+        return stored != null && username.equals(stored.getUsername()) && flats.replace(flat.getId(), stored, flat);
+    }
+
+    @Override
+    public Flat getFlatById(long id) {
+        return flats.get(id);
+    }
+}
@@ -0,0 +1,36 @@
+package com.ollogi.server.data;
+
+import com.general.models.User;
+import com.ollogi.server.utility.PasswordHashing;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Хранилище пользователей в памяти вместо базы данных. Используется в тестах и бенчмарках
+ * вместе с {@link InMemoryFlatDAO}; пароли проверяются так же, как при работе с базой данных.
+ */
+public class InMemoryUserDAO extends UserDAO {
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    @Override
+    public int insertUser(User user) {
+        int id = nextId.incrementAndGet();
+        User stored = new User(id, user.getUsername(), user.getPasswordHash(), user.getSalt(), user.getRegistrationDate());
+        return users.putIfAbsent(user.getUsername(), stored) == null ? id : -1;
+    }
+
+    @Override
+    public User getUserByUsername(String username) {
+        return username == null ? null : users.get(username);
+    }
+
+    @Override
+    public boolean verifyUserPassword(String username, String password) {
+        User user = getUserByUsername(username);
+        return user != null && password != null
+                && PasswordHashing.verifyPassword(password, user.getSalt(), user.getPasswordHash());
+    }
+}
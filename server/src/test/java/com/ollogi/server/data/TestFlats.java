@@ -0,0 +1,37 @@
+package com.ollogi.server.data;
+
+import com.general.models.Coordinates;
+import com.general.models.Flat;
+import com.general.models.House;
+import com.general.models.View;
+
+/**
+ * Квартиры для тестов сервера: все поля, кроме ID, имени и владельца, одинаковые и валидные.
+ */
+public final class TestFlats {
+
+    private TestFlats() {
+    }
+
+    /**
+     * @param id   ID квартиры (0 - назначит хранилище)
+     * @param name имя квартиры
+     * @return квартира без владельца
+     */
+    public static Flat flat(long id, String name) {
+        return new Flat(id, name, new Coordinates(1L, 2f), 50, 2, 3, 10f, View.GOOD,
+                new House("house", 1990, 4L, 1));
+    }
+
+    /**
+     * @param id       ID квартиры (0 - назначит хранилище)
+     * @param name     имя квартиры
+     * @param username владелец квартиры
+     * @return квартира указанного владельца
+     */
+    public static Flat flat(long id, String name, String username) {
+        Flat flat = flat(id, name);
+        flat.setUsername(username);
+        return flat;
+    }
+}
@@ -0,0 +1,56 @@
+package com.ollogi.server.managers;
+
+import com.general.models.User;
+import com.ollogi.server.utility.PasswordHashing;
+import junit.framework.TestCase;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Проверки запоминания пользователей, прошедших проверку.
+ */
+public class CachingAuthenticatorTest extends TestCase {
+    private static final String PASSWORD = "secret";
+
+    /**
+     * Проверка, которая считает обращения и принимает только пароль {@link #PASSWORD}.
+     */
+    private static class CountingAuthenticator implements Authenticator {
+        final AtomicInteger calls = new AtomicInteger();
+        final String[] hash = PasswordHashing.hashPassword(PASSWORD);
+
+        @Override
+        public CompletableFuture<User> authenticate(String login, String password) {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(PASSWORD.equals(password)
+                    ? new User(login, hash[0], hash[1], LocalDateTime.now()) : null);
+        }
+    }
+
+    public void testRepeatedChecksDoNotReachDelegate() throws Exception {
+        CountingAuthenticator delegate = new CountingAuthenticator();
+        CachingAuthenticator authenticator = new CachingAuthenticator(delegate, 60_000);
+
+        assertNotNull(authenticator.authenticate("alice", PASSWORD).get());
+        assertNotNull(authenticator.authenticate("alice", PASSWORD).get());
+        assertNotNull(authenticator.authenticate("alice", PASSWORD).get());
+        assertEquals(1, delegate.calls.get());
+
+        assertNull(authenticator.authenticate("alice", "wrong").get());
+        assertEquals(2, delegate.calls.get());
+        assertNull(authenticator.authenticate("bob", "wrong").get());
+        assertNull(authenticator.authenticate("bob", "wrong").get());
+        assertEquals(4, delegate.calls.get());
+    }
+
+    public void testExpiredEntryIsCheckedAgain() throws Exception {
+        CountingAuthenticator delegate = new CountingAuthenticator();
+        CachingAuthenticator authenticator = new CachingAuthenticator(delegate, 0);
+
+        assertNotNull(authenticator.authenticate("alice", PASSWORD).get());
+        assertNotNull(authenticator.authenticate("alice", PASSWORD).get());
+        assertEquals(2, delegate.calls.get());
+    }
+}
@@ -0,0 +1,68 @@
+package com.ollogi.server.managers;
+
+import com.general.models.Flat;
+import com.general.models.User;
+import com.ollogi.server.data.FlatDAO;
+import com.ollogi.server.data.TestFlats;
+import com.ollogi.server.data.UserDAO;
+import junit.framework.TestCase;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Проверка ленты изменений с настоящей базой PostgreSQL. Выполняется профилем postgres-it:
+ * {@code mvn verify -Ppostgres-it -Ddb.url=jdbc:postgresql://localhost:5432/ -Ddb.name=lab7?user=postgres}
+ */
+public class ChangeFeedIT extends TestCase {
+    private static final String OWNER = "it-owner";
+
+    @Override
+    protected void setUp() {
+        if (System.getProperty("db.url") == null) {
+            fail("Не задана база данных: укажите -Ddb.url и -Ddb.name");
+        }
+    }
+
+    public void testFollowsChangesOfOtherConnections() throws Exception {
+        Connection connection = DatabaseManager.getConnection();
+        DatabaseManager.createTablesIfNotExist(connection);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET application_name = 'node-b'");
+        }
+        UserDAO userDAO = new UserDAO();
+        if (userDAO.getUserByUsername(OWNER) == null) {
+            userDAO.insertUser(new User(OWNER, "hash", "salt", LocalDateTime.now()));
+        }
+        FlatDAO flatDAO = new FlatDAO();
+        FlatCollectionManager manager = new FlatCollectionManager(flatDAO, userDAO);
+        ChangeFeed feed = new ChangeFeed("node-a", flatDAO, manager);
+        feed.start();
+        try {
+            long id = flatDAO.insertFlat(TestFlats.flat(0, "remote", OWNER));
+            assertTrue(id > 0);
+            assertTrue(waitUntil(() -> manager.getById(id) != null));
+
+            Flat renamed = TestFlats.flat(id, "renamed", OWNER);
+            assertTrue(flatDAO.updateFlat(renamed, OWNER));
+            // Изменение применяется удалением и добавлением, поэтому между ними квартиры может не быть
+            assertTrue(waitUntil(() -> manager.getById(id) != null && "renamed".equals(manager.getById(id).getName())));
+
+            assertTrue(flatDAO.removeFlatById(id));
+            assertTrue(waitUntil(() -> manager.getById(id) == null));
+        } finally {
+            feed.close();
+        }
+    }
+
+    private static boolean waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) return false;
+            Thread.sleep(20);
+        }
+        return true;
+    }
+}
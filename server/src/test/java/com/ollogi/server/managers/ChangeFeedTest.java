@@ -0,0 +1,89 @@
+package com.ollogi.server.managers;
+
+import com.general.managers.CommandManager;
+import com.general.models.Flat;
+import com.general.network.Request;
+import com.general.network.Response;
+import com.ollogi.server.data.InMemoryFlatDAO;
+import com.ollogi.server.data.InMemoryUserDAO;
+import com.ollogi.server.data.TestFlats;
+import com.ollogi.server.main.Main;
+import junit.framework.TestCase;
+
+import java.util.List;
+
+/**
+ * Проверки ленты изменений таблицы квартир без базы данных; проверка с PostgreSQL - {@link ChangeFeedIT}.
+ */
+public class ChangeFeedTest extends TestCase {
+
+    public void testAppliesChangesFromOtherNodes() throws Exception {
+        InMemoryFlatDAO flatDAO = new InMemoryFlatDAO(List.of(TestFlats.flat(1, "alpha", "owner"),
+                TestFlats.flat(2, "beta", "owner")));
+        FlatCollectionManager manager = new FlatCollectionManager(flatDAO, new InMemoryUserDAO());
+        ChangeFeed feed = new ChangeFeed("node-a", flatDAO, manager);
+
+        Flat gamma = TestFlats.flat(0, "gamma");
+        long inserted = flatDAO.insertFlat(gamma);
+        gamma.setId(inserted);
+        flatDAO.updateFlat(TestFlats.flat(1, "delta", "owner"), "owner");
+        flatDAO.removeFlatById(2);
+        int applied = feed.apply(List.of("INSERT:" + inserted + ":node-b", "UPDATE:1:node-b", "DELETE:2:psql"));
+
+        assertEquals(3, applied);
+        assertEquals(2, manager.collectionSize());
+        assertEquals("gamma", manager.getById(inserted).getName());
+        assertEquals("delta", manager.getById(1L).getName());
+        assertNull(manager.getById(2L));
+        assertEquals(1, manager.getByNamePrefix("del", false, 0).size());
+    }
+
+    public void testSkipsOwnAndMalformedNotifications() throws Exception {
+        InMemoryFlatDAO flatDAO = new InMemoryFlatDAO(List.of(TestFlats.flat(1, "alpha")));
+        FlatCollectionManager manager = new FlatCollectionManager(flatDAO, new InMemoryUserDAO());
+        ChangeFeed feed = new ChangeFeed("node-a", flatDAO, manager);
+        long version = manager.getVersion();
+
+        flatDAO.removeFlatById(1);
+        assertEquals(0, feed.apply(List.of("DELETE:1:node-a", "garbage", "UPDATE:one:node-b")));
+        assertEquals(version, manager.getVersion());
+        assertNotNull(manager.getById(1L));
+    }
+
+    public void testRepeatedNotificationsReadLatestState() throws Exception {
+        InMemoryFlatDAO flatDAO = new InMemoryFlatDAO();
+        FlatCollectionManager manager = new FlatCollectionManager(flatDAO, new InMemoryUserDAO());
+        ChangeFeed feed = new ChangeFeed("node-a", flatDAO, manager);
+
+        long id = flatDAO.insertFlat(TestFlats.flat(0, "alpha"));
+        flatDAO.removeFlatById(id);
+        assertEquals(1, feed.apply(List.of("INSERT:" + id + ":node-b", "UPDATE:" + id + ":node-b")));
+        assertEquals(0, manager.collectionSize());
+    }
+
+    public void testUpdateCommandReachesTableOfFlats() {
+        InMemoryFlatDAO flatDAO = new InMemoryFlatDAO(List.of(TestFlats.flat(1, "alpha", "owner")));
+        InMemoryUserDAO userDAO = new InMemoryUserDAO();
+        FlatCollectionManager manager = new FlatCollectionManager(flatDAO, userDAO);
+        CommandManager commandManager = new CommandManager();
+        Main.initCommands(manager, commandManager, userDAO,
+                new DatabaseAuthenticator(userDAO, DatabaseManager.getExecutor()));
+        commandManager.setCollectionManager(manager);
+
+        Request foreign = new Request("update", TestFlats.flat(1, "omega", "owner"));
+        foreign.setLogin("intruder");
+        assertFalse(commandManager.handleAsync(foreign).join().isSuccess());
+
+        Request request = new Request("update", TestFlats.flat(1, "delta", "intruder"));
+        request.setLogin("owner");
+        Response response = commandManager.handleAsync(request).join();
+        assertTrue(response.getMessage(), response.isSuccess());
+
+        manager.reload();
+        assertEquals("delta", manager.getById(1L).getName());
+        assertEquals("owner", manager.getById(1L).getUsername());
+        FlatCollectionManager other = new FlatCollectionManager(flatDAO, userDAO);
+        assertEquals("delta", other.getById(1L).getName());
+        assertEquals("owner", other.getById(1L).getUsername());
+    }
+}
@@ -0,0 +1,33 @@
+package com.ollogi.server.managers;
+
+import com.general.models.User;
+import com.ollogi.server.data.InMemoryUserDAO;
+import com.ollogi.server.utility.PasswordHashing;
+import junit.framework.TestCase;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Проверки учетных данных в пуле потоков базы данных.
+ */
+public class DatabaseAuthenticatorTest extends TestCase {
+
+    public void testChecksPasswordAgainstStoredHash() throws Exception {
+        InMemoryUserDAO userDAO = new InMemoryUserDAO();
+        String[] hash = PasswordHashing.hashPassword("secret");
+        userDAO.insertUser(new User("alice", hash[0], hash[1], LocalDateTime.now()));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            DatabaseAuthenticator authenticator = new DatabaseAuthenticator(userDAO, executor);
+
+            User user = authenticator.authenticate("alice", "secret").get();
+            assertEquals("alice", user.getUsername());
+            assertNull(authenticator.authenticate("alice", "wrong").get());
+            assertNull(authenticator.authenticate("bob", "secret").get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.ollogi.server.monitoring;
+
+import com.general.managers.stats.StatsRegistry;
+import junit.framework.TestCase;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Проверяет выгрузку метрик через HTTP в текстовом формате Prometheus.
+ */
+public class MetricsServerTest extends TestCase {
+
+    public void testScrapeExposesCommandsAndJvm() throws Exception {
+        StatsRegistry statistics = new StatsRegistry();
+        statistics.recordCommand("add", 2_000_000, true);
+        statistics.recordCommand("add", 4_000_000, false);
+        MetricsServer server = new MetricsServer("127.0.0.1", 0, new PrometheusExporter(statistics, null));
+        server.start();
+        try {
+            HttpURLConnection connection = (HttpURLConnection)
+                    new URL("http://127.0.0.1:" + server.getPort() + "/metrics").openConnection();
+            assertEquals(200, connection.getResponseCode());
+            assertTrue(connection.getContentType().startsWith("text/plain; version=0.0.4"));
+            String body;
+            try (InputStream input = connection.getInputStream()) {
+                body = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            assertTrue(body, body.contains("lab7_requests_total{command=\"add\"} 2\n"));
+            assertTrue(body, body.contains("lab7_request_errors_total{command=\"add\"} 1\n"));
+            assertTrue(body, body.contains("lab7_request_duration_seconds{command=\"add\",quantile=\"0.5\"} "));
+            assertTrue(body, body.contains("lab7_request_duration_seconds_count{command=\"add\"} 2\n"));
+            assertTrue(body, body.contains("lab7_request_stage_duration_seconds_count{stage=\"decode\"} 0\n"));
+            assertTrue(body, body.contains("jvm_memory_used_bytes{area=\"heap\"} "));
+            assertTrue(body, body.contains("# TYPE lab7_connections_open gauge\n"));
+
+            HttpURLConnection post = (HttpURLConnection)
+                    new URL("http://127.0.0.1:" + server.getPort() + "/metrics").openConnection();
+            post.setRequestMethod("POST");
+            assertEquals(405, post.getResponseCode());
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.ollogi.server.monitoring;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import junit.framework.TestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Проверяет, что события JFR записываются с заполненными полями.
+ */
+public class MonitoringEventsTest extends TestCase {
+
+    public void testDatabaseQueryEventRecorded() throws Exception {
+        Path file = Files.createTempFile("events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.ollogi.DatabaseQuery").withThreshold(Duration.ZERO);
+            recording.start();
+            DatabaseQueryEvent.start("flats.select_all").finish(42);
+            DatabaseQueryEvent.start("flats.delete").finish(-1);
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertEquals(2, events.size());
+            assertEquals("flats.select_all", events.get(0).getString("query"));
+            assertEquals(42, events.get(0).getLong("rows"));
+            assertTrue(events.get(0).getBoolean("success"));
+            assertEquals("flats.delete", events.get(1).getString("query"));
+            assertFalse(events.get(1).getBoolean("success"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.ollogi.server.monitoring;
+
+import com.general.managers.stats.RequestStage;
+import com.general.network.Request;
+import junit.framework.TestCase;
+
+/**
+ * Проверки журнала медленных запросов.
+ */
+public class SlowRequestLogTest extends TestCase {
+
+    public void testOnlySlowRequestsAreAccepted() {
+        SlowRequestLog log = new SlowRequestLog(50, 16);
+        try {
+            RequestTrace fast = new RequestTrace(null, System.nanoTime(), 10);
+            fast.finish(true);
+            assertFalse(log.offer(fast));
+
+            RequestTrace slow = new RequestTrace(null, System.nanoTime() - 100_000_000L, 10);
+            slow.finish(true);
+            assertTrue(log.offer(slow));
+        } finally {
+            log.close();
+        }
+    }
+
+    public void testFormatContainsRequestAndStages() {
+        RequestTrace trace = new RequestTrace(null, System.nanoTime() - 2_000_000_000L, 295);
+        Request request = new Request("add", null);
+        request.setLogin("user");
+        trace.setRequest(request);
+        trace.setRequestId(7);
+        trace.setBytesOut(120);
+        trace.add(RequestStage.DATABASE, 1_500_000_000L);
+        trace.finish(false);
+
+        String line = SlowRequestLog.format(trace, 3);
+        assertTrue(line, line.contains("команда=add"));
+        assertTrue(line, line.contains("пользователь=user"));
+        assertTrue(line, line.contains("id=7"));
+        assertTrue(line, line.contains("получено 295 Б, отправлено 120 Б"));
+        for (RequestStage stage : RequestStage.values()) {
+            assertTrue(line, line.contains(stage.getTitle()));
+        }
+        assertTrue(line, line.contains("пропущено записей: 3"));
+    }
+}
@@ -0,0 +1,120 @@
+package com.ollogi.server.network;
+
+import junit.framework.TestCase;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверки порядка выполнения запросов и отправки ответов одного соединения.
+ */
+public class ClientConnectionTest extends TestCase {
+
+    public void testReadsWaitForWritesAndWritesWaitForEverything() {
+        ClientConnection connection = new ClientConnection(null, null);
+        CompletableFuture<Void> firstRead = new CompletableFuture<>();
+        CompletableFuture<Void> write = new CompletableFuture<>();
+        CompletableFuture<Void> secondRead = new CompletableFuture<>();
+        CompletableFuture<Void> thirdRead = new CompletableFuture<>();
+
+        assertTrue(connection.enter(false, firstRead).isDone());
+        CompletableFuture<Void> writeReady = connection.enter(true, write);
+        CompletableFuture<Void> secondReady = connection.enter(false, secondRead);
+        CompletableFuture<Void> thirdReady = connection.enter(false, thirdRead);
+        CompletableFuture<Void> nextWriteReady = connection.enter(true, new CompletableFuture<>());
+
+        assertFalse(writeReady.isDone());
+        firstRead.complete(null);
+        assertTrue(writeReady.isDone());
+
+        assertFalse(secondReady.isDone());
+        write.complete(null);
+        assertTrue(secondReady.isDone());
+        assertTrue(thirdReady.isDone());
+
+        thirdRead.complete(null);
+        assertFalse(nextWriteReady.isDone());
+        secondRead.complete(null);
+        assertTrue(nextWriteReady.isDone());
+    }
+
+    public void testHandlersRunOneAtATimeInOrder() throws Exception {
+        ClientConnection connection = new ClientConnection(null, null);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch finished = new CountDownLatch(100);
+        try {
+            for (int i = 0; i < 100; i++) {
+                int number = i;
+                connection.dispatch(() -> {
+                    order.add(number);
+                    finished.countDown();
+                    if (number == 0) throw new IllegalStateException("сбой одного обработчика");
+                }, executor);
+            }
+            assertTrue(finished.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        for (int i = 0; i < 100; i++) assertEquals(Integer.valueOf(i), order.get(i));
+    }
+
+    public void testSlowClientDoesNotBlockSenderAndGetsWholeFramesInOrder() throws Exception {
+        try (ServerSocketChannel server = ServerSocketChannel.open();
+             Selector selector = Selector.open()) {
+            server.bind(new InetSocketAddress("localhost", 0));
+            try (SocketChannel client = SocketChannel.open(server.getLocalAddress());
+                 SocketChannel accepted = server.accept()) {
+                accepted.configureBlocking(false);
+                SelectionKey key = accepted.register(selector, 0);
+                ClientConnection connection = new ClientConnection(accepted, key);
+                key.attach(connection);
+
+                // Клиент пока ничего не читает: кадры больше буфера сокета остаются в очереди
+                byte[] first = new byte[4 << 20];
+                byte[] second = new byte[4 << 20];
+                Arrays.fill(first, (byte) 1);
+                Arrays.fill(second, (byte) 2);
+                connection.send(ByteBuffer.wrap(first));
+                connection.send(ByteBuffer.wrap(second));
+                assertTrue((key.interestOps() & SelectionKey.OP_WRITE) != 0);
+
+                Thread selectorThread = new Thread(() -> {
+                    try {
+                        while ((key.interestOps() & SelectionKey.OP_WRITE) != 0) {
+                            selector.select(100);
+                            if (key.isValid() && key.isWritable()) connection.flush();
+                            selector.selectedKeys().clear();
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                selectorThread.start();
+
+                ByteBuffer received = ByteBuffer.allocate(first.length + second.length);
+                while (received.hasRemaining()) {
+                    if (client.read(received) < 0) fail("соединение закрыто раньше времени");
+                }
+                selectorThread.join(10_000);
+                assertFalse(selectorThread.isAlive());
+                for (int i = 0; i < received.capacity(); i++) {
+                    assertEquals(i < first.length ? 1 : 2, received.get(i));
+                }
+            }
+        }
+    }
+}
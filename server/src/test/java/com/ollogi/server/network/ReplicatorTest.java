@@ -0,0 +1,117 @@
+package com.ollogi.server.network;
+
+import com.general.managers.CommandManager;
+import com.general.models.Flat;
+import com.general.models.User;
+import com.general.network.Request;
+import com.general.network.Response;
+import com.ollogi.server.data.InMemoryFlatDAO;
+import com.ollogi.server.data.InMemoryUserDAO;
+import com.ollogi.server.data.TestFlats;
+import com.ollogi.server.main.Main;
+import com.ollogi.server.managers.DatabaseAuthenticator;
+import com.ollogi.server.managers.DatabaseManager;
+import com.ollogi.server.managers.FlatCollectionManager;
+import com.ollogi.server.managers.FollowerCollectionManager;
+import com.ollogi.server.utility.PasswordHashing;
+import junit.framework.TestCase;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Проверяет репликацию коллекции с ведущего сервера на ведомый через localhost.
+ */
+public class ReplicatorTest extends TestCase {
+    private static final String LOGIN = "replica";
+    private static final String PASSWORD = "secret";
+
+    public void testFollowerReplaysLeaderChanges() throws Exception {
+        InMemoryUserDAO userDAO = new InMemoryUserDAO();
+        String[] hash = PasswordHashing.hashPassword(PASSWORD);
+        userDAO.insertUser(new User(LOGIN, hash[0], hash[1], LocalDateTime.now()));
+        FlatCollectionManager leader = new FlatCollectionManager(
+                new InMemoryFlatDAO(List.of(TestFlats.flat(1, "alpha"), TestFlats.flat(2, "beta"))), userDAO);
+        CommandManager commandManager = new CommandManager();
+        DatabaseAuthenticator authenticator = new DatabaseAuthenticator(userDAO, DatabaseManager.getExecutor());
+        Main.initCommands(leader, commandManager, userDAO, authenticator);
+        commandManager.setCollectionManager(leader);
+        Handler.setAuthenticator(authenticator);
+        Handler.setCommandManager(commandManager);
+
+        TCPServer server = new TCPServer(0);
+        int port = server.bind();
+        Thread serverThread = new Thread(server::start, "leader-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        LeaderConnection connection = new LeaderConnection("localhost", port, LOGIN, PASSWORD);
+        FollowerCollectionManager follower = new FollowerCollectionManager(connection);
+        Replicator replicator = new Replicator(follower, 10);
+        replicator.start();
+        try {
+            assertTrue(waitUntil(() -> follower.getLastInitTime() != null));
+            assertEquals(2, follower.collectionSize());
+            assertEquals("alpha", follower.getMin().getName());
+            long epoch = follower.getSourceEpoch();
+
+            long id = leader.addToCollection(LOGIN, TestFlats.flat(0, "aardvark"));
+            Flat removed = TestFlats.flat(0, "zeta");
+            leader.addToCollection(LOGIN, removed);
+            assertTrue(leader.removeFromCollection(removed, LOGIN));
+            leader.updateInCollection(TestFlats.flat(1, "delta"));
+
+            assertTrue(waitUntil(() -> follower.getSourceVersion() == leader.getVersion()));
+            assertEquals(epoch, follower.getSourceEpoch());
+            assertEquals(3, follower.collectionSize());
+            assertNull(follower.getById(removed.getId()));
+            assertEquals("aardvark", follower.getById(id).getName());
+            assertEquals("delta", follower.getById(1L).getName());
+            assertEquals(1, follower.getByNamePrefix("aa", false, 0).size());
+
+            CommandManager followerCommands = new CommandManager();
+            Main.initCommands(follower, followerCommands, null, new LeaderAuthenticator(connection));
+            followerCommands.setCollectionManager(follower);
+            followerCommands.setReadOnly("только чтение");
+            Response sum = followerCommands.handle(new Request("sum_of_height", null));
+            assertTrue(sum.getMessage(), sum.isSuccess());
+            assertTrue(sum.getMessage(), sum.getMessage().endsWith(": 9"));
+            Response average = followerCommands.handle(new Request("aggregate", new String[]{"aggregate", "area avg"}));
+            assertTrue(average.getMessage(), average.isSuccess());
+            assertTrue(average.getMessage(), average.getMessage().endsWith(": 50.0"));
+
+            LeaderAuthenticator followerAuthenticator = new LeaderAuthenticator(connection);
+            assertEquals(LOGIN, followerAuthenticator.authenticate(LOGIN, PASSWORD).get().getUsername());
+            assertNull(followerAuthenticator.authenticate(LOGIN, "wrong").get());
+        } finally {
+            replicator.close();
+            connection.close();
+            server.stop();
+        }
+    }
+
+    public void testFollowerRejectsMutatingCommands() {
+        LeaderConnection connection = new LeaderConnection("localhost", 1, LOGIN, PASSWORD);
+        FollowerCollectionManager follower = new FollowerCollectionManager(connection);
+        CommandManager commandManager = new CommandManager();
+        Main.initCommands(follower, commandManager, null, new LeaderAuthenticator(connection));
+        commandManager.setCollectionManager(follower);
+        commandManager.setReadOnly("только чтение");
+
+        assertFalse(commandManager.handle(new Request("clear", null)).isSuccess());
+        assertEquals("только чтение", commandManager.handle(new Request("remove_by_id", "1")).getMessage());
+        assertTrue(commandManager.handle(new Request("info", null)).isSuccess());
+        assertTrue(commandManager.handle(new Request("show", null)).isSuccess());
+        assertFalse(commandManager.handle(new Request("register", null)).isSuccess());
+    }
+
+    private static boolean waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) return false;
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}